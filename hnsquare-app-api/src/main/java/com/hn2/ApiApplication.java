@@ -15,6 +15,7 @@ import springfox.documentation.spring.data.rest.configuration.SpringDataRestConf
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableCaching
+@EnableScheduling
 @EnableAutoConfiguration(exclude = RepositoryRestMvcAutoConfiguration.class)
 @Configuration
 @Import(SpringDataRestConfiguration.class)
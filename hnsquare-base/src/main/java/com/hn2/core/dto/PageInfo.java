@@ -20,4 +20,6 @@ public class PageInfo {
    * 總筆數
    */
   private Long totalDatas;
+  /** 下一頁 token，無下一頁時為 null */
+  private String nextCursor;
 }
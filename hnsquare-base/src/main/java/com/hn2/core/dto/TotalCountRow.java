@@ -0,0 +1,7 @@
+package com.hn2.core.dto;
+
+/** 以 COUNT(*) OVER() 一併帶回總筆數的查詢結果列 */
+public interface TotalCountRow {
+  /** 查詢條件下的總筆數（每列相同） */
+  Integer getTotalCount();
+}
@@ -11,4 +11,23 @@ public class PagePayload {
   /** 每頁筆數 */
   @Min(1)
   private Integer pageSize;
+  /** 續頁 token（上一頁回傳的 {@link com.hn2.core.dto.PageInfo#getNextCursor()}），有值時以 seek 方式分頁並忽略 page */
+  private String cursor;
+  /** 總筆數計算方式，未指定為 EXACT */
+  private CountMode countMode = CountMode.EXACT;
+
+  /** 是否使用 seek（keyset）分頁 */
+  public boolean isSeek() {
+    return cursor != null && !cursor.isEmpty();
+  }
+
+  /** 總筆數計算方式 */
+  public enum CountMode {
+    /** 精確筆數 */
+    EXACT,
+    /** 不計算總筆數（無限捲動畫面），回傳的 totalDatas/totalPages 為 null */
+    SKIP,
+    /** 相同查詢條件短時間內沿用前次筆數，未命中時同 EXACT */
+    CACHED
+  }
 }
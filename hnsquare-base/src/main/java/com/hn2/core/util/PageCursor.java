@@ -0,0 +1,93 @@
+package com.hn2.core.util;
+
+import com.hn2.util.BusinessException;
+import com.hn2.util.ErrorType;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * seek（keyset）分頁 token
+ *
+ * <p>token 內容為上一頁最後一筆的排序鍵與第一頁算出的總筆數，以 Base64URL 編碼後交給前端，前端原樣帶回即可；續頁沿用
+ * token 內的總筆數，不再每頁重新 count。格式變更時調整 VERSION（舊版 token 仍可解析，視為未帶總筆數）。
+ */
+public final class PageCursor {
+
+  private static final String VERSION = "2:";
+
+  private static final String VERSION_1 = "1:";
+
+  private PageCursor() {}
+
+  /**
+   * 建立 token
+   *
+   * @param lastKey 本頁最後一筆的排序鍵
+   * @return token
+   */
+  public static String encode(String lastKey) {
+    return encode(lastKey, null);
+  }
+
+  /**
+   * 建立 token
+   *
+   * @param lastKey 本頁最後一筆的排序鍵
+   * @param total 總筆數，未計算時為 null
+   * @return token
+   */
+  public static String encode(String lastKey, Integer total) {
+    String raw = VERSION + (total == null ? "" : total) + ":" + lastKey;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * 解析 token
+   *
+   * @param cursor token
+   * @return 上一頁最後一筆的排序鍵
+   */
+  public static String decode(String cursor) {
+    return parse(cursor)[1];
+  }
+
+  /**
+   * 解析 token 內的總筆數
+   *
+   * @param cursor token
+   * @return 總筆數；未帶總筆數（或舊版 token）時為 null
+   */
+  public static Integer decodeTotal(String cursor) {
+    String total = parse(cursor)[0];
+    return total == null ? null : Integer.valueOf(total);
+  }
+
+  /** 驗證 token 並拆成 {總筆數（可為 null）, 排序鍵} */
+  private static String[] parse(String cursor) {
+    String raw;
+    try {
+      raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw invalid();
+    }
+    if (raw.startsWith(VERSION_1) && raw.length() > VERSION_1.length()) {
+      return new String[] {null, raw.substring(VERSION_1.length())};
+    }
+    if (!raw.startsWith(VERSION)) {
+      throw invalid();
+    }
+    int sep = raw.indexOf(':', VERSION.length());
+    if (sep < 0 || sep == raw.length() - 1 || sep - VERSION.length() > 9) {
+      throw invalid();
+    }
+    String total = raw.substring(VERSION.length(), sep);
+    if (!total.chars().allMatch(c -> c >= '0' && c <= '9')) {
+      throw invalid();
+    }
+    return new String[] {total.isEmpty() ? null : total, raw.substring(sep + 1)};
+  }
+
+  private static BusinessException invalid() {
+    return new BusinessException(ErrorType.REQUEST_NOT_ALLOW, "分頁 token 不合法");
+  }
+}
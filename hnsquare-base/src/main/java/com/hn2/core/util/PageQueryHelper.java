@@ -0,0 +1,96 @@
+package com.hn2.core.util;
+
+import com.hn2.core.dto.DataDto;
+import com.hn2.core.dto.PageInfo;
+import com.hn2.core.dto.TotalCountRow;
+import com.hn2.core.payload.PagePayload;
+import com.hn2.core.payload.PagePayload.CountMode;
+import com.hn2.util.BusinessException;
+import com.hn2.util.CacheUtil;
+import com.hn2.util.ErrorType;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * 分頁查詢流程
+ *
+ * <p>頁碼分頁時總筆數由查詢本身以 COUNT(*) OVER() 帶回，一次查詢取得該頁資料與總筆數；seek 分頁的條件含續頁條件無法以
+ * window 計數，改為沿用續頁 token 內第一頁算出的總筆數，token 未帶筆數時才另外執行 count。前端可指定 {@link CountMode}
+ * 略過計數或沿用快取的筆數。
+ */
+@Component
+public class PageQueryHelper {
+
+  /** 總筆數快取名稱（ehcache.xml） */
+  public static final String COUNT_CACHE = "listCount";
+
+  /**
+   * 執行分頁查詢
+   *
+   * @param pagePayload 分頁payload，可為 null（不分頁）
+   * @param countKey 總筆數快取 key（需能區分查詢條件）
+   * @param query 查詢；參數為是否需以 COUNT(*) OVER() 帶回總筆數
+   * @param countQuery 單獨計算總筆數
+   * @param keyOf 取得資料列排序鍵（seek 分頁 token）
+   * @param <T> 資料列型態
+   * @return 資料與分頁資訊
+   */
+  public <T extends TotalCountRow> DataDto<List<T>> query(
+      PagePayload pagePayload,
+      String countKey,
+      Function<Boolean, List<T>> query,
+      IntSupplier countQuery,
+      Function<T, String> keyOf) {
+    if (pagePayload == null) {
+      List<T> dataList = query.apply(false);
+      PageInfo pageInfo = new PageInfo();
+      pageInfo.setTotalDatas((long) dataList.size());
+      return DataDto.<List<T>>builder().data(dataList).page(pageInfo).build();
+    }
+
+    CountMode mode = pagePayload.getCountMode() == null ? CountMode.EXACT : pagePayload.getCountMode();
+    Integer count = null;
+    if (mode == CountMode.CACHED) {
+      count = CacheUtil.get(COUNT_CACHE, countKey, Integer.class);
+    }
+    if (count == null && mode != CountMode.SKIP && pagePayload.isSeek()) {
+      count = PageCursor.decodeTotal(pagePayload.getCursor());
+    }
+    boolean needCount = mode != CountMode.SKIP && count == null;
+    boolean windowCount = needCount && !pagePayload.isSeek();
+
+    List<T> dataList = query.apply(windowCount);
+
+    if (windowCount) {
+      if (dataList.isEmpty()) {
+        if (pagePayload.getPage() != null && pagePayload.getPage() > 1) {
+          throw new BusinessException(ErrorType.RESOURCE_NOT_FOUND, "請求分頁不存在");
+        }
+        count = 0;
+      } else {
+        count = dataList.get(0).getTotalCount();
+      }
+    } else if (needCount) {
+      count = countQuery.getAsInt();
+    }
+    if (mode == CountMode.CACHED && needCount) {
+      CacheUtil.put(COUNT_CACHE, countKey, count);
+    }
+
+    PageInfo pageInfo = new PageInfo();
+    pageInfo.setCurrentPage(pagePayload.getPage());
+    pageInfo.setPageItems(pagePayload.getPageSize());
+    if (count != null) {
+      pageInfo.setTotalDatas((long) count);
+      int i = count % pagePayload.getPageSize() == 0 ? 0 : 1;
+      pageInfo.setTotalPages(count / pagePayload.getPageSize() + i);
+    }
+    // 本頁已滿才可能有下一頁；前端帶回此 token 即以 seek 方式續查，總筆數隨 token 帶到下一頁
+    if (dataList.size() == pagePayload.getPageSize()) {
+      pageInfo.setNextCursor(PageCursor.encode(keyOf.apply(dataList.get(dataList.size() - 1)), count));
+    }
+    return DataDto.<List<T>>builder().data(dataList).page(pageInfo).build();
+  }
+}
@@ -0,0 +1,74 @@
+package com.hn2.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.hn2.util.BusinessException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+public class PageCursorTest {
+
+  @Test
+  public void testRoundTrip() {
+    String cursor = PageCursor.encode("SAC0000123", 1234);
+
+    assertEquals("SAC0000123", PageCursor.decode(cursor));
+    assertEquals(1234, PageCursor.decodeTotal(cursor));
+  }
+
+  @Test
+  public void testRoundTripWithoutTotal() {
+    String cursor = PageCursor.encode("SAC0000123");
+
+    assertEquals("SAC0000123", PageCursor.decode(cursor));
+    assertNull(PageCursor.decodeTotal(cursor));
+  }
+
+  @Test
+  public void testRoundTripKeepsSeparatorsAndUnicode() {
+    // 排序鍵本身含分隔字元或中文也能原樣還原
+    String key = "1:2:王小明";
+    String cursor = PageCursor.encode(key, 1);
+
+    assertEquals(key, PageCursor.decode(cursor));
+    assertEquals(1, PageCursor.decodeTotal(cursor));
+  }
+
+  @Test
+  public void testEncodeIsUrlSafe() {
+    String cursor = PageCursor.encode("??>>~~", 0);
+
+    assertEquals(-1, cursor.indexOf('+'));
+    assertEquals(-1, cursor.indexOf('/'));
+    assertEquals(-1, cursor.indexOf('='));
+  }
+
+  @Test
+  public void testDecodeVersion1() {
+    // 舊版 token 仍可解析，視為未帶總筆數
+    String cursor = raw("1:SAC0000123");
+
+    assertEquals("SAC0000123", PageCursor.decode(cursor));
+    assertNull(PageCursor.decodeTotal(cursor));
+  }
+
+  @Test
+  public void testDecodeRejectsInvalidToken() {
+    assertThrows(BusinessException.class, () -> PageCursor.decode("not base64!"));
+    assertThrows(BusinessException.class, () -> PageCursor.decode(raw("SAC0000123")));
+    assertThrows(BusinessException.class, () -> PageCursor.decode(raw("1:")));
+    assertThrows(BusinessException.class, () -> PageCursor.decode(raw("2:")));
+    assertThrows(BusinessException.class, () -> PageCursor.decode(raw("2:10")));
+    assertThrows(BusinessException.class, () -> PageCursor.decode(raw("2:10:")));
+    assertThrows(BusinessException.class, () -> PageCursor.decodeTotal(raw("2:-1:SAC0000123")));
+    assertThrows(BusinessException.class, () -> PageCursor.decodeTotal(raw("2:1234567890:SAC0000123")));
+    assertThrows(BusinessException.class, () -> PageCursor.decode(raw("3:10:SAC0000123")));
+  }
+
+  private static String raw(String content) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -2,6 +2,7 @@ package com.hn2.cms.controller;
 
 import com.hn2.cms.dto.aca4001.Aca4001AuditQueryDto;
 import com.hn2.cms.dto.aca4001.Aca4001EraseQueryDto;
+import com.hn2.cms.dto.aca4001.Aca4001RestoreDto;
 import com.hn2.cms.dto.aca4001.Aca4001RestoreQueryDto;
 import com.hn2.cms.payload.aca4001.Aca4001ErasePayload;
 import com.hn2.cms.payload.aca4001.Aca4001EraseQueryPayload;
@@ -60,11 +61,11 @@ public class Aca4001Controller {
     }
 
     @PostMapping("/restore")
-    public ResponseEntity<DataDto<Void>> restore(@Valid @RequestBody GeneralPayload<Aca4001RestorePayload> payload, HttpServletRequest request) {
+    public ResponseEntity<DataDto<Aca4001RestoreDto>> restore(@Valid @RequestBody GeneralPayload<Aca4001RestorePayload> payload, HttpServletRequest request) {
         var req = payload.getData();
         String userIp = request.getRemoteAddr();
 
-        DataDto<Void> result = service.restore(payload, req.getOperatorUserId(), userIp);
+        DataDto<Aca4001RestoreDto> result = service.restore(payload, req.getOperatorUserId(), userIp);
         return ResponseEntity.ok(result);
     }
 
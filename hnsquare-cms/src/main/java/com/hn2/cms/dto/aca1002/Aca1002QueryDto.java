@@ -1,11 +1,13 @@
 package com.hn2.cms.dto.aca1002;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hn2.core.dto.TotalCountRow;
 import lombok.Data;
 
 import java.time.LocalDate;
 
 @Data
-public class Aca1002QueryDto {
+public class Aca1002QueryDto implements TotalCountRow {
     /** 項目編號 */
     private String itemId;
     /** 承辦人簽收狀態 */
@@ -28,4 +30,8 @@ public class Aca1002QueryDto {
     private String namAddr;
     /** 罪名 */
     private String namCnames;
+
+    /** 查詢條件下的總筆數（COUNT(*) OVER()，僅供分頁計算） */
+    @JsonIgnore
+    private Integer totalCount;
 }
@@ -1,10 +1,12 @@
 package com.hn2.cms.dto.aca4001;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class Aca4001EraseQueryDto {
@@ -17,6 +19,8 @@ public class Aca4001EraseQueryDto {
     private List<CrmRec> crmRecList; // 犯罪紀錄ID清單
     private List<ProRec> proRecListBefore18; // 保護紀錄ID清單
     private List<ACADrugUse> acaDrugUseList; // 保護紀錄ID清單
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Long> timings; // 各區塊耗時（毫秒，僅 debug 模式回傳）
 
     @Data
     public static class CrmRec {
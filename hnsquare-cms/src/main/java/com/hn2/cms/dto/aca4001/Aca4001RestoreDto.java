@@ -0,0 +1,12 @@
+package com.hn2.cms.dto.aca4001;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class Aca4001RestoreDto {
+    private int skippedCount;                    // 未寫回的筆數（目前非塗銷狀態，鏡像保留）
+    private Map<String, List<String>> skippedIds; // 表名 → 未寫回的主鍵
+}
@@ -0,0 +1,66 @@
+package com.hn2.cms.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 流水號區段配發（dbo.KeyAllocator 計數表）
+ * <p>
+ * 每個 (Name, Prefix) 一列，NextValue 為下一個未配發的流水號；配發時以單一 UPDATE ... OUTPUT 原子地往後推一個區段，
+ * 多台主機同時配發也不會重疊。第一次使用某個 (Name, Prefix) 時以既有資料的最大流水號 + 1 建立計數列。
+ * <p>
+ * 配發在獨立交易（REQUIRES_NEW）中提交，呼叫端交易回滾時已配發的區段不會被收回重用。
+ * <p>
+ * 計數表由 resources/db/KeyAllocator.sql 建立（部署時執行），程式不執行 DDL。
+ */
+@Repository
+@RequiredArgsConstructor
+public class KeyBlockRepository {
+
+    private static final String SQL_RESERVE =
+            "UPDATE dbo.KeyAllocator " +
+                    "   SET NextValue = NextValue + ?, ModifiedOnDate = GETDATE() " +
+                    "OUTPUT deleted.NextValue " +
+                    " WHERE Name = ? AND Prefix = ?";
+
+    private static final String SQL_INSERT =
+            "INSERT INTO dbo.KeyAllocator (Name, Prefix, NextValue) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 配發一個區段
+     *
+     * @param name      計數名稱（例如 ACABrd.ID）
+     * @param prefix    前綴（分會 + 期間）
+     * @param blockSize 區段大小
+     * @param seedSql   查既有資料最大流水號的語法（參數：prefix, prefix + '%'），僅第一次建立計數列時使用
+     * @return 區段起始值（含），區段為 [start, start + blockSize)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int reserve(String name, String prefix, int blockSize, String seedSql) {
+        for (int attempt = 0; ; attempt++) {
+            List<Integer> start = jdbcTemplate.queryForList(SQL_RESERVE, Integer.class, blockSize, name, prefix);
+            if (!start.isEmpty()) {
+                return start.get(0);
+            }
+            Integer max = jdbcTemplate.queryForObject(seedSql, Integer.class, prefix, prefix + "%");
+            int seed = (max == null ? 0 : max) + 1;
+            try {
+                jdbcTemplate.update(SQL_INSERT, name, prefix, seed + blockSize);
+                return seed;
+            } catch (DuplicateKeyException e) {
+                // 其他主機同時建立了計數列 → 重新以 UPDATE 配發
+                if (attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.hn2.cms.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * SUP_AfterCare 批次狀態異動（簽收／分派／轉送／退回／改派）
+ * <p>
+ * 每種異動一個 UPDATE，只更新該異動涉及的欄位，不載入整筆實體；回傳實際異動筆數。
+ * 選取筆數不多時以 {@code ID IN (:ids)} 帶入，超過 {@link #INLINE_LIMIT} 筆改以 OPENJSON 陣列帶入單一參數，
+ * 避免參數過多（SQL Server 上限 2100 個）與執行計畫快取膨脹。
+ */
+@Repository
+@RequiredArgsConstructor
+public class SupAfterCareBulkRepository {
+
+    /** IN 清單展開上限，超過改用 OPENJSON */
+    private static final int INLINE_LIMIT = 200;
+
+    private final NamedParameterJdbcTemplate npJdbc;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 矯正署資料簽收（Aca1001）：SIGN_STATE = 1
+     *
+     * @param ids      SUP_AfterCare.ID 清單
+     * @param signDate 簽收日期
+     * @param signUser 簽收人員
+     * @return 異動筆數
+     */
+    public int sign(List<String> ids, LocalDate signDate, String signUser) {
+        return update(ids,
+                "SIGN_DATE = :signDate, SIGN_USER = :signUser, SIGN_STATE = '1'",
+                null,
+                new MapSqlParameterSource()
+                        .addValue("signDate", signDate)
+                        .addValue("signUser", signUser));
+    }
+
+    /**
+     * 簽收並分派個管人員（Aca1001）：SIGN_STATE = 1、ACA_STATE = 0
+     *
+     * @param ids      SUP_AfterCare.ID 清單
+     * @param signDate 簽收日期
+     * @param signUser 簽收人員
+     * @param acaUser  分派人員
+     * @return 異動筆數
+     */
+    public int assign(List<String> ids, LocalDate signDate, String signUser, String acaUser) {
+        return update(ids,
+                "SIGN_DATE = :signDate, SIGN_USER = :signUser, SIGN_STATE = '1', " +
+                        "ACA_RECEIPT_DATE = NULL, ACA_USER = :acaUser, ACA_STATE = '0'",
+                null,
+                new MapSqlParameterSource()
+                        .addValue("signDate", signDate)
+                        .addValue("signUser", signUser)
+                        .addValue("acaUser", acaUser));
+    }
+
+    /**
+     * 轉送其他分會：清空簽收與個管狀態（SIGN_STATE = 0、ACA_STATE = 0）
+     *
+     * @param ids           SUP_AfterCare.ID 清單
+     * @param signProtNo    簽收分會代碼
+     * @param signProtName  簽收分會
+     * @param clearSignUser 是否一併清空簽收人員（Aca1002 轉送清空；Aca1001 轉送保留）
+     * @return 異動筆數
+     */
+    public int transfer(List<String> ids, String signProtNo, String signProtName, boolean clearSignUser) {
+        return update(ids,
+                "SIGN_PROT_NAME = :signProtName, SIGN_PROT_NO = :signProtNo, " +
+                        "SIGN_DATE = NULL, " + (clearSignUser ? "SIGN_USER = NULL, " : "") + "SIGN_STATE = '0', " +
+                        "ACA_RECEIPT_DATE = NULL, ACA_USER = NULL, ACA_STATE = '0'",
+                null,
+                new MapSqlParameterSource()
+                        .addValue("signProtNo", signProtNo)
+                        .addValue("signProtName", signProtName));
+    }
+
+    /**
+     * 個管簽收（Aca1002）：僅 ACA_STATE 為 0 或 null 者改為 1
+     *
+     * @param ids            SUP_AfterCare.ID 清單
+     * @param acaReceiptDate 簽收日期
+     * @param acaUser        簽收人員
+     * @return 異動筆數（不符合狀態者不計）
+     */
+    public int receive(List<String> ids, LocalDate acaReceiptDate, String acaUser) {
+        return update(ids,
+                "ACA_RECEIPT_DATE = :acaReceiptDate, ACA_USER = :acaUser, ACA_STATE = '1'",
+                "(ACA_STATE = '0' OR ACA_STATE IS NULL)",
+                new MapSqlParameterSource()
+                        .addValue("acaReceiptDate", acaReceiptDate)
+                        .addValue("acaUser", acaUser));
+    }
+
+    /**
+     * 退回（Aca1002）：清空個管人員，ACA_STATE = 0
+     *
+     * @param ids SUP_AfterCare.ID 清單
+     * @return 異動筆數
+     */
+    public int goBack(List<String> ids) {
+        return update(ids,
+                "ACA_RECEIPT_DATE = NULL, ACA_USER = NULL, ACA_STATE = '0'",
+                null,
+                new MapSqlParameterSource());
+    }
+
+    /**
+     * 改派（Aca1002）：改為指定個管人員，ACA_STATE = 0
+     *
+     * @param ids     SUP_AfterCare.ID 清單
+     * @param acaUser 改派人員
+     * @return 異動筆數
+     */
+    public int reassign(List<String> ids, String acaUser) {
+        return update(ids,
+                "ACA_RECEIPT_DATE = NULL, ACA_USER = :acaUser, ACA_STATE = '0'",
+                null,
+                new MapSqlParameterSource().addValue("acaUser", acaUser));
+    }
+
+    private int update(List<String> ids, String setClause, String guard, MapSqlParameterSource params) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        String idFilter;
+        if (ids.size() <= INLINE_LIMIT) {
+            idFilter = "ID IN (:ids)";
+            params.addValue("ids", ids);
+        } else {
+            idFilter = "ID IN (SELECT TRY_CAST([value] AS uniqueidentifier) FROM OPENJSON(:ids))";
+            try {
+                params.addValue("ids", objectMapper.writeValueAsString(ids));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("ID 清單序列化失敗", e);
+            }
+        }
+        String sql = "UPDATE SUP_AfterCare SET " + setClause +
+                " WHERE " + idFilter + (guard == null ? "" : " AND " + guard);
+        return npJdbc.update(sql, params);
+    }
+}
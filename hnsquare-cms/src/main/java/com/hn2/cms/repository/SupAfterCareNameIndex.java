@@ -0,0 +1,257 @@
+package com.hn2.cms.repository;
+
+import com.hn2.util.Sql2oHelper;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SUP_AfterCare 更生人姓名（NAM_CNAME）記憶體 n-gram 索引
+ * <p>
+ * 姓名以單字 + 雙字（bigram）切詞建立倒排索引，posting list 以 int[] 存放列序號；查詢時只掃描各 gram 中最短的 posting list，
+ * 再以記憶體中的姓名確認包含關係（不去空白、只轉小寫，同 DB 不分大小寫定序下的 {@code NAM_CNAME like '%x%'}）。
+ * <p>
+ * 異動以 rowversion 欄位 SAC.ROW_VER 判斷（db/SUP_AfterCare_ROW_VER.sql）；CR_DATE_TIME / UP_DATE_TIME 由外部介接寫入，
+ * 只有日期且可能補登或為 NULL，不作為水位。水位取讀取前的 MIN_ACTIVE_ROWVERSION()，讀取期間未提交的異動下次仍會讀到。
+ * 排程定期補讀水位以後的異動，每次查詢前也先補讀一次（走 ROW_VER 索引，通常為 0 筆），因此索引與資料表一致，
+ * {@link #appendFilter} 只需 {@code SAC.ID IN (:nameIds)}，不必再以 OR 涵蓋近期異動的列。
+ * 刪除的資料於定期全量重建時移除（在此之前僅多出查不到的 ID，不影響結果）。
+ * ROW_VER 欄位不存在或補讀失敗時改回 like。
+ */
+@Slf4j
+@Component
+public class SupAfterCareNameIndex {
+
+    private static final String SELECT = "SELECT SAC.ID itemId, SAC.NAM_CNAME namName FROM SUP_AfterCare SAC ";
+
+    private static final String SQL_CHANGED = SELECT + "WHERE SAC.ROW_VER >= CONVERT(BINARY(8), :since)";
+
+    private static final String SQL_WATERMARK = "SELECT CAST(MIN_ACTIVE_ROWVERSION() AS BIGINT)";
+
+    @Autowired
+    private Sql2oHelper sql2oHelper;
+
+    /** 是否啟用 */
+    @Value("${aca.name-index.enabled:true}")
+    private boolean enabled;
+
+    /** 候選筆數超過此值時不使用索引（改回 like），避免 IN 清單過長 */
+    @Value("${aca.name-index.max-ids:1000}")
+    private int maxIds;
+
+    /** 全量重建間隔（小時） */
+    @Value("${aca.name-index.rebuild-hours:6}")
+    private long rebuildHours;
+
+    private volatile State state;
+
+    private long lastRebuild;
+
+    /**
+     * 附加姓名條件（Aca1001 / Aca1002 列表共用）
+     * <p>
+     * like 仍是最終條件；索引可用時另加 {@code SAC.ID IN (:nameIds)}，讓查詢走主鍵而不必整表比對。
+     *
+     * @param keyword   姓名關鍵字
+     * @param condition WHERE 條件
+     * @param params    參數
+     */
+    public void appendFilter(String keyword, StringBuilder condition, Map<String, Object> params) {
+        condition.append("AND SAC.NAM_CNAME like :namName ");
+        params.put("namName", "%" + keyword + "%");
+
+        List<String> ids = findIds(keyword);
+        if (ids == null) {
+            return;
+        }
+        if (ids.isEmpty()) {
+            // 索引與資料表一致，沒有命中即無資料
+            condition.append("AND 1 = 0 ");
+            return;
+        }
+        condition.append("AND SAC.ID IN (:nameIds) ");
+        params.put("nameIds", ids);
+    }
+
+    /**
+     * 依姓名關鍵字取得索引中符合的 ID（先補讀水位以後的異動）
+     *
+     * @param keyword 姓名關鍵字
+     * @return 符合的 ID；索引無法處理（未載入、補讀失敗、含萬用字元、候選過多）時回傳 null，由呼叫端改用 like
+     */
+    public List<String> findIds(String keyword) {
+        State current = state;
+        if (current == null || keyword == null || keyword.isEmpty()
+                || keyword.indexOf('%') >= 0 || keyword.indexOf('_') >= 0 || keyword.indexOf('[') >= 0) {
+            return null;
+        }
+        try {
+            catchUp(current);
+        } catch (RuntimeException e) {
+            log.debug("[NameIndex] catch up failed, fallback to like: {}", e.getMessage());
+            return null;
+        }
+        return current.find(normalize(keyword), maxIds);
+    }
+
+    /** 定期更新索引：第一次或超過重建間隔時全量重建，其餘只補讀水位以後的異動 */
+    @Scheduled(fixedDelayString = "${aca.name-index.refresh-ms:60000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            State current = state;
+            if (current == null || System.currentTimeMillis() - lastRebuild > Duration.ofHours(rebuildHours).toMillis()) {
+                long start = System.currentTimeMillis();
+                State fresh = new State();
+                fresh.watermark = watermark();
+                sql2oHelper.queryForEach(SELECT, null, NameRow.class, row -> fresh.put(row.getItemId(), row.getNamName()));
+                state = fresh;
+                lastRebuild = System.currentTimeMillis();
+                log.info("[NameIndex] rebuilt, rows={}, grams={}, {}ms", fresh.size, fresh.postings.size(), lastRebuild - start);
+            } else {
+                catchUp(current);
+            }
+        } catch (RuntimeException e) {
+            log.warn("[NameIndex] refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /** 補讀水位以後新增/修改的列並推進水位；同一份索引一次只由一個執行緒補讀 */
+    private void catchUp(State current) {
+        synchronized (current) {
+            long next = watermark();
+            Map<String, Object> params = new HashMap<>();
+            params.put("since", current.watermark);
+            sql2oHelper.queryForEach(SQL_CHANGED, params, NameRow.class, row -> current.put(row.getItemId(), row.getNamName()));
+            current.watermark = next;
+        }
+    }
+
+    /** 目前尚未提交的最小 rowversion；此值以後的異動皆尚未讀取 */
+    private long watermark() {
+        return ((Number) sql2oHelper.executeScalar(SQL_WATERMARK)).longValue();
+    }
+
+    /** 只轉小寫（DB 定序不分大小寫）；不去空白，空白與 like 一樣視為一般字元 */
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /** 索引查詢列 */
+    @Data
+    public static class NameRow {
+        private String itemId;
+        private String namName;
+    }
+
+    /** 索引內容；增量更新與查詢以讀寫鎖保護 */
+    static class State {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final Map<String, IntList> postings = new HashMap<>();
+        private String[] ids = new String[1024];
+        private String[] names = new String[1024];
+        private int size;
+        /** 水位（rowversion）：ROW_VER 大於等於此值的列可能尚未載入 */
+        private volatile long watermark;
+
+        void put(String id, String name) {
+            if (id == null) {
+                return;
+            }
+            String key = id.toUpperCase(Locale.ROOT);
+            String value = name == null ? "" : normalize(name);
+            lock.writeLock().lock();
+            try {
+                Integer ordinal = ordinals.get(key);
+                if (ordinal == null) {
+                    if (size == ids.length) {
+                        ids = Arrays.copyOf(ids, size * 2);
+                        names = Arrays.copyOf(names, size * 2);
+                    }
+                    ordinal = size++;
+                    ordinals.put(key, ordinal);
+                    ids[ordinal] = id;
+                } else if (value.equals(names[ordinal])) {
+                    return;
+                }
+                // 姓名變更時舊 gram 的 posting 保留，查詢時以目前姓名確認即可排除
+                names[ordinal] = value;
+                for (int i = 0; i < value.length(); i++) {
+                    postings.computeIfAbsent(value.substring(i, i + 1), k -> new IntList()).add(ordinal);
+                    if (i + 1 < value.length()) {
+                        postings.computeIfAbsent(value.substring(i, i + 2), k -> new IntList()).add(ordinal);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<String> find(String keyword, int maxIds) {
+            lock.readLock().lock();
+            try {
+                IntList shortest = null;
+                int grams = keyword.length() == 1 ? 1 : keyword.length() - 1;
+                for (int i = 0; i < grams; i++) {
+                    IntList posting = postings.get(keyword.substring(i, Math.min(i + 2, keyword.length())));
+                    if (posting == null) {
+                        return new ArrayList<>();
+                    }
+                    if (shortest == null || posting.size < shortest.size) {
+                        shortest = posting;
+                    }
+                }
+                List<String> result = new ArrayList<>();
+                for (int i = 0; i < shortest.size; i++) {
+                    int ordinal = shortest.data[i];
+                    if (names[ordinal].contains(keyword)) {
+                        if (result.size() == maxIds) {
+                            return null;
+                        }
+                        result.add(ids[ordinal]);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /** 遞增排序、不重複的 int 清單 */
+    private static class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        void add(int value) {
+            int pos = size == 0 || data[size - 1] < value ? size : Arrays.binarySearch(data, 0, size, value);
+            if (pos < 0) {
+                pos = -pos - 1;
+            } else if (pos < size) {
+                return;
+            }
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            System.arraycopy(data, pos, data, pos + 1, size - pos);
+            data[pos] = value;
+            size++;
+        }
+    }
+}
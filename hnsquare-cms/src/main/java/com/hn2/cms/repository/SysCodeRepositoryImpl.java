@@ -3,13 +3,17 @@ package com.hn2.cms.repository;
 
 import com.hn2.cms.dto.SysCodeQueryDto;
 import com.hn2.cms.payload.sys.SysCodeQueryPayload;
+import com.hn2.cms.repository.lists.ListsEntry;
+import com.hn2.cms.repository.lists.ListsSnapshotHolder;
 import com.hn2.util.Sql2oHelper;
 import com.hn2.util.SqlStringHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Repository
 public class SysCodeRepositoryImpl implements SysCodeRepository {
@@ -17,21 +21,45 @@ public class SysCodeRepositoryImpl implements SysCodeRepository {
     SqlStringHelper sqlStringHelper;
     @Autowired
     Sql2oHelper sql2oHelper;
+    @Autowired
+    ListsSnapshotHolder listsSnapshotHolder;
 
     @Override
     public  List<SysCodeQueryDto> codeList(SysCodeQueryPayload payload) {
-        String select = "select  value, text, entryId as id , isDisabled,isDeleted " +
-                " from Lists where case when 0 = :parentId then parentId else :parentId end = parentId " +
-                " and listName = :codeKind and level = :level order by isDeleted,isDisabled, SortOrder  ";
-
-        HashMap<String, Object> params = new HashMap<>();
-        params.put("parentId", payload.getParentId());
-        params.put("codeKind", payload.getCodeKind());
-        params.put("level", payload.getLevel());
-
+        // 由 Lists 快照篩選：parentId 為 0 時不限父層（同原 SQL 以 = 比較，ParentID 為 NULL 者一律排除）；
+        // 依 isDeleted, isDisabled, SortOrder 排序
+        Integer parentId = parseParentId(payload.getParentId());
+        boolean anyParent = parentId != null && parentId == 0;
+        Comparator<ListsEntry> order = Comparator.comparing(ListsEntry::isDeleted)
+                .thenComparing(ListsEntry::isDisabled)
+                .thenComparing(ListsEntry::getSortOrder, Comparator.nullsFirst(Comparator.naturalOrder()));
 
+        return listsSnapshotHolder.get().list(payload.getCodeKind()).stream()
+                .filter(e -> e.getParentId() != null && (anyParent || e.getParentId().equals(parentId)))
+                .filter(e -> Objects.equals(e.getLevel(), payload.getLevel()))
+                .sorted(order)
+                .map(e -> {
+                    SysCodeQueryDto dto = new SysCodeQueryDto();
+                    dto.setValue(e.getValue());
+                    dto.setText(e.getText());
+                    dto.setId(String.valueOf(e.getEntryId()));
+                    dto.setIsDisabled(e.isDisabled() ? "1" : "0");
+                    dto.setIsDeleted(e.isDeleted() ? "1" : "0");
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
 
-        return sql2oHelper.queryList(select, params, SysCodeQueryDto.class);
+    /** parentId 以數值比較（同原 SQL 與 ParentID 欄位比較時的隱含轉型）；空白或非數字回傳 null（查無資料） */
+    private static Integer parseParentId(String parentId) {
+        if (parentId == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(parentId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
 
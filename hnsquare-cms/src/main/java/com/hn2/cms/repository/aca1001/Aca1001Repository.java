@@ -7,6 +7,6 @@ import com.hn2.core.payload.PagePayload;
 import java.util.List;
 
 public interface Aca1001Repository {
-    List<Aca1001QueryDto> queryList(Aca1001QueryPayload payload, PagePayload pagePayload);
+    List<Aca1001QueryDto> queryList(Aca1001QueryPayload payload, PagePayload pagePayload, boolean withTotalCount);
     Integer countSearch(Aca1001QueryPayload payload);
 }
@@ -2,7 +2,11 @@ package com.hn2.cms.repository.aca1001;
 
 import com.hn2.cms.dto.aca1001.Aca1001QueryDto;
 import com.hn2.cms.payload.aca1001.Aca1001QueryPayload;
+import com.hn2.cms.repository.SupAfterCareNameIndex;
 import com.hn2.core.payload.PagePayload;
+import com.hn2.core.util.PageCursor;
+import com.hn2.util.BusinessException;
+import com.hn2.util.ErrorType;
 import com.hn2.util.Sql2oHelper;
 import com.hn2.util.SqlStringHelper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +17,7 @@ import org.springframework.util.StringUtils;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @Repository
 public class Aca1001RepositoryImpl implements Aca1001Repository {
@@ -20,9 +25,11 @@ public class Aca1001RepositoryImpl implements Aca1001Repository {
     SqlStringHelper sqlStringHelper;
     @Autowired
     Sql2oHelper sql2oHelper;
+    @Autowired
+    SupAfterCareNameIndex nameIndex;
 
     @Override
-    public List<Aca1001QueryDto> queryList(Aca1001QueryPayload payload, PagePayload pagePayload) {
+    public List<Aca1001QueryDto> queryList(Aca1001QueryPayload payload, PagePayload pagePayload, boolean withTotalCount) {
         String select = "SELECT " +
                 "SAC.ID itemId, " +
                 "SAC.SIGN_STATE, " +
@@ -37,14 +44,24 @@ public class Aca1001RepositoryImpl implements Aca1001Repository {
                 "SAC.NAM_SEX, " +
                 "SAC.NAM_HADDR_TEXT namAddr, " +
                 "SAC.NAM_CNAMES_TEXT namCnames " +
+                (withTotalCount ? ", COUNT(*) OVER() totalCount " : "") +
                 "FROM SUP_AfterCare SAC ";
 
         HashMap<String, Object> params = new HashMap<>();
         select += condition(payload, params);
+
+        // seek 分頁：由上一頁最後一筆的 ID 往後取，不論第幾頁都只讀一頁的資料
+        if (pagePayload != null && pagePayload.isSeek()) {
+            select += "AND SAC.ID > :seekId ";
+            params.put("seekId", seekId(pagePayload.getCursor()));
+        }
         select += "ORDER BY SAC.ID ";
 
-        if (pagePayload != null)
-            select += sqlStringHelper.getPageSql(pagePayload.getPage(), pagePayload.getPageSize());
+        if (pagePayload != null) {
+            select += pagePayload.isSeek()
+                    ? sqlStringHelper.getSeekPageSql(pagePayload.getPageSize())
+                    : sqlStringHelper.getPageSql(pagePayload.getPage(), pagePayload.getPageSize());
+        }
 
         return sql2oHelper.queryList(select, params, Aca1001QueryDto.class);
     }
@@ -60,6 +77,15 @@ public class Aca1001RepositoryImpl implements Aca1001Repository {
         return Integer.valueOf(sql2oHelper.executeScalar(select, params).toString());
     }
 
+    private String seekId(String cursor) {
+        String id = PageCursor.decode(cursor);
+        try {
+            return UUID.fromString(id).toString();
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorType.REQUEST_NOT_ALLOW, "分頁 token 不合法");
+        }
+    }
+
     private StringBuilder condition(Aca1001QueryPayload payload, Map<String, Object> params) {
 
         var conditionBuilder = new StringBuilder();
@@ -80,8 +106,8 @@ public class Aca1001RepositoryImpl implements Aca1001Repository {
 
         // 更生人名稱
         if (StringUtils.hasLength(payload.getNamName())) {
-            conditionBuilder.append("AND SAC.NAM_CNAME like :namName ");
-            params.put("namName", "%"+payload.getNamName()+"%");
+            // like 為最終條件；姓名索引可用時另以 ID 縮小範圍（含索引更新週期內異動的列）
+            nameIndex.appendFilter(payload.getNamName(), conditionBuilder, params);
         }
 
         // 簽收分會
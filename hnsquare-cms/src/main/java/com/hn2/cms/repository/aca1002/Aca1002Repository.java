@@ -7,6 +7,6 @@ import com.hn2.core.payload.PagePayload;
 import java.util.List;
 
 public interface Aca1002Repository {
-    List<Aca1002QueryDto> queryList(Aca1002QueryPayload payload, PagePayload pagePayload);
+    List<Aca1002QueryDto> queryList(Aca1002QueryPayload payload, PagePayload pagePayload, boolean withTotalCount);
     Integer countSearch(Aca1002QueryPayload payload);
 }
@@ -12,6 +12,8 @@ import java.util.List;
 
 public interface Aca3001Repository {
     //Query API
+    Aca3001QueryDto loadQuery(String proRecId);
+
     Integer findProAdoptIdByProRecId(String proRecId);
 
     LocalDate loadTimeLockDate();
@@ -3,12 +3,17 @@ package com.hn2.cms.repository.aca3001;
 import com.hn2.cms.dto.aca3001.Aca3001QueryDto;
 
 import com.hn2.cms.payload.aca3001.Aca3001SavePayload;
+import com.hn2.cms.repository.lists.ListsEntry;
+import com.hn2.cms.repository.lists.ListsSnapshotHolder;
+import com.hn2.cms.repository.lists.ListsTree;
 import com.hn2.util.DateUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
@@ -32,14 +37,157 @@ import java.util.stream.Collectors;
 public class Aca3001RepositoryImpl implements Aca3001Repository {
 
     private final JdbcTemplate jdbcTemplate;
+    private final ListsSnapshotHolder lists;
+    private final AdoptCriteriaSync criteriaSync;
 
     @Autowired
-    public Aca3001RepositoryImpl(JdbcTemplate jdbcTemplate) {
+    public Aca3001RepositoryImpl(JdbcTemplate jdbcTemplate, ListsSnapshotHolder lists, AdoptCriteriaSync criteriaSync) {
         this.jdbcTemplate = jdbcTemplate;
+        this.lists = lists;
+        this.criteriaSync = criteriaSync;
     }
 
     // Query API ------------------------------------------------------------------------------
 
+    /**
+     * 「歷史勾選紀錄」查詢（Direct / Eval 共用，%1$s = 子表、%2$s = ListName、%3$s = ProAdoptID 參數）
+     * <p>
+     * - 顯示文字優先用歷史快照 EntryText；若當時沒存快照，退回 Lists.Text
+     * - DisabledRank：若該 entry 在 Lists 找不到或已停用 → 1，否則 0（讓有效的排前面）
+     */
+    private static final String SQL_RECORDS =
+            "SELECT " +
+                    "    c.ListsEntryID                     AS EntryID, " +
+                    "    COALESCE(c.EntryText, l.[Text])    AS RecordText, " +
+                    "    COALESCE(c.IsSelected, CAST(0 AS bit)) AS IsSelected, " +
+                    "    COALESCE(l.SortOrder, 2147483647)  AS SortOrder, " +
+                    "    CASE WHEN l.EntryID IS NOT NULL AND l.IsDisabled = 0 THEN 0 ELSE 1 END AS DisabledRank " +
+                    "FROM dbo.%1$s c " +
+                    "LEFT JOIN dbo.Lists l " +
+                    "       ON l.EntryID = c.ListsEntryID " +
+                    "      AND l.ListName = '%2$s' " +
+                    "WHERE c.ProAdoptID = %3$s " +
+                    "ORDER BY DisabledRank ASC, SortOrder ASC, EntryID ASC";
+
+    /**
+     * /query 一次往返的批次查詢，依序回傳 5 個結果集：
+     * 1. ProRec + ACABrd（Header / Profile / Meta.editable / 就業狀態）
+     * 2. ProAdopt（ID / 分數評語 / 案件狀態），尚未建立則 0 筆
+     * 3. DirectAdoptCriteria 歷史紀錄
+     * 4. EvalAdoptCriteria 歷史紀錄
+     * 5. ProDtl.ProItem（服務類型代碼）
+     * <p>
+     * 參數：ProRecID × 3
+     */
+    private static final String SQL_QUERY_BATCH =
+            "SET NOCOUNT ON; " +
+                    "DECLARE @ProAdoptID INT = (SELECT TOP 1 ID FROM dbo.ProAdopt WHERE ProRecID = ?); " +
+                    "SELECT r.CreatedByBranchID, r.ProNoticeDate, r.ProDate, " +
+                    "       r.Pro_EmploymentStaus AS ProEmploymentStatus, r.ProStatus, " +
+                    "       b.ACAName, b.ACAIDNo, b.ACACardNo " +
+                    "FROM dbo.ProRec r " +
+                    "LEFT JOIN dbo.ACABrd b ON b.ACACardNo = r.ACACardNo " +
+                    "WHERE r.ID = ?; " +
+                    "SELECT ID, ScoreEconomy, ScoreEmployment, ScoreFamily, " +
+                    "   ScoreSocial, ScorePhysical, ScorePsych, " +
+                    "   ScoreParenting, ScoreLegal, ScoreResidence, " +
+                    "   ScoreTotal, Comment, " +
+                    "   CaseReject, ReasonReject, CaseAccept, ReasonAccept, CaseEnd, ReasonEnd " +
+                    "FROM dbo.ProAdopt WHERE ID = @ProAdoptID; " +
+                    String.format(SQL_RECORDS, "DirectAdoptCriteria", "PROADOPT_DAC", "@ProAdoptID") + "; " +
+                    String.format(SQL_RECORDS, "EvalAdoptCriteria", "PROADOPT_EAC", "@ProAdoptID") + "; " +
+                    "SELECT d.ProItem FROM dbo.ProDtl d WHERE d.ProRecID = ? AND d.ProItem IS NOT NULL;";
+
+    /**
+     * 一次往返載入 /query 所需的全部資料並組裝 DTO。
+     * <p>
+     * 以單一批次語法回傳多個結果集（見 {@link #SQL_QUERY_BATCH}），Lists 相關的選項、文字與服務類型路徑由記憶體快照補齊；
+     * 結果與逐一呼叫 computeProfile / computeMeta / computeHeader / compute*AdoptCriteria / computeSummary 相同。
+     *
+     * @param proRecId 個案紀錄 ID
+     * @return 組裝完成的 DTO；個案不存在（Profile 為 null）時回傳 null
+     */
+    @Override
+    public Aca3001QueryDto loadQuery(String proRecId) {
+        return jdbcTemplate.execute(SQL_QUERY_BATCH, (PreparedStatementCallback<Aca3001QueryDto>) ps -> {
+            ps.setString(1, proRecId);
+            ps.setString(2, proRecId);
+            ps.setString(3, proRecId);
+
+            // 1) ProRec + ACABrd：查無個案 → null
+            ResultSet rs = nextResultSet(ps, ps.execute());
+            if (rs == null || !rs.next() || rs.getString("ACACardNo") == null) {
+                return null;
+            }
+            var profile = new Aca3001QueryDto.Profile();
+            profile.setAcaName(rs.getString("ACAName"));
+            profile.setAcaIdNo(rs.getString("ACAIDNo"));
+            profile.setAcaCardNo(rs.getString("ACACardNo"));
+
+            var header = new Aca3001QueryDto.Header();
+            header.setBranchName(lists.get().childText(26, rs.getString("CreatedByBranchID"))); // 分會名稱（Lists.ParentID=26）
+            header.setProNoticeDate(getLocalDateToROC(rs, "ProNoticeDate"));
+            header.setProDate(getLocalDateToROC(rs, "ProDate"));
+
+            Timestamp proDateTs = rs.getTimestamp("ProDate");
+            LocalDate proDate = proDateTs == null ? null : proDateTs.toLocalDateTime().toLocalDate();
+
+            var summary = new Aca3001QueryDto.Summary();
+            summary.setProEmploymentStatus(lists.get().text("ACA_EMPLOYMENT_STATUS", rs.getString("ProEmploymentStatus")));
+            summary.setProStatus(rs.getString("ProStatus"));
+
+            // 2) ProAdopt：分數評語 + 案件狀態
+            rs = nextResultSet(ps, ps.getMoreResults());
+            Integer proAdoptId = null;
+            Aca3001QueryDto.EvalAdoptCriteria.EvalScore scores = new Aca3001QueryDto.EvalAdoptCriteria.EvalScore();
+            Aca3001QueryDto.Summary.CaseStatus caseStatus = new Aca3001QueryDto.Summary.CaseStatus();
+            if (rs != null && rs.next()) {
+                proAdoptId = rs.getInt("ID");
+                scores = mapEvalScore(rs);
+                caseStatus = mapCaseStatus(rs);
+            }
+            summary.setCaseStatus(caseStatus);
+
+            // 3) / 4) 歷史勾選紀錄
+            List<Aca3001QueryDto.DirectAdoptCriteria.Record> directRecords = new ArrayList<>();
+            rs = nextResultSet(ps, ps.getMoreResults());
+            while (rs != null && rs.next()) {
+                directRecords.add(mapDirectRecord(rs, directRecords.size()));
+            }
+            List<Aca3001QueryDto.EvalAdoptCriteria.Record> evalRecords = new ArrayList<>();
+            rs = nextResultSet(ps, ps.getMoreResults());
+            while (rs != null && rs.next()) {
+                evalRecords.add(mapEvalRecord(rs, evalRecords.size()));
+            }
+
+            // 5) 服務類型代碼
+            List<String> proItems = new ArrayList<>();
+            rs = nextResultSet(ps, ps.getMoreResults());
+            while (rs != null && rs.next()) {
+                proItems.add(rs.getString("ProItem"));
+            }
+            summary.setServiceTypeSelected(assembleServiceTypeSelected(proItems));
+
+            // 組裝
+            LocalDate lockDate = loadTimeLockDate();
+            var meta = new Aca3001QueryDto.Meta();
+            meta.setProRecId(proRecId);
+            meta.setProAdoptId(proAdoptId);
+            meta.setLockDate(lockDate);
+            meta.setEditable(isEditable(proDate, lockDate));
+
+            Aca3001QueryDto dto = new Aca3001QueryDto();
+            dto.setMeta(meta);
+            dto.setHeader(header);
+            dto.setProfile(profile);
+            dto.setDirectAdoptCriteria(assembleDirectAdoptCriteria(proAdoptId == null ? List.of() : directRecords));
+            dto.setEvalAdoptCriteria(assembleEvalAdoptCriteria(proAdoptId == null ? List.of() : evalRecords, scores));
+            dto.setSummary(summary);
+            return dto;
+        });
+    }
+
+
     /**
      * 依 ProRecID 查詢對應的 ProAdopt 主鍵 ID。
      * <p>
@@ -83,7 +231,7 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
         meta.setProRecId(proRecId);
         meta.setProAdoptId(proAdoptId);
         meta.setLockDate(lockDate); // 可能為 null
-        meta.setEditable(isEditable(proRecId, loadTimeLockDate())); // 判斷是否允許編輯
+        meta.setEditable(isEditable(proRecId, lockDate)); // 判斷是否允許編輯
 
         return meta;
     }
@@ -99,7 +247,7 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
      * 資料來源：
      * - ProRec (案件主表)
      * - ACABrd (分會對應表，透過 ID 與 ProRec.ID 關聯)
-     * - Lists (代碼表，ParentID=26，對應分會名稱)
+     * - Lists 快照 (代碼表，ParentID=26，對應分會名稱)
      *
      * @param proRecId 個案紀錄 ID
      * @return Header DTO；若查無資料則回傳 null
@@ -107,9 +255,8 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
     @Override
     public Aca3001QueryDto.Header computeHeader(String proRecId) {
         final String SQL_HEADER =
-                "SELECT l.[Text] AS BranchName, r.ProNoticeDate, r.ProDate " +
+                "SELECT r.CreatedByBranchID, r.ProNoticeDate, r.ProDate " +
                         "FROM dbo.ProRec r " +
-                        "LEFT JOIN dbo.Lists l ON l.ParentID = 26 AND l.Value = r.CreatedByBranchID " +
                         "WHERE r.ID = ?";
 
         return jdbcTemplate.query(SQL_HEADER, ps -> ps.setString(1, proRecId), rs -> {
@@ -117,7 +264,7 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
             if (!rs.next()) return null;
             // 2) 組裝 Header DTO
             var header = new Aca3001QueryDto.Header();
-            header.setBranchName(rs.getString("BranchName"));
+            header.setBranchName(lists.get().childText(26, rs.getString("CreatedByBranchID"))); // 分會名稱（Lists.ParentID=26）
             header.setProNoticeDate(getLocalDateToROC(rs, "ProNoticeDate"));
             header.setProDate(getLocalDateToROC(rs, "ProDate"));
             return header;
@@ -185,66 +332,12 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
      */
     @Override
     public Aca3001QueryDto.DirectAdoptCriteria computeDirectAdoptCriteria(Integer proAdoptId) {
-        final String SQL_OPTIONS =
-                "SELECT EntryID, Value, [Text], SortOrder FROM dbo.Lists " +
-                        "WHERE ListName = 'PROADOPT_DAC' AND IsDisabled = 0 " +
-                        "ORDER BY SortOrder ASC, EntryID ASC";
-        // -- 取出此 ProAdopt 的歷史紀錄（不補齊 Lists 現行未入庫項目）
-        //-- 顯示文字優先用歷史快照 EntryText；若當時沒存快照，退回 Lists.Text
-        //-- DisabledRank：若該 entry 在 Lists 找不到或已停用 → 1，否則 0（讓有效的排前面）
-        final String SQL_RECORDS_UNION =
-                "SELECT " +
-                        "    c.ListsEntryID                     AS EntryID, " +
-                        "    COALESCE(c.EntryText, l.[Text])    AS RecordText, " +
-                        "    COALESCE(c.IsSelected, CAST(0 AS bit)) AS IsSelected, " +
-                        "    COALESCE(l.SortOrder, 2147483647)  AS SortOrder, " +
-                        "    CASE WHEN l.EntryID IS NOT NULL AND l.IsDisabled = 0 THEN 0 ELSE 1 END AS DisabledRank " +
-                        "FROM dbo.DirectAdoptCriteria c " +
-                        "LEFT JOIN dbo.Lists l " +
-                        "       ON l.EntryID = c.ListsEntryID " +
-                        "      AND l.ListName = 'PROADOPT_DAC' " +
-                        "WHERE c.ProAdoptID = ? " +
-                        "ORDER BY DisabledRank ASC, SortOrder ASC, EntryID ASC";
-
-        // 1) 建立 DTO
-        var dto = new Aca3001QueryDto.DirectAdoptCriteria();
-
-        // 2) options：所有可選條件（固定從 Lists 撈，僅取 IsDisabled=0）
-        List<Aca3001QueryDto.DirectAdoptCriteria.Option> listOptions =
-                jdbcTemplate.query(SQL_OPTIONS, (rs, i) -> {
-                    var o = new Aca3001QueryDto.DirectAdoptCriteria.Option();
-                    o.setEntryId(rs.getInt("EntryID"));
-                    o.setValue(rs.getString("Value"));
-                    o.setText(rs.getString("Text"));
-                    o.setSortOrder(rs.getInt("SortOrder"));
-                    return o;
-                });
-        dto.setOptions(listOptions);
-
-        // 3) records：歷史
-        List<Aca3001QueryDto.DirectAdoptCriteria.Record> listRecord;
-        if (proAdoptId == null) {
-            listRecord = List.of();
-            dto.setRecords(listRecord);
-        } else {
-            listRecord = jdbcTemplate.query(
-                    SQL_RECORDS_UNION,
-                    ps -> {
-                        ps.setInt(1, proAdoptId);
-                    },
-                    (rs, i) -> {
-                        var r = new Aca3001QueryDto.DirectAdoptCriteria.Record();
-                        r.setEntryId(rs.getInt("EntryID"));
-                        r.setText(rs.getString("RecordText"));     // 歷史快照優先，否則用 Lists.Text
-                        r.setSelected(rs.getBoolean("IsSelected")); // 無紀錄時預設 0
-                        return r;
-                    }
-            );
-        }
-        dto.setRecords(listRecord);
-        dto.setHasDiff(computeHasDiffDirect(listOptions, listRecord));
-
-        return dto;
+        // 取出此 ProAdopt 的歷史紀錄（不補齊 Lists 現行未入庫項目），再補上 options 與 hasDiff
+        List<Aca3001QueryDto.DirectAdoptCriteria.Record> listRecord = proAdoptId == null
+                ? List.of()
+                : jdbcTemplate.query(String.format(SQL_RECORDS, "DirectAdoptCriteria", "PROADOPT_DAC", "?"),
+                        Aca3001RepositoryImpl::mapDirectRecord, proAdoptId);
+        return assembleDirectAdoptCriteria(listRecord);
     }
 
     /**
@@ -259,26 +352,6 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
     @Override
     public Aca3001QueryDto.EvalAdoptCriteria computeEvalAdoptCriteria(Integer proAdoptId) {
 
-        final String SQL_OPTIONS =
-                "SELECT EntryID, Value, [Text], SortOrder FROM dbo.Lists " +
-                        "WHERE ListName = 'PROADOPT_EAC' AND IsDisabled = 0 " +
-                        "ORDER BY SortOrder ASC, EntryID ASC";
-        //-- 取出此 ProAdopt 的歷史紀錄（不補齊 Lists 現行未入庫項目）
-        //-- 顯示文字優先用歷史快照 EntryText；若當時沒存快照，退回 Lists.Text
-        //-- DisabledRank：若該 entry 在 Lists 找不到或已停用 → 1，否則 0（讓有效的排前面）
-        final String SQL_RECORDS_UNION =
-                "SELECT " +
-                        "    c.ListsEntryID                     AS EntryID, " +
-                        "    COALESCE(c.EntryText, l.[Text])    AS RecordText, " +
-                        "    COALESCE(c.IsSelected, CAST(0 AS bit)) AS IsSelected, " +
-                        "    COALESCE(l.SortOrder, 2147483647)  AS SortOrder, " +
-                        "    CASE WHEN l.EntryID IS NOT NULL AND l.IsDisabled = 0 THEN 0 ELSE 1 END AS DisabledRank " +
-                        "FROM dbo.EvalAdoptCriteria c " +
-                        "LEFT JOIN dbo.Lists l " +
-                        "       ON l.EntryID = c.ListsEntryID " +
-                        "      AND l.ListName = 'PROADOPT_EAC' " +
-                        "WHERE c.ProAdoptID = ? " +
-                        "ORDER BY DisabledRank ASC, SortOrder ASC, EntryID ASC";
         final String SQL_SCORES =
                 "SELECT ScoreEconomy, ScoreEmployment, ScoreFamily, " +
                         "   ScoreSocial, ScorePhysical, ScorePsych, " +
@@ -286,81 +359,31 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
                         "   ScoreTotal, Comment " +
                         "FROM dbo.ProAdopt WHERE ID = ?";
 
-        // 1) 建立 DTO
-        var dto = new Aca3001QueryDto.EvalAdoptCriteria();
-
-        // 2) options：一律載入 Lists 的有效選項
-        List<Aca3001QueryDto.EvalAdoptCriteria.Option> listOptions =
-                jdbcTemplate.query(SQL_OPTIONS, (rs, i) -> {
-                    var o = new Aca3001QueryDto.EvalAdoptCriteria.Option();
-                    o.setEntryId(rs.getInt("EntryID"));
-                    o.setValue(rs.getString("Value"));
-                    o.setText(rs.getString("Text"));
-                    o.setSortOrder(rs.getInt("SortOrder"));
-                    return o;
-                });
-        dto.setOptions(listOptions);
-
-        // 3) selected + scores：依 proAdoptId 是否存在決定
+        // selected + scores：依 proAdoptId 是否存在決定
         if (proAdoptId == null) {
-            dto.setRecords(List.of());
-            dto.setEvalScores(new Aca3001QueryDto.EvalAdoptCriteria.EvalScore());
-        } else {
-            // 3-1) records：歷史
-            List<Aca3001QueryDto.EvalAdoptCriteria.Record> records =
-                    jdbcTemplate.query(
-                            SQL_RECORDS_UNION,
-                            ps -> {
-                                ps.setInt(1, proAdoptId);
-                            },
-                            (rs, i) -> {
-                                var r = new Aca3001QueryDto.EvalAdoptCriteria.Record();
-                                r.setEntryId(rs.getInt("EntryID"));
-                                r.setText(rs.getString("RecordText"));     // 歷史快照優先，否則 Lists.Text
-                                r.setSelected(rs.getBoolean("IsSelected"));// 無歷史則 0（未勾選）
-                                return r;
-                            }
-                    );
-            dto.setRecords(records);
-
-            // 3-2) scores：從 ProAdopt 載入分數與評語
-            Aca3001QueryDto.EvalAdoptCriteria.EvalScore scores =
-                    jdbcTemplate.query(SQL_SCORES, rs -> {
-                        if (rs.next()) {
-                            var sc = new Aca3001QueryDto.EvalAdoptCriteria.EvalScore();
-                            sc.setScoreEconomy(getNullableInt(rs, "ScoreEconomy"));
-                            sc.setScoreEmployment(getNullableInt(rs, "ScoreEmployment"));
-                            sc.setScoreFamily(getNullableInt(rs, "ScoreFamily"));
-                            sc.setScoreSocial(getNullableInt(rs, "ScoreSocial"));
-                            sc.setScorePhysical(getNullableInt(rs, "ScorePhysical"));
-                            sc.setScorePsych(getNullableInt(rs, "ScorePsych"));
-                            sc.setScoreParenting(getNullableInt(rs, "ScoreParenting"));
-                            sc.setScoreLegal(getNullableInt(rs, "ScoreLegal"));
-                            sc.setScoreResidence(getNullableInt(rs, "ScoreResidence"));
-                            sc.setTotalScore(getNullableInt(rs, "ScoreTotal"));
-                            sc.setComment(rs.getString("Comment"));
-                            return sc;
-                        }
-                        return new Aca3001QueryDto.EvalAdoptCriteria.EvalScore();
-                    }, proAdoptId);
-            dto.setEvalScores(scores);
+            return assembleEvalAdoptCriteria(List.of(), new Aca3001QueryDto.EvalAdoptCriteria.EvalScore());
         }
-        // 4) 差異檢查（若需要）
-        dto.setHasDiff(computeHasDiffEval(listOptions, dto.getRecords()));
-
-        return dto;
+        // 1) records：歷史
+        List<Aca3001QueryDto.EvalAdoptCriteria.Record> records =
+                jdbcTemplate.query(String.format(SQL_RECORDS, "EvalAdoptCriteria", "PROADOPT_EAC", "?"),
+                        Aca3001RepositoryImpl::mapEvalRecord, proAdoptId);
+
+        // 2) scores：從 ProAdopt 載入分數與評語
+        Aca3001QueryDto.EvalAdoptCriteria.EvalScore scores = jdbcTemplate.query(SQL_SCORES,
+                rs -> rs.next() ? mapEvalScore(rs) : new Aca3001QueryDto.EvalAdoptCriteria.EvalScore(), proAdoptId);
+        return assembleEvalAdoptCriteria(records, scores);
     }
 
     /**
      * 查詢並組裝案件的 Summary 區塊。
      * <p>
      * Summary 包含：
-     * 1. serviceTypeSelected：服務類型選擇 (從 ACA_PROTECT 階層代碼表遞迴撈路徑)
+     * 1. serviceTypeSelected：服務類型選擇 (從 ACA_PROTECT 階層索引取路徑)
      * 2. proEmploymentStatus / proStatus：來自 ProRec
      * 3. caseStatus：案件處理狀態 (REJECT / ACCEPT / END / NONE) 及理由，來自 ProAdopt
      * <p>
      * 規則：
-     * - serviceTypeSelected：透過 ProDtl.ProItem → 解析個案勾選的葉子節點 → 遞迴回溯父節點，直到根節點 (Parent=37)
+     * - serviceTypeSelected：透過 ProDtl.ProItem → 解析個案勾選的葉子節點 → 由 ACA_PROTECT 階層索引取路徑，直到根節點 (Parent=37)
      * - proEmploymentStatus / proStatus：若 ProRec 存在則取值，否則為 null
      * - caseStatus：若 proAdoptId 為 null 或查無資料 → 回傳預設 CaseStatus
      *
@@ -371,43 +394,13 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
     @Override
     public Aca3001QueryDto.Summary computeSummary(String proRecId, Integer proAdoptId) {
         final String SQL_SERVICE =
-                "WITH Leaf AS ( " + //該個案在 ACA_PROTECT 裡面勾到哪些葉子代碼
-                        "  SELECT DISTINCT l.EntryID AS LeafEntryID " +
-                        "  FROM dbo.ProRec  r " +
-                        "  JOIN dbo.ProDtl  d ON d.ProRecID = r.ID " +
-                        "  CROSS APPLY STRING_SPLIT(d.ProItem, ',') scores " +
-                        "  JOIN dbo.Lists   l " +
-                        "    ON l.ListName = 'ACA_PROTECT' " +
-                        "   AND ( l.Value = LTRIM(RTRIM(scores.value)) " +
-                        "      OR l.EntryID = TRY_CONVERT(int, LTRIM(RTRIM(scores.value))) ) " +
-                        "  WHERE r.ID = ? " +
-                        "), cte AS ( " + //這是遞迴的起點 (anchor row)
-                        "  SELECT l.EntryID, l.ParentID, l.[Text], l.[Level], " +
-                        "         l.IsDisabled, ISNULL(l.IsDeleted,0) AS IsDeleted, " +
-                        "         0 AS depth, lf.LeafEntryID " +
-                        "  FROM dbo.Lists l " +
-                        "  JOIN Leaf lf ON lf.LeafEntryID = l.EntryID " +
-                        "  WHERE l.ListName = 'ACA_PROTECT' " +
-                        "  UNION ALL " + //這是遞迴部分，會一直撈父節點，直到遇到 37 為止
-                        "  SELECT p.EntryID, p.ParentID, p.[Text], p.[Level], " +
-                        "         p.IsDisabled, ISNULL(p.IsDeleted,0) AS IsDeleted, " +
-                        "         c.depth + 1, c.LeafEntryID " +
-                        "  FROM dbo.Lists p " +
-                        "  JOIN cte c ON p.EntryID = c.ParentID " +
-                        "  WHERE p.ListName = 'ACA_PROTECT' " +
-                        "    AND c.ParentID <> 37 " + // 遇到根節點 (Parent=37) 停止
-                        ") " +
-                        "SELECT LeafEntryID, EntryID, [Text], [Level], IsDisabled, IsDeleted " +
-                        "FROM cte " +
-                        "ORDER BY LeafEntryID, [Level] ASC " +  //先依葉子 ID，再依層級排序
-                        "OPTION (MAXRECURSION 32);"; //限制遞迴最多 32 層，避免無限迴圈
+                "SELECT d.ProItem " + //該個案勾選的 ACA_PROTECT 代碼（逗號分隔）
+                        "FROM dbo.ProDtl d " +
+                        "WHERE d.ProRecID = ? AND d.ProItem IS NOT NULL";
         final String SQL_EMPLOYMENTSTATUS_AND_PROSTATUS =
-                "SELECT l.[Text] AS ProEmploymentStatusText, " +
+                "SELECT r.Pro_EmploymentStaus AS ProEmploymentStatus, " +
                         "       r.ProStatus AS ProStatus " +
                         "FROM dbo.ProRec r " +
-                        "LEFT JOIN dbo.Lists l " +
-                        "  ON l.ListName = 'ACA_EMPLOYMENT_STATUS' " +
-                        " AND l.Value = r.Pro_EmploymentStaus " +
                         "WHERE r.ID = ?";
         final String SQL_CASESTATUS =
                 "SELECT CaseReject, " +
@@ -422,58 +415,13 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
         var summary = new Aca3001QueryDto.Summary();
 
         // 2) 服務類型選擇 (serviceTypeSelected)
-        // - 對每個 LeafEntryId，回溯完整路徑直到根節點
-        // - 收集「是否禁用/刪除」旗標，供前端顯示
-        List<Aca3001QueryDto.Summary.ServiceTypeSelected> listService = jdbcTemplate.query(SQL_SERVICE, rs -> {
-
-            // 以 LeafEntryID 分組，一個 Leaf 對應一條完整路徑
-            Map<Integer, Aca3001QueryDto.Summary.ServiceTypeSelected> byLeaf = new LinkedHashMap<>();
-
-            // 每一列 = 路徑上的一個節點（父/祖先...直到葉），SQL 已依 LeafEntryID, Level 升冪排序
-            while (rs.next()) {
-                int leafId = rs.getInt("LeafEntryID"); // 此列屬於哪個葉節點
-                int entryId = rs.getInt("EntryID"); // 路徑中的某個節點 ID（不一定是葉節點）
-                if (entryId == 37) continue; // 略過根節點（保護類別），不納入路徑
-
-                String text = rs.getString("Text");
-                boolean dis = rs.getBoolean("IsDisabled");
-                boolean del = rs.getBoolean("IsDeleted");
-
-                // 初始化 leaf 容器
-                var leafDto = byLeaf.computeIfAbsent(leafId, k -> {
-                    var x = new Aca3001QueryDto.Summary.ServiceTypeSelected();
-                    x.setLeafEntryId(k);
-                    x.setPathEntryIds(new ArrayList<>());
-                    x.setPathText(new ArrayList<>());
-                    x.setHistoricalEntryIds(new ArrayList<>());
-                    x.setHasDisabled(false);
-                    return x;
-                });
-
-                // 加入路徑節點
-                leafDto.getPathEntryIds().add(entryId);
-                leafDto.getPathText().add(text);
-
-                // 設定狀態旗標
-                if (dis) leafDto.setHasDisabled(true);
-                if (del) leafDto.setHasDeleted(true);
-
-                // 收集歷史節點（以 IsDisabled 為準）
-                if (dis) leafDto.getHistoricalEntryIds().add(entryId);
-            }
-
-            // 將分組結果由 Map 轉為 List；若無資料則回傳空清單（避免回傳 null）
-            return byLeaf.isEmpty()
-                    ? List.of()
-                    : new ArrayList<>(byLeaf.values());
-        }, proRecId);
-
-        summary.setServiceTypeSelected(listService);
+        List<String> proItems = jdbcTemplate.queryForList(SQL_SERVICE, String.class, proRecId);
+        summary.setServiceTypeSelected(assembleServiceTypeSelected(proItems));
 
         // 3) ProRec 的 ProEmploymentStatus / ProStatus
         jdbcTemplate.query(SQL_EMPLOYMENTSTATUS_AND_PROSTATUS, rs -> {
             if (rs.next()) {
-                summary.setProEmploymentStatus(rs.getString("ProEmploymentStatusText"));
+                summary.setProEmploymentStatus(lists.get().text("ACA_EMPLOYMENT_STATUS", rs.getString("ProEmploymentStatus")));
                 summary.setProStatus(rs.getString("ProStatus"));
             }
             return null;
@@ -485,29 +433,8 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
         if (proAdoptId == null) {
             summary.setCaseStatus(new Aca3001QueryDto.Summary.CaseStatus());
         } else {
-            Aca3001QueryDto.Summary.CaseStatus caseStatus = jdbcTemplate.query(SQL_CASESTATUS, rs -> {
-
-                if (!rs.next()) {
-                    return new Aca3001QueryDto.Summary.CaseStatus(); // 查無 → 預設值
-                }
-
-                var cs = new Aca3001QueryDto.Summary.CaseStatus();
-
-                if (rs.getBoolean("CaseReject")) {
-                    cs.setCaseState(Aca3001QueryDto.Summary.CaseStatus.CaseState.REJECT);
-                    cs.setReason(rs.getString("ReasonReject").trim());
-                } else if (rs.getBoolean("CaseAccept")) {
-                    cs.setCaseState(Aca3001QueryDto.Summary.CaseStatus.CaseState.ACCEPT);
-                    cs.setReason(rs.getString("ReasonAccept").trim());
-                } else if (rs.getBoolean("CaseEnd")) {
-                    cs.setCaseState(Aca3001QueryDto.Summary.CaseStatus.CaseState.END);
-                    cs.setReason(rs.getString("ReasonEnd").trim());
-                } else {
-                    cs.setCaseState(Aca3001QueryDto.Summary.CaseStatus.CaseState.NONE);
-                    cs.setReason(null);
-                }
-                return cs;
-            }, proAdoptId);
+            Aca3001QueryDto.Summary.CaseStatus caseStatus = jdbcTemplate.query(SQL_CASESTATUS,
+                    rs -> rs.next() ? mapCaseStatus(rs) : new Aca3001QueryDto.Summary.CaseStatus(), proAdoptId); // 查無 → 預設值
             //3. summary載入 ProAdopt 的 CaseStatus
             summary.setCaseStatus(caseStatus);
         }
@@ -611,299 +538,22 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
         );
     }
 
+    /**
+     * 同步 DirectAdoptCriteria（記憶體比對差異後以單一 MERGE 套用，規則見 {@link AdoptCriteriaSync}）。
+     */
     @Transactional
     @Override
     public void upsertDirectAdoptCriteria(int proAdoptId, List<Integer> selectedEntryIds, boolean refreshSnapshot, boolean isNew) {
-        // ====== A) 更版模式：刪除舊關聯 → 依現行 Lists 重建 ======
-        if (refreshSnapshot) {
-            // 0) 全刪
-            jdbcTemplate.update("DELETE FROM dbo.DirectAdoptCriteria WHERE ProAdoptID = ?", proAdoptId);
-
-            // 1) 先插入「本次勾選」(IsSelected=1)，只納入現行有效 Lists（IsDisabled=0）
-            if (selectedEntryIds != null && !selectedEntryIds.isEmpty()) {
-                jdbcTemplate.batchUpdate(
-                        "INSERT INTO dbo.DirectAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-                                "SELECT ?, l.EntryID, l.[Text], 1 " +
-                                "FROM dbo.Lists l " +
-                                "WHERE l.ListName = 'PROADOPT_DAC' AND l.IsDisabled = 0 AND l.EntryID = ?",
-                        selectedEntryIds,
-                        selectedEntryIds.size(),
-                        (ps, entryId) -> {
-                            ps.setInt(1, proAdoptId);
-                            ps.setInt(2, entryId);
-                        }
-                );
-            }
-
-            // 2) 再補齊「現行有效但尚未入庫」的選項（IsSelected=0）
-            jdbcTemplate.update(
-                    "INSERT INTO dbo.DirectAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-                            "SELECT ?, l.EntryID, l.[Text], 0 " +
-                            "FROM dbo.Lists l " +
-                            "LEFT JOIN dbo.DirectAdoptCriteria c " +
-                            "  ON c.ProAdoptID = ? AND c.ListsEntryID = l.EntryID " +
-                            "WHERE l.ListName = 'PROADOPT_DAC' AND l.IsDisabled = 0 " +
-                            "  AND c.ProAdoptID IS NULL",
-                    ps -> {
-                        ps.setInt(1, proAdoptId);
-                        ps.setInt(2, proAdoptId);
-                    }
-            );
-
-            return; // 更版完成，結束
-        }
-
-        // ====== B) 一般模式（非更版）：保留歷史，只有新增才補齊 ======
-        // 1) 歸零選取狀態
-        jdbcTemplate.update(
-                "UPDATE dbo.DirectAdoptCriteria SET IsSelected = 0 WHERE ProAdoptID = ?",
-                proAdoptId
-        );
-
-        // 2) 勾選當次選項；不存在則 INSERT（帶快照）
-        if (selectedEntryIds != null && !selectedEntryIds.isEmpty()) {
-            for (Integer entryId : selectedEntryIds) {
-                final String sqlUpdate =
-                        "UPDATE dbo.DirectAdoptCriteria SET IsSelected = 1 WHERE ProAdoptID = ? AND ListsEntryID = ?";
-
-                int updated = jdbcTemplate.update(sqlUpdate, ps -> {
-                    ps.setInt(1, proAdoptId);
-                    ps.setInt(2, entryId);
-                });
-
-                if (updated == 0) {
-                    jdbcTemplate.update(
-                            "INSERT INTO dbo.DirectAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-                                    "SELECT ?, ?, l.[Text], 1 FROM dbo.Lists l " +
-                                    "WHERE l.EntryID = ? AND l.ListName = 'PROADOPT_DAC' AND l.IsDisabled = 0",
-                            ps -> {
-                                ps.setInt(1, proAdoptId);
-                                ps.setInt(2, entryId);
-                                ps.setInt(3, entryId);
-                            }
-                    );
-                }
-            }
-        }
-
-        // 3) 只有「新增」才補齊未勾選（IsSelected=0）
-        if (isNew) {
-            jdbcTemplate.update(
-                    "INSERT INTO dbo.DirectAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-                            "SELECT ?, l.EntryID, l.[Text], 0 " +
-                            "FROM dbo.Lists l " +
-                            "LEFT JOIN dbo.DirectAdoptCriteria c " +
-                            "  ON c.ProAdoptID = ? AND c.ListsEntryID = l.EntryID " +
-                            "WHERE l.ListName = 'PROADOPT_DAC' AND l.IsDisabled = 0 " +
-                            "  AND c.ProAdoptID IS NULL",
-                    ps -> {
-                        ps.setInt(1, proAdoptId);
-                        ps.setInt(2, proAdoptId);
-                    }
-            );
-        }
-//        // 1) 全設為未勾選（保留歷史）
-//        jdbcTemplate.update(
-//                "UPDATE dbo.DirectAdoptCriteria SET IsSelected = 0 WHERE ProAdoptID = ?",
-//                proAdoptId
-//        );
-//
-//        // 2) 逐一把「本次勾選」設為 1；若不存在就插入（帶 Lists.Text 快照）
-//        if (selectedEntryIds != null && !selectedEntryIds.isEmpty()) {
-//            for (Integer entryId : selectedEntryIds) {
-//                // 根據 refreshSnapshot 切換 UPDATE SQL
-//                final String sqlUpdate = refreshSnapshot
-//                        ? // 刷新快照：覆寫 EntryText = Lists.Text
-//                        "UPDATE c SET c.IsSelected = 1, c.EntryText = l.[Text] " +
-//                                "FROM dbo.DirectAdoptCriteria c " +
-//                                "JOIN dbo.Lists l ON l.EntryID = c.ListsEntryID AND l.ListName = 'PROADOPT_DAC' " +
-//                                "WHERE c.ProAdoptID = ? AND c.ListsEntryID = ?"
-//                        : // 保留快照：不動 EntryText
-//                        "UPDATE dbo.DirectAdoptCriteria " +
-//                                "SET IsSelected = 1 " +
-//                                "WHERE ProAdoptID = ? AND ListsEntryID = ?";
-//
-//                int updated = jdbcTemplate.update(sqlUpdate, ps -> {
-//                    ps.setInt(1, proAdoptId);
-//                    ps.setInt(2, entryId);
-//                });
-//
-//                //如果過去從沒存過這個 entryId → UPDATE 找不到任何列可更新 → update==0 → 就會進入 INSERT
-//                if (updated == 0) {
-//                    jdbcTemplate.update(
-//                            "INSERT INTO dbo.DirectAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-//                                    "SELECT ?, ?, l.[Text], 1 " +
-//                                    "FROM dbo.Lists l " +
-//                                    "WHERE l.EntryID = ? AND l.ListName = 'PROADOPT_DAC' " +
-//                                    "  AND l.IsDisabled = 0",               // <── 新增這條件
-//                            ps -> {
-//                                ps.setInt(1, proAdoptId);
-//                                ps.setInt(2, entryId);
-//                                ps.setInt(3, entryId);
-//                            }
-//                    );
-//                }
-//            }
-//        }
-//        // 3) 補齊：只有「新增」才做；更新一律不補
-//        // 注意：這段只針對「現行有效」的 options（IsDisabled=0），不會新增已停用的項目
-//        if (isNew) {
-//            jdbcTemplate.update(
-//                    "INSERT INTO dbo.DirectAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-//                            "SELECT ?, l.EntryID, l.[Text], 0 " +
-//                            "FROM dbo.Lists l " +
-//                            "LEFT JOIN dbo.DirectAdoptCriteria c " +
-//                            "  ON c.ProAdoptID = ? AND c.ListsEntryID = l.EntryID " +
-//                            "WHERE l.ListName = 'PROADOPT_DAC' AND l.IsDisabled = 0 " +
-//                            "  AND c.ProAdoptID IS NULL",
-//                    ps -> {
-//                        ps.setInt(1, proAdoptId);
-//                        ps.setInt(2, proAdoptId);
-//                    }
-//            );
-//        }
-
+        criteriaSync.sync(AdoptCriteriaSync.CriteriaTable.DIRECT, proAdoptId, selectedEntryIds, refreshSnapshot, isNew);
     }
 
+    /**
+     * 同步 EvalAdoptCriteria（記憶體比對差異後以單一 MERGE 套用，規則見 {@link AdoptCriteriaSync}）。
+     */
     @Transactional
     @Override
     public void upsertEvalAdoptCriteria(int proAdoptId, List<Integer> selectedEntryIds, boolean refreshSnapshot, boolean isNew) {
-        // ====== A) 更版模式：刪除舊關聯 → 依現行 Lists 重建 ======
-        if (refreshSnapshot) {
-            jdbcTemplate.update("DELETE FROM dbo.EvalAdoptCriteria WHERE ProAdoptID = ?", proAdoptId);
-
-            if (selectedEntryIds != null && !selectedEntryIds.isEmpty()) {
-                jdbcTemplate.batchUpdate(
-                        "INSERT INTO dbo.EvalAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-                                "SELECT ?, l.EntryID, l.[Text], 1 " +
-                                "FROM dbo.Lists l " +
-                                "WHERE l.ListName = 'PROADOPT_EAC' AND l.IsDisabled = 0 AND l.EntryID = ?",
-                        selectedEntryIds,
-                        selectedEntryIds.size(),
-                        (ps, entryId) -> {
-                            ps.setInt(1, proAdoptId);
-                            ps.setInt(2, entryId);
-                        }
-                );
-            }
-
-            jdbcTemplate.update(
-                    "INSERT INTO dbo.EvalAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-                            "SELECT ?, l.EntryID, l.[Text], 0 " +
-                            "FROM dbo.Lists l " +
-                            "LEFT JOIN dbo.EvalAdoptCriteria c " +
-                            "  ON c.ProAdoptID = ? AND c.ListsEntryID = l.EntryID " +
-                            "WHERE l.ListName = 'PROADOPT_EAC' AND l.IsDisabled = 0 " +
-                            "  AND c.ProAdoptID IS NULL",
-                    ps -> {
-                        ps.setInt(1, proAdoptId);
-                        ps.setInt(2, proAdoptId);
-                    }
-            );
-
-            return; // 更版完成
-        }
-
-        // ====== B) 一般模式（非更版） ======
-        jdbcTemplate.update(
-                "UPDATE dbo.EvalAdoptCriteria SET IsSelected = 0 WHERE ProAdoptID = ?",
-                proAdoptId
-        );
-
-        if (selectedEntryIds != null && !selectedEntryIds.isEmpty()) {
-            for (Integer entryId : selectedEntryIds) {
-                final String sqlUpdate =
-                        "UPDATE dbo.EvalAdoptCriteria SET IsSelected = 1 WHERE ProAdoptID = ? AND ListsEntryID = ?";
-
-                int updated = jdbcTemplate.update(sqlUpdate, ps -> {
-                    ps.setInt(1, proAdoptId);
-                    ps.setInt(2, entryId);
-                });
-
-                if (updated == 0) {
-                    jdbcTemplate.update(
-                            "INSERT INTO dbo.EvalAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-                                    "SELECT ?, ?, l.[Text], 1 FROM dbo.Lists l " +
-                                    "WHERE l.EntryID = ? AND l.ListName = 'PROADOPT_EAC' AND l.IsDisabled = 0",
-                            ps -> {
-                                ps.setInt(1, proAdoptId);
-                                ps.setInt(2, entryId);
-                                ps.setInt(3, entryId);
-                            }
-                    );
-                }
-            }
-        }
-
-        if (isNew) {
-            jdbcTemplate.update(
-                    "INSERT INTO dbo.EvalAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-                            "SELECT ?, l.EntryID, l.[Text], 0 " +
-                            "FROM dbo.Lists l " +
-                            "LEFT JOIN dbo.EvalAdoptCriteria c " +
-                            "  ON c.ProAdoptID = ? AND c.ListsEntryID = l.EntryID " +
-                            "WHERE l.ListName = 'PROADOPT_EAC' AND l.IsDisabled = 0 " +
-                            "  AND c.ProAdoptID IS NULL",
-                    ps -> {
-                        ps.setInt(1, proAdoptId);
-                        ps.setInt(2, proAdoptId);
-                    }
-            );
-        }
-//        jdbcTemplate.update(
-//                "UPDATE dbo.EvalAdoptCriteria SET IsSelected = 0 WHERE ProAdoptID = ?",
-//                proAdoptId
-//        );
-//
-//        if (selectedEntryIds != null && !selectedEntryIds.isEmpty()) {
-//            for (Integer entryId : selectedEntryIds) {
-//                final String sqlUpdate = refreshSnapshot
-//                        ? "UPDATE c SET c.IsSelected = 1, c.EntryText = l.[Text] " +
-//                        "FROM dbo.EvalAdoptCriteria c " +
-//                        "JOIN dbo.Lists l ON l.EntryID = c.ListsEntryID AND l.ListName = 'PROADOPT_EAC' " +
-//                        "WHERE c.ProAdoptID = ? AND c.ListsEntryID = ?"
-//                        : "UPDATE dbo.EvalAdoptCriteria " +
-//                        "SET IsSelected = 1 " +
-//                        "WHERE ProAdoptID = ? AND ListsEntryID = ?";
-//
-//                int updated = jdbcTemplate.update(sqlUpdate, ps -> {
-//                    ps.setInt(1, proAdoptId);
-//                    ps.setInt(2, entryId);
-//                });
-//
-//                if (updated == 0) {
-//                    jdbcTemplate.update(
-//                            "INSERT INTO dbo.EvalAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-//                                    "SELECT ?, ?, l.[Text], 1 " +
-//                                    "FROM dbo.Lists l " +
-//                                    "WHERE l.EntryID = ? AND l.ListName = 'PROADOPT_EAC' " +
-//                                    "  AND l.IsDisabled = 0",               // <── 新增這條件
-//                            ps -> {
-//                                ps.setInt(1, proAdoptId);
-//                                ps.setInt(2, entryId);
-//                                ps.setInt(3, entryId);
-//                            }
-//                    );
-//                }
-//            }
-//        }
-//        // 3) 補齊：只有「新增」才做；更新一律不補
-//        // 注意：這段只針對「現行有效」的 options（IsDisabled=0），不會新增已停用的項目
-//        if (isNew) {
-//            jdbcTemplate.update(
-//                    "INSERT INTO dbo.EvalAdoptCriteria (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
-//                            "SELECT ?, l.EntryID, l.[Text], 0 " +
-//                            "FROM dbo.Lists l " +
-//                            "LEFT JOIN dbo.EvalAdoptCriteria c " +
-//                            "  ON c.ProAdoptID = ? AND c.ListsEntryID = l.EntryID " +
-//                            "WHERE l.ListName = 'PROADOPT_EAC' AND l.IsDisabled = 0 " +
-//                            "  AND c.ProAdoptID IS NULL",
-//                    ps -> {
-//                        ps.setInt(1, proAdoptId);
-//                        ps.setInt(2, proAdoptId);
-//                    }
-//            );
-//        }
+        criteriaSync.sync(AdoptCriteriaSync.CriteriaTable.EVAL, proAdoptId, selectedEntryIds, refreshSnapshot, isNew);
     }
 
     // Delete API --------------------------------------------------------------------------------
@@ -967,7 +617,7 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
      * 載入系統設定的「時間鎖定日」(TIMELOCK_ACABRD)。
      * <p>
      * 資料來源：
-     * - Lists 表中，ListName = 'TIMELOCK_ACABRD'，取第一筆 Value
+     * - Lists 快照中，ListName = 'TIMELOCK_ACABRD'，取第一筆 Value
      * <p>
      * 規則：
      * - 若 Value 為 null 或空白 → 回傳 null
@@ -977,10 +627,9 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
      * @return LocalDate 鎖定日；若不存在或格式錯誤則回傳 null
      */
     public LocalDate loadTimeLockDate() {
-        final String SQL_TIMELOCK = "SELECT TOP 1 Value FROM Lists WHERE ListName = 'TIMELOCK_ACABRD'";
-
-        // 1) 查詢設定值 (可能為 null)
-        String timeLockStr = jdbcTemplate.query(SQL_TIMELOCK, rs -> rs.next() ? rs.getString(1) : null);
+        // 1) 由 Lists 快照取設定值 (可能為 null)
+        var timeLock = lists.get().list("TIMELOCK_ACABRD");
+        String timeLockStr = timeLock.isEmpty() ? null : timeLock.get(0).getValue();
 
         // 2) 若空白/無設定 → 回傳 null
         if (timeLockStr == null || timeLockStr.isBlank()) {
@@ -1019,6 +668,10 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
         });
 
         // 2) 套用規則判斷
+        return isEditable(proDate, timeLockDate);
+    }
+
+    private static boolean isEditable(LocalDate proDate, LocalDate timeLockDate) {
         return (timeLockDate == null) || (proDate == null) || proDate.isAfter(timeLockDate);
     }
 
@@ -1095,6 +748,161 @@ public class Aca3001RepositoryImpl implements Aca3001Repository {
         return false;
     }
 
+    /**
+     * 移到下一個結果集（略過更新筆數）。
+     *
+     * @param ps        執行中的 Statement
+     * @param hasResult execute() / getMoreResults() 的回傳值
+     * @return 下一個 ResultSet；已無結果時回傳 null
+     */
+    private static ResultSet nextResultSet(PreparedStatement ps, boolean hasResult) throws SQLException {
+        while (!hasResult) {
+            if (ps.getUpdateCount() == -1) {
+                return null;
+            }
+            hasResult = ps.getMoreResults();
+        }
+        return ps.getResultSet();
+    }
+
+    private static Aca3001QueryDto.DirectAdoptCriteria.Record mapDirectRecord(ResultSet rs, int i) throws SQLException {
+        var r = new Aca3001QueryDto.DirectAdoptCriteria.Record();
+        r.setEntryId(rs.getInt("EntryID"));
+        r.setText(rs.getString("RecordText"));     // 歷史快照優先，否則用 Lists.Text
+        r.setSelected(rs.getBoolean("IsSelected")); // 無紀錄時預設 0
+        return r;
+    }
+
+    private static Aca3001QueryDto.EvalAdoptCriteria.Record mapEvalRecord(ResultSet rs, int i) throws SQLException {
+        var r = new Aca3001QueryDto.EvalAdoptCriteria.Record();
+        r.setEntryId(rs.getInt("EntryID"));
+        r.setText(rs.getString("RecordText"));     // 歷史快照優先，否則 Lists.Text
+        r.setSelected(rs.getBoolean("IsSelected"));// 無歷史則 0（未勾選）
+        return r;
+    }
+
+    private static Aca3001QueryDto.EvalAdoptCriteria.EvalScore mapEvalScore(ResultSet rs) throws SQLException {
+        var sc = new Aca3001QueryDto.EvalAdoptCriteria.EvalScore();
+        sc.setScoreEconomy(getNullableInt(rs, "ScoreEconomy"));
+        sc.setScoreEmployment(getNullableInt(rs, "ScoreEmployment"));
+        sc.setScoreFamily(getNullableInt(rs, "ScoreFamily"));
+        sc.setScoreSocial(getNullableInt(rs, "ScoreSocial"));
+        sc.setScorePhysical(getNullableInt(rs, "ScorePhysical"));
+        sc.setScorePsych(getNullableInt(rs, "ScorePsych"));
+        sc.setScoreParenting(getNullableInt(rs, "ScoreParenting"));
+        sc.setScoreLegal(getNullableInt(rs, "ScoreLegal"));
+        sc.setScoreResidence(getNullableInt(rs, "ScoreResidence"));
+        sc.setTotalScore(getNullableInt(rs, "ScoreTotal"));
+        sc.setComment(rs.getString("Comment"));
+        return sc;
+    }
+
+    private static Aca3001QueryDto.Summary.CaseStatus mapCaseStatus(ResultSet rs) throws SQLException {
+        var cs = new Aca3001QueryDto.Summary.CaseStatus();
+        if (rs.getBoolean("CaseReject")) {
+            cs.setCaseState(Aca3001QueryDto.Summary.CaseStatus.CaseState.REJECT);
+            cs.setReason(rs.getString("ReasonReject").trim());
+        } else if (rs.getBoolean("CaseAccept")) {
+            cs.setCaseState(Aca3001QueryDto.Summary.CaseStatus.CaseState.ACCEPT);
+            cs.setReason(rs.getString("ReasonAccept").trim());
+        } else if (rs.getBoolean("CaseEnd")) {
+            cs.setCaseState(Aca3001QueryDto.Summary.CaseStatus.CaseState.END);
+            cs.setReason(rs.getString("ReasonEnd").trim());
+        } else {
+            cs.setCaseState(Aca3001QueryDto.Summary.CaseStatus.CaseState.NONE);
+            cs.setReason(null);
+        }
+        return cs;
+    }
+
+    /**
+     * 以歷史紀錄組裝 DirectAdoptCriteria：options 取 Lists 快照（ListName='PROADOPT_DAC'，僅 IsDisabled=0），並計算 hasDiff。
+     */
+    private Aca3001QueryDto.DirectAdoptCriteria assembleDirectAdoptCriteria(List<Aca3001QueryDto.DirectAdoptCriteria.Record> records) {
+        var dto = new Aca3001QueryDto.DirectAdoptCriteria();
+        List<Aca3001QueryDto.DirectAdoptCriteria.Option> listOptions = new ArrayList<>();
+        for (var l : lists.get().activeList("PROADOPT_DAC")) {
+            var o = new Aca3001QueryDto.DirectAdoptCriteria.Option();
+            o.setEntryId(l.getEntryId());
+            o.setValue(l.getValue());
+            o.setText(l.getText());
+            o.setSortOrder(l.getSortOrder() == null ? 0 : l.getSortOrder());
+            listOptions.add(o);
+        }
+        dto.setOptions(listOptions);
+        dto.setRecords(records);
+        dto.setHasDiff(computeHasDiffDirect(listOptions, records));
+        return dto;
+    }
+
+    /**
+     * 以歷史紀錄與分數組裝 EvalAdoptCriteria：options 取 Lists 快照（ListName='PROADOPT_EAC'，僅 IsDisabled=0），並計算 hasDiff。
+     */
+    private Aca3001QueryDto.EvalAdoptCriteria assembleEvalAdoptCriteria(List<Aca3001QueryDto.EvalAdoptCriteria.Record> records,
+                                                                        Aca3001QueryDto.EvalAdoptCriteria.EvalScore scores) {
+        var dto = new Aca3001QueryDto.EvalAdoptCriteria();
+        List<Aca3001QueryDto.EvalAdoptCriteria.Option> listOptions = new ArrayList<>();
+        for (var l : lists.get().activeList("PROADOPT_EAC")) {
+            var o = new Aca3001QueryDto.EvalAdoptCriteria.Option();
+            o.setEntryId(l.getEntryId());
+            o.setValue(l.getValue());
+            o.setText(l.getText());
+            o.setSortOrder(l.getSortOrder() == null ? 0 : l.getSortOrder());
+            listOptions.add(o);
+        }
+        dto.setOptions(listOptions);
+        dto.setRecords(records);
+        dto.setEvalScores(scores);
+        dto.setHasDiff(computeHasDiffEval(listOptions, records));
+        return dto;
+    }
+
+    /**
+     * 由 ProDtl.ProItem 代碼組裝服務類型路徑。
+     * <p>
+     * - 由 ACA_PROTECT 階層索引解析出葉子節點與預先算好的完整路徑（直到根節點 37 之下）
+     * - 收集「是否禁用/刪除」旗標，供前端顯示
+     * - 一個 Leaf 對應一條完整路徑（依 LeafEntryID 排序，路徑由根到葉）
+     */
+    private List<Aca3001QueryDto.Summary.ServiceTypeSelected> assembleServiceTypeSelected(List<String> proItems) {
+        ListsTree protect = lists.get().tree("ACA_PROTECT", 37);
+        SortedSet<Integer> leafIds = new TreeSet<>();
+        for (String proItem : proItems) {
+            for (String token : proItem.split(",")) {
+                if (!token.isBlank()) leafIds.addAll(protect.resolve(token));
+            }
+        }
+
+        List<Aca3001QueryDto.Summary.ServiceTypeSelected> listService = new ArrayList<>();
+        for (Integer leafId : leafIds) {
+            var leafDto = new Aca3001QueryDto.Summary.ServiceTypeSelected();
+            leafDto.setLeafEntryId(leafId);
+            leafDto.setPathEntryIds(new ArrayList<>());
+            leafDto.setPathText(new ArrayList<>());
+            leafDto.setHistoricalEntryIds(new ArrayList<>());
+            leafDto.setHasDisabled(false);
+
+            boolean hasNode = false;
+            for (ListsEntry node : protect.path(leafId)) {
+                if (node.getEntryId() == 37) continue; // 略過根節點（保護類別），不納入路徑
+                hasNode = true;
+
+                // 加入路徑節點
+                leafDto.getPathEntryIds().add(node.getEntryId());
+                leafDto.getPathText().add(node.getText());
+
+                // 設定狀態旗標
+                if (node.isDisabled()) leafDto.setHasDisabled(true);
+                if (node.isDeleted()) leafDto.setHasDeleted(true);
+
+                // 收集歷史節點（以 IsDisabled 為準）
+                if (node.isDisabled()) leafDto.getHistoricalEntryIds().add(node.getEntryId());
+            }
+            if (hasNode) listService.add(leafDto);
+        }
+        return listService;
+    }
+
     private static Integer getNullableInt(ResultSet rs, String col) throws SQLException {
         int v = rs.getInt(col);
         return rs.wasNull() ? null : v;
@@ -0,0 +1,175 @@
+package com.hn2.cms.repository.aca3001;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * ProAdopt 認輔條件子表（DirectAdoptCriteria / EvalAdoptCriteria）同步
+ * <p>
+ * 先讀出目前紀錄與 dbo.Lists 的現行選項（IsDisabled = 0；與 MERGE 同一交易直接查表，不用記憶體快照以免版本落後），
+ * 與本次勾選在記憶體中比對出差異，再以 OPENJSON 帶入差異清單，一個 MERGE 完成新增／更新／刪除；
+ * 不論選項多寡，每次儲存固定 3 個語法。
+ * <p>
+ * 規則（同原逐筆 UPDATE/INSERT 版本）：
+ * <ul>
+ *   <li>更版（refreshSnapshot）：只保留現行有效選項，EntryText 一律更新為 Lists.Text，勾選狀態依本次勾選。</li>
+ *   <li>一般：既有紀錄保留（含已停用項目與其文字快照），只更新勾選狀態；本次勾選但尚未入庫且仍有效者新增。</li>
+ *   <li>一般 + 新增（isNew）：另補齊現行有效但尚未入庫的選項為未勾選。</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class AdoptCriteriaSync {
+
+    /** 認輔條件子表 */
+    public enum CriteriaTable {
+        DIRECT("DirectAdoptCriteria", "PROADOPT_DAC"),
+        EVAL("EvalAdoptCriteria", "PROADOPT_EAC");
+
+        private final String tableName;
+        private final String listName;
+
+        CriteriaTable(String tableName, String listName) {
+            this.tableName = tableName;
+            this.listName = listName;
+        }
+    }
+
+    private static final String SQL_CURRENT =
+            "SELECT ListsEntryID, EntryText, IsSelected FROM dbo.%s WHERE ProAdoptID = ?";
+
+    private static final String SQL_ACTIVE =
+            "SELECT EntryID, [Text] FROM dbo.Lists WHERE ListName = ? AND IsDisabled = 0 ORDER BY SortOrder, EntryID";
+
+    private static final String SQL_MERGE =
+            "WITH t AS (SELECT ProAdoptID, ListsEntryID, EntryText, IsSelected FROM dbo.%s WHERE ProAdoptID = ?) " +
+                    "MERGE t " +
+                    "USING OPENJSON(?) WITH ( " +
+                    "    EntryID    INT           '$.entryId', " +
+                    "    EntryText  NVARCHAR(MAX) '$.text', " +
+                    "    IsSelected BIT           '$.selected', " +
+                    "    IsRemoved  BIT           '$.removed' " +
+                    ") AS s " +
+                    "   ON t.ListsEntryID = s.EntryID " +
+                    "WHEN MATCHED AND s.IsRemoved = 1 THEN DELETE " +
+                    "WHEN MATCHED THEN " +
+                    "    UPDATE SET t.IsSelected = s.IsSelected, t.EntryText = COALESCE(s.EntryText, t.EntryText) " +
+                    "WHEN NOT MATCHED BY TARGET AND s.IsRemoved = 0 THEN " +
+                    "    INSERT (ProAdoptID, ListsEntryID, EntryText, IsSelected) " +
+                    "    VALUES (?, s.EntryID, s.EntryText, s.IsSelected);";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 同步認輔條件子表
+     *
+     * @param table            子表
+     * @param proAdoptId       ProAdopt 主鍵 ID
+     * @param selectedEntryIds 本次勾選的 EntryID（可為 null）
+     * @param refreshSnapshot  是否更版（以現行 Lists 重建）
+     * @param isNew            是否為新增的 ProAdopt
+     * @return 異動筆數
+     */
+    public int sync(CriteriaTable table, int proAdoptId, List<Integer> selectedEntryIds, boolean refreshSnapshot, boolean isNew) {
+        // 1) 目前紀錄、本次勾選、現行有效選項
+        Map<Integer, CurrentRow> current = new LinkedHashMap<>();
+        jdbcTemplate.query(String.format(SQL_CURRENT, table.tableName), rs -> {
+            current.putIfAbsent(rs.getInt("ListsEntryID"),
+                    new CurrentRow(rs.getString("EntryText"), rs.getBoolean("IsSelected")));
+        }, proAdoptId);
+
+        Set<Integer> selected = selectedEntryIds == null ? Set.of() : new LinkedHashSet<>(selectedEntryIds);
+
+        Map<Integer, String> active = new LinkedHashMap<>();
+        jdbcTemplate.query(SQL_ACTIVE, rs -> {
+            active.put(rs.getInt("EntryID"), rs.getString("Text"));
+        }, table.listName);
+
+        // 2) 記憶體比對差異
+        List<Change> changes = refreshSnapshot
+                ? diffRefresh(current, selected, active)
+                : diffKeep(current, selected, active, isNew);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        // 3) 一個 MERGE 套用
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("認輔條件序列化失敗", e);
+        }
+        return jdbcTemplate.update(String.format(SQL_MERGE, table.tableName), proAdoptId, json, proAdoptId);
+    }
+
+    /** 更版：非現行選項刪除；現行選項新增或更新文字與勾選狀態 */
+    static List<Change> diffRefresh(Map<Integer, CurrentRow> current, Set<Integer> selected, Map<Integer, String> active) {
+        List<Change> changes = new ArrayList<>();
+        for (Integer entryId : current.keySet()) {
+            if (!active.containsKey(entryId)) {
+                changes.add(new Change(entryId, null, false, true));
+            }
+        }
+        active.forEach((entryId, text) -> {
+            boolean isSelected = selected.contains(entryId);
+            CurrentRow row = current.get(entryId);
+            if (row == null || row.isSelected() != isSelected || !Objects.equals(row.getText(), text)) {
+                changes.add(new Change(entryId, text, isSelected, false));
+            }
+        });
+        return changes;
+    }
+
+    /** 一般：保留既有紀錄與文字快照，只更新勾選狀態；補入本次勾選（及新增時的其餘現行選項） */
+    static List<Change> diffKeep(Map<Integer, CurrentRow> current, Set<Integer> selected, Map<Integer, String> active, boolean isNew) {
+        List<Change> changes = new ArrayList<>();
+        current.forEach((entryId, row) -> {
+            boolean isSelected = selected.contains(entryId);
+            if (row.isSelected() != isSelected) {
+                changes.add(new Change(entryId, null, isSelected, false));
+            }
+        });
+        for (Integer entryId : selected) {
+            if (active.containsKey(entryId) && !current.containsKey(entryId)) {
+                changes.add(new Change(entryId, active.get(entryId), true, false));
+            }
+        }
+        if (isNew) {
+            active.forEach((entryId, text) -> {
+                if (!current.containsKey(entryId) && !selected.contains(entryId)) {
+                    changes.add(new Change(entryId, text, false, false));
+                }
+            });
+        }
+        return changes;
+    }
+
+    @Value
+    static class CurrentRow {
+        String text;
+        boolean selected;
+    }
+
+    /** 差異（序列化為 OPENJSON 來源；text 為 null 表示保留原快照） */
+    @Value
+    static class Change {
+        Integer entryId;
+        String text;
+        boolean selected;
+        boolean removed;
+    }
+}
@@ -5,6 +5,8 @@ import com.hn2.cms.dto.aca4001.Aca4001EraseQueryDto;
 import com.hn2.cms.dto.aca4001.Aca4001EraseQueryDto.CrmRec;
 import com.hn2.cms.dto.aca4001.Aca4001EraseQueryDto.ProRec;
 import com.hn2.cms.dto.aca4001.Aca4001EraseQueryDto.PersonBirth;
+import com.hn2.cms.repository.lists.ListsSnapshot;
+import com.hn2.cms.repository.lists.ListsSnapshotHolder;
 import com.hn2.util.DateUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -29,6 +31,7 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
     private final JdbcTemplate jdbc;
     private final NamedParameterJdbcTemplate npJdbc;
     private final org.sql2o.Sql2o sql2o;
+    private final ListsSnapshotHolder lists;
 
     /*eraseQuery API*/
 
@@ -147,57 +150,39 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
                 "SELECT " +
                         "  CR.ID, " +
                         "  CAST(CR.CreatedOnDate AS date)   AS RecordDate, " +      // 紀錄日期
-                        "  L_BR.Text                        AS BranchName, " +      // 分會別（ParentID=26）
-                        "  L_J.Text                         AS JailAgency, " +      // 執行機關
-                        "  L_C1.Text                        AS CrimeName1, " +      // 罪名1
-                        "  L_C2.Text                        AS CrimeName2, " +      // 罪名2
-                        "  L_C3.Text                        AS CrimeName3, " +      // 罪名3
-                        "  L_NJ.Text                        AS NoJailReason, " +    // 未入獄原因
+                        "  CR.CreatedByBranchID, " +                                // 分會別（Lists 快照 ParentID=26）
+                        "  CR.ProNoticeDep, " +                                     // 執行機關（ACA_JAIL_TYPE）
+                        "  CR.CrmCrime1, CR.CrmCrime2, CR.CrmCrime3, " +            // 罪名1~3（ACA_CRIME）
+                        "  CR.Crm_NoJail, " +                                       // 未入獄原因（ACA_NOJAIL）
                         "  CAST(CR.Crm_VerdictDate AS date) AS VerdictDate, " +     // 執行日期
                         "  CR.Crm_Sentence                  AS SentenceType, " +    // 刑期種類
                         "  CR.CrmTerm                       AS TermText, " +        // 刑期(文字)
                         "  CAST(CR.CrmChaDate AS date)      AS PrisonInDate, " +    // 入獄時間
                         "  CAST(CR.Crm_ReleaseDate AS date) AS ReleasePlanDate, " + // 預定獲釋日
                         "  CAST(CR.CrmDisDate AS date)      AS PrisonOutDate, " +   // 出獄日期
-                        "  L_DIS.Text                       AS PrisonOutReason, " + // 出獄原因
-                        "  L_REM.Text                       AS Remission, " +       // 減刑案
+                        "  CR.CrmDischarge, " +                                     // 出獄原因（ACA_DISCHARGE）
+                        "  CR.CrmRemission, " +                                     // 減刑案（ACA_REMISSION）
                         "  CR.CrmTrain                      AS TrainType, " +       // 受訓種類
                         "  CR.CrmMemo                       AS Memo " +             // 備註
                         "FROM dbo.CrmRec CR " +
-                        "LEFT JOIN dbo.Lists L_BR  " +
-                        "  ON L_BR.ParentID = 26 " +
-                        " AND L_BR.Value = CAST(CR.CreatedByBranchID AS NVARCHAR(50)) " +
-                        "LEFT JOIN dbo.Lists L_J   " +
-                        "  ON L_J.ListName = 'ACA_JAIL_TYPE' AND L_J.Value = CR.ProNoticeDep " +
-                        "LEFT JOIN dbo.Lists L_C1  " +
-                        "  ON L_C1.ListName = 'ACA_CRIME' AND L_C1.Value = CR.CrmCrime1 " +
-                        "LEFT JOIN dbo.Lists L_C2  " +
-                        "  ON L_C2.ListName = 'ACA_CRIME' AND L_C2.Value = CR.CrmCrime2 " +
-                        "LEFT JOIN dbo.Lists L_C3  " +
-                        "  ON L_C3.ListName = 'ACA_CRIME' AND L_C3.Value = CR.CrmCrime3 " +
-                        "LEFT JOIN dbo.Lists L_NJ  " +
-                        "  ON L_NJ.ListName = 'ACA_NOJAIL' AND L_NJ.Value = CR.Crm_NoJail " +
-                        "LEFT JOIN dbo.Lists L_DIS " +
-                        "  ON L_DIS.ListName = 'ACA_DISCHARGE' AND L_DIS.Value = CR.CrmDischarge " +
-                        "LEFT JOIN dbo.Lists L_REM " +
-                        "  ON L_REM.ListName = 'ACA_REMISSION' AND L_REM.Value = CR.CrmRemission " +
                         "WHERE CR.IsDeleted = 0 " +
                         "  AND CR.ID IN (" + placeholders + ")";
         Object[] params = ids.toArray(); // 將 ID 清單轉為綁定參數陣列
 
-        // 將結果集映射到 CrmRec DTO，並把 date 欄位轉民國字串（DateUtil）
+        // 將結果集映射到 CrmRec DTO，代碼以 Lists 快照轉名稱，並把 date 欄位轉民國字串（DateUtil）
+        ListsSnapshot codes = lists.get();
         List<CrmRec> rows = jdbc.query(sql, params, (rs, i) -> {
             var c = new CrmRec();
             c.setId(rs.getString("ID"));
 
             var d1 = rs.getDate("RecordDate");
             c.setRecordDate(d1 == null ? null : DateUtil.date2Roc(DateUtil.date2LocalDate(d1), yyyMMdd_slash));
-            c.setBranchName(rs.getString("BranchName"));
-            c.setJailAgency(rs.getString("JailAgency"));
-            c.setCrimeName1(rs.getString("CrimeName1"));
-            c.setCrimeName2(rs.getString("CrimeName2"));
-            c.setCrimeName3(rs.getString("CrimeName3"));
-            c.setNoJailReason(rs.getString("NoJailReason"));
+            c.setBranchName(codes.childText(26, rs.getString("CreatedByBranchID")));
+            c.setJailAgency(codes.text("ACA_JAIL_TYPE", rs.getString("ProNoticeDep")));
+            c.setCrimeName1(codes.text("ACA_CRIME", rs.getString("CrmCrime1")));
+            c.setCrimeName2(codes.text("ACA_CRIME", rs.getString("CrmCrime2")));
+            c.setCrimeName3(codes.text("ACA_CRIME", rs.getString("CrmCrime3")));
+            c.setNoJailReason(codes.text("ACA_NOJAIL", rs.getString("Crm_NoJail")));
 
             var d2 = rs.getDate("VerdictDate");
             c.setVerdictDate(d2 == null ? null : DateUtil.date2Roc(DateUtil.date2LocalDate(d2), yyyMMdd_slash));
@@ -212,8 +197,8 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
 
             var d5 = rs.getDate("PrisonOutDate");
             c.setPrisonOutDate(d5 == null ? null : DateUtil.date2Roc(DateUtil.date2LocalDate(d5), yyyMMdd_slash));
-            c.setPrisonOutReason(rs.getString("PrisonOutReason"));
-            c.setRemission(rs.getString("Remission"));
+            c.setPrisonOutReason(codes.text("ACA_DISCHARGE", rs.getString("CrmDischarge")));
+            c.setRemission(codes.text("ACA_REMISSION", rs.getString("CrmRemission")));
             c.setTrainType(rs.getString("TrainType"));
             c.setMemo(rs.getString("Memo"));
             return c;
@@ -241,8 +226,8 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
         String sql =
                 ";SELECT " +
                         "    PR.ID, " +
-                        "    L_BR.[Text]                           AS BranchName, " + // 分會（Lists.ParentID=26）
-                        "    L_SRC.[Text]                          AS SourceText, " + // 來源（Lists.ACA_SOURCE）
+                        "    PR.CreatedByBranchID, " +                            // 分會（Lists 快照 ParentID=26）
+                        "    PR.ProSource, " +                                    // 來源（ACA_SOURCE）
                         // 健康狀況：以 CASE 轉對應中文，亦可改成 Lists 對照
                         "    CASE PR.ProHealth " +
                         "         WHEN 'A001' THEN N'良好' " +
@@ -254,9 +239,9 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
                         "         ELSE NULL END                    AS ProHealthText, " +
 
                         // 三層保護等級：各自取 ProDtl 最新一筆（依 PD.ID DESC）
-                        "    OA1.L1Text                            AS ProtectLevel1, " +
-                        "    OA2.L2Text                            AS ProtectLevel2, " +
-                        "    OA3.L3Text                            AS ProtectLevel3, " +
+                        "    OA1.ProItem                           AS ProtectLevel1, " +
+                        "    OA2.Interview                         AS ProtectLevel2, " +
+                        "    OA3.ProPlace                          AS ProtectLevel3, " +
 
                         // 重要日期（僅保留日期部分）
                         "    CAST(PR.ProNoticeDate AS date)        AS ProNoticeDate, " +
@@ -269,66 +254,39 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
                         "        WHERE P.LinkTableID = PR.ID AND P.LinkTableType = 'P' " +
                         "          AND P.ProjectID = 'A20130400094' AND P.IsDeleted = 0 " +
                         "    ) THEN N'家支' ELSE N'' END           AS HomeSupportTag, " +
-                        "    L_DRUG.[Text]                         AS DrugProjectText, " +      // 毒品方案
+                        "    PR.DrugForm, " +                                                 // 毒品方案（PROJ_DRUG）
                         "    CASE WHEN PR.ProCloseDate IS NULL THEN 0 ELSE 1 END AS Closed, " + // 是否結案
                         "    U.DisplayName                         AS StaffDisplayName, " +     // 建檔者顯示名（跨庫 Users）
 
-                        // CounselorInstDisplay = 區域 + 空白 + 機構名稱 + (實習/正式)
-                        "    COALESCE( " +
-                        "      NULLIF( " +
-                        "        CONCAT( " +
-                        "          ISNULL(LA.[Text], N''), " +   // 區域（Lists: ACA_INSTAREA）
-                        "          CASE WHEN NULLIF(LA.[Text], N'') IS NOT NULL AND NULLIF(IB.InstName, N'') IS NOT NULL THEN N' ' ELSE N'' END, " + // 區域與機構名皆非空時才加空白
-                        "          ISNULL(IB.InstName, N''), " + // 機構名稱（InstBrd.InstName）
-                        "          CASE " +
-                        "            WHEN OM.WorkerID IS NULL " +
-                        "                 OR (NULLIF(LA.[Text], N'') IS NULL AND NULLIF(IB.InstName, N'') IS NULL) THEN N'' " + // 沒有輔導員或兩者皆空：不加尾註（避免只顯示「(正式)」）
-                        "            WHEN COALESCE(IB.IsUnofficial, 0) = 1 THEN N'(實習)' " +
-                        "            ELSE N'(正式)' " +
-                        "          END " +
-                        "        ), N'' " + // CONCAT 結果若為空字串，轉 NULL
-                        "      ), N'' " +   // 再把 NULL 轉回空字串
-                        "    ) AS CounselorInstDisplay, " +
+                        // CounselorInstDisplay 由區域（ACA_INSTAREA）+ 機構名稱 + (實習/正式) 於 Java 端組合
+                        "    IB.InstArea, IB.InstName, IB.IsUnofficial, " +
                         "    OM.WorkerID AS CounselorWorkerId, " + // 由 OUTER APPLY 取得的輔導員卡號
                         "    PR.ProFile AS ArchiveName " +         // 歸檔名稱
                         "FROM dbo.ProRec PR " +
-                        // 來源、毒品方案等 Lists 對照
-                        "LEFT JOIN dbo.Lists L_BR  " +
-                        "       ON L_BR.ParentID = 26 " +
-                        "      AND L_BR.Value = CAST(PR.CreatedByBranchID AS NVARCHAR(50)) " +
-                        "LEFT JOIN dbo.Lists L_SRC " +
-                        "       ON L_SRC.ListName = 'ACA_SOURCE' " +
-                        "      AND L_SRC.Value    = PR.ProSource " +
-                        "LEFT JOIN dbo.Lists L_DRUG " +
-                        "       ON L_DRUG.ListName = 'PROJ_DRUG' " +
-                        "      AND L_DRUG.Value    = PR.DrugForm " +
                         // 建檔者顯示名稱（跨 DB）
                         "LEFT JOIN [CaseManagementDnnDB].dbo.Users U " +
                         "       ON U.UserID = PR.CreatedByUserID " +
 
                         // L1：ProItem 最新一筆
                         "OUTER APPLY ( " +
-                        "    SELECT TOP (1) L1.[Text] AS L1Text " +
+                        "    SELECT TOP (1) PD.ProItem " +
                         "    FROM dbo.ProDtl PD " +
-                        "    LEFT JOIN dbo.Lists L1 ON L1.ListName = 'ACA_PROTECT' AND L1.Value = PD.ProItem " +
                         "    WHERE PD.IsDeleted = 0 AND PD.ProRecID = PR.ID AND PD.ProItem IS NOT NULL " +
                         "    ORDER BY PD.ID DESC " +       //最新一筆
                         ") OA1 " +
 
                         // L2：Interview 最新一筆
                         "OUTER APPLY ( " +
-                        "    SELECT TOP (1) L2.[Text] AS L2Text " +
+                        "    SELECT TOP (1) PD.Interview " +
                         "    FROM dbo.ProDtl PD " +
-                        "    LEFT JOIN dbo.Lists L2 ON L2.ListName = 'ACA_PROTECT' AND L2.Value = PD.Interview " +
                         "    WHERE PD.IsDeleted = 0 AND PD.ProRecID = PR.ID AND PD.Interview IS NOT NULL " +
                         "    ORDER BY PD.ID DESC " +       //最新一筆
                         ") OA2 " +
 
                         // L3：ProPlace 最新一筆
                         "OUTER APPLY ( " +
-                        "    SELECT TOP (1) L3.[Text] AS L3Text " +
+                        "    SELECT TOP (1) PD.ProPlace " +
                         "    FROM dbo.ProDtl PD " +
-                        "    LEFT JOIN dbo.Lists L3 ON L3.ListName = 'ACA_PROTECT' AND L3.Value = PD.ProPlace " +
                         "    WHERE PD.IsDeleted = 0 AND PD.ProRecID = PR.ID AND PD.ProPlace IS NOT NULL " +
                         "    ORDER BY PD.ID DESC " +       //最新一筆
                         ") OA3 " +
@@ -346,25 +304,23 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
                         "LEFT JOIN dbo.InstBrd IB " +
                         "       ON IB.InstCardNo = OM.WorkerID " +
                         "      AND IB.IsDeleted = 0 " +
-                        "LEFT JOIN dbo.Lists LA " +
-                        "       ON LA.ListName = 'ACA_INSTAREA' " +
-                        "      AND LA.Value    = IB.InstArea " +
                         "WHERE PR.IsDeleted = 0 " +
                         "  AND PR.ID IN (:ids)";
 
         // 綁定 named 參數 :ids
         MapSqlParameterSource params = new MapSqlParameterSource().addValue("ids", ids);
 
-        // 查詢並映射到 DTO
+        // 查詢並映射到 DTO（代碼以 Lists 快照轉名稱）
+        ListsSnapshot codes = lists.get();
         List<Aca4001EraseQueryDto.ProRec> rows = npJdbc.query(sql, params, (rs, i) -> {
             var p = new Aca4001EraseQueryDto.ProRec();
             p.setId(rs.getString("ID"));
-            p.setBranchName(rs.getString("BranchName"));
-            p.setSourceText(rs.getString("SourceText"));
+            p.setBranchName(codes.childText(26, rs.getString("CreatedByBranchID")));
+            p.setSourceText(codes.text("ACA_SOURCE", rs.getString("ProSource")));
             p.setProHealthText(rs.getString("ProHealthText"));
-            p.setProtectLevel1(rs.getString("ProtectLevel1"));
-            p.setProtectLevel2(rs.getString("ProtectLevel2"));
-            p.setProtectLevel3(rs.getString("ProtectLevel3"));
+            p.setProtectLevel1(codes.text("ACA_PROTECT", rs.getString("ProtectLevel1")));
+            p.setProtectLevel2(codes.text("ACA_PROTECT", rs.getString("ProtectLevel2")));
+            p.setProtectLevel3(codes.text("ACA_PROTECT", rs.getString("ProtectLevel3")));
 
             var d1 = rs.getDate("ProNoticeDate");
             p.setProNoticeDate(d1 == null ? null : DateUtil.date2Roc(DateUtil.date2LocalDate(d1), yyyMMdd_slash));
@@ -377,14 +333,18 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
             p.setAdopt(adoptObj == null ? null : (Boolean) adoptObj);
 
             p.setHomeSupportTag(rs.getString("HomeSupportTag"));
-            p.setDrugProjectText(rs.getString("DrugProjectText"));
+            p.setDrugProjectText(codes.text("PROJ_DRUG", rs.getString("DrugForm")));
 
             // Closed: 0/1 -> Boolean（允許 null）
             Object closedObj = rs.getObject("Closed");
             p.setClosed(closedObj == null ? null : ((Integer) closedObj) == 1);
 
             p.setStaffDisplayName(rs.getString("StaffDisplayName"));
-            p.setCounselorInstDisplay(rs.getString("CounselorInstDisplay"));
+            p.setCounselorInstDisplay(counselorInstDisplay(
+                    codes.text("ACA_INSTAREA", rs.getString("InstArea")),
+                    rs.getString("InstName"),
+                    rs.getObject("IsUnofficial") != null && rs.getBoolean("IsUnofficial"),
+                    rs.getString("CounselorWorkerId")));
             //p.setCounselorWorkerId(rs.getString("CounselorWorkerId")); // 如需回傳可打開
             p.setArchiveName(rs.getString("ArchiveName"));
             return p;
@@ -415,7 +375,7 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
         String sql =
                 ";SELECT " +
                         "       ADU.ID                               AS id, " +               // 主鍵供排序用
-                        "       L_BR.[Text]                          AS branchName, " +        // Lists 轉分會名稱
+                        "       ADU.CreatedByBranchID                AS branchId, " +          // Lists 快照轉分會名稱
                         "       CAST(ADU.CreatedOnDate AS date)      AS RecordDate, " +      // 取建檔日期(僅日期)做為顯示用紀錄日
                         "       ADU.DrgUserText                      AS drgUserText, " +
                         "       ADU.OprFamilyText                    AS oprFamilyText, " +
@@ -426,9 +386,6 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
                         "       ADU.Addr                             AS addr, " +
                         "       ADU.OprAddr                          AS oprAddr " +
                         "FROM dbo.AcaDrugUse ADU " +
-                        "LEFT JOIN dbo.Lists L_BR " +
-                        "       ON L_BR.ParentID = 26 " +
-                        "      AND L_BR.Value = CAST(ADU.CreatedByBranchID AS NVARCHAR(50)) " +
                         "WHERE ADU.IsDeleted = 0 " +                                        // 僅取未刪除資料
                         "  AND ADU.ID IN (:ids)";
 
@@ -436,6 +393,7 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
         MapSqlParameterSource params = new MapSqlParameterSource().addValue("ids", drgIds);
 
         // 查詢後先保留主鍵，稍後依輸入順序重建清單
+        ListsSnapshot codes = lists.get();
         List<java.util.AbstractMap.SimpleEntry<String, Aca4001EraseQueryDto.ACADrugUse>> rows =
                 npJdbc.query(sql, params, (rs, i) -> {
                     String id = rs.getString("id");
@@ -443,7 +401,7 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
                     // recordDate -> 民國 yyy/MM/dd（若為 null 則回 null）
                     java.sql.Date d1 = rs.getDate("RecordDate");
                     dto.setRecordDate(d1 == null ? null : DateUtil.date2Roc(DateUtil.date2LocalDate(d1), yyyMMdd_slash));
-                    dto.setBranchName(rs.getString("branchName"));
+                    dto.setBranchName(codes.childText(26, rs.getString("branchId")));
                     dto.setDrgUserText(rs.getString("drgUserText"));
                     dto.setOprFamilyText(rs.getString("oprFamilyText"));
                     dto.setOprFamilyCareText(rs.getString("oprFamilyCareText"));
@@ -473,6 +431,22 @@ public class Aca4001RepositoryImpl implements Aca4001Repository {
         return ordered;
     }
 
+    /**
+     * 輔導員機構顯示文字：區域 + 空白 + 機構名稱 + (實習/正式)
+     * - 區域與機構名皆非空時才加空白
+     * - 沒有輔導員或區域/機構名皆空：不加尾註（避免只顯示「(正式)」）
+     */
+    private static String counselorInstDisplay(String area, String instName, boolean unofficial, String workerId) {
+        boolean hasArea = area != null && !area.isEmpty();
+        boolean hasInst = instName != null && !instName.isEmpty();
+        StringBuilder sb = new StringBuilder();
+        if (hasArea) sb.append(area);
+        if (hasArea && hasInst) sb.append(' ');
+        if (hasInst) sb.append(instName);
+        if (workerId != null && (hasArea || hasInst)) sb.append(unofficial ? "(實習)" : "(正式)");
+        return sb.toString();
+    }
+
     /**
      * 查詢某個 ACACardNo 在 ProRec 中「最新一筆（依 ProDate 由新到舊）」是否已結案。
      * 定義：
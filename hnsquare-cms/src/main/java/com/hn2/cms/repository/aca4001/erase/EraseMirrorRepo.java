@@ -1,18 +1,25 @@
 package com.hn2.cms.repository.aca4001.erase;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class EraseMirrorRepo {
     private final org.sql2o.Sql2o sql2o;
+    private final ObjectMapper om;
 
     /**
      * MirrorRow 是對應 ACA_EraseMirror 表的一行紀錄
@@ -31,22 +38,22 @@ public class EraseMirrorRepo {
     }
 
     /**
-     * 依個案卡號（ACACardNo）查出 ACA_EraseMirror 中屬於「指定 schema、指定表清單」的所有鏡像列。
+     * 依個案卡號分頁讀出單一目標表的鏡像列（以 TargetID keyset 分頁，每頁最多 pageSize 筆），
+     * 每頁交給 sink 處理後即釋放，整卡鏡像再多也只佔一頁記憶體。
      * 查詢條件：
      * - ACACardNo = :aca
      * - ISNULL(TargetSchema,'dbo') = ISNULL(:schema,'dbo')  // Mirror 中若為 NULL 視同 'dbo'，呼叫方 schema 為空也視同 'dbo'
-     * - TargetTable IN (:tbls)
-     * 回傳：
-     * - 將每列映射為 MirrorRow（包含 targetSchema/table/id、acaCardNo、payloadBase64、ivBase64、sha256）
-     * - 若無資料回傳空清單
+     * - TargetTable = :tbl
      *
      * @param acaCardNo 指定個案卡號
-     * @param tables    僅限於這些目標表名（白名單）
+     * @param table     目標表名
      * @param schema    目標 schema；可為 null/空白，將被視為 "dbo"
-     * @return 鏡像資料列的清單（List<MirrorRow>）
+     * @param pageSize  每頁筆數
+     * @param sink      每頁處理
+     * @return 總筆數
      */
-    public List<MirrorRow> findAllByAcaCardNo(String acaCardNo, List<String> tables, String schema) {
-        String sql = "SELECT " +
+    public int forEachPage(String acaCardNo, String table, String schema, int pageSize, Consumer<List<MirrorRow>> sink) {
+        String sql = "SELECT TOP (:n) " +
                 " TargetSchema   AS targetSchema, " +
                 " TargetTable    AS targetTable, " +
                 " TargetID       AS targetId, " +
@@ -56,61 +63,90 @@ public class EraseMirrorRepo {
                 " PayloadSha256Hex AS sha256 " +
                 "FROM dbo.ACA_EraseMirror " +
                 "WHERE ACACardNo = :aca " +
-                // schema 允許 null，Mirror 表紀錄為 NULL 的也視為 "dbo"
-                "  AND ISNULL(TargetSchema,'dbo') = ISNULL(:schema,'dbo') " +   // ← 核心：雙方都把 NULL 視為 'dbo'
-                "  AND TargetTable IN (:tbls)";
-        try (var con = sql2o.open()) {
-            // 如果 schema 是空字串或 null，則補上 "dbo"
-            var s = (schema == null || schema.isBlank()) ? "dbo" : schema;
-            return con.createQuery(sql)
-                    .addParameter("aca", acaCardNo)
-                    .addParameter("schema", s)
-                    .addParameter("tbls", tables)
-                    .executeAndFetch(MirrorRow.class);
+                "  AND ISNULL(TargetSchema,'dbo') = ISNULL(:schema,'dbo') " +
+                "  AND TargetTable = :tbl " +
+                "  AND TargetID > :after " +
+                "ORDER BY TargetID";
+        var s = (schema == null || schema.isBlank()) ? "dbo" : schema;
+        int total = 0;
+        String after = "";                                  // TargetID 不為空字串（見 row() 檢核）
+        while (true) {
+            List<MirrorRow> page;
+            try (var con = sql2o.open()) {
+                page = con.createQuery(sql)
+                        .addParameter("n", pageSize)
+                        .addParameter("aca", acaCardNo)
+                        .addParameter("schema", s)
+                        .addParameter("tbl", table)
+                        .addParameter("after", after)
+                        .executeAndFetch(MirrorRow.class);
+            }
+            if (page.isEmpty()) break;
+            total += page.size();
+            after = page.get(page.size() - 1).getTargetId();
+            sink.accept(page);
+            if (page.size() < pageSize) break;
         }
+        return total;
     }
 
     /**
-     * 對 ACA_EraseMirror 進行「UPSERT（有則更新、無則新增）」：
-     * 以 (TargetSchema, TargetTable, TargetID) 作為唯一定義鍵，
-     * 將加密後的鏡像內容（EncodedPayload + AesIvBase64）與明文校驗雜湊（PayloadSha256Hex）寫入。
-     * 規則：
-     * - 若已存在相同 (schema, table, id) → UPDATE EncodedPayload / AesIvBase64 / PayloadSha256Hex / ACACardNo
-     * - 若不存在 → INSERT 一筆並填入 CreatedOnDate = SYSDATETIME()
-     * - 允許傳入 schema 為 null/空白，會自動視為 "dbo"
-     * - id 不可為 null/空白/字串 "null"（大小寫不敏感），並在綁定前會 trim()
-     * 安全性 / 完整性：
-     * - SHA-256 為明文 JSON 的雜湊，用於「還原前」校驗解密結果未遭竄改
-     * - AES-GCM 密文與 IV 一併保存
+     * 建立一筆待寫入的鏡像列（檢核 id、schema 空白視為 "dbo"、id trim）。
      *
-     * @param table      來源表名（如 "CrmRec" / "ProRec"）
-     * @param id         主鍵值（字串化）
-     * @param acaCardNo  個案卡號
-     * @param payloadB64 Base64( AES-GCM(明文JSON) )
-     * @param ivB64      Base64( AES-GCM IV )
-     * @param sha256Hex  明文 JSON 的 SHA-256（十六進位字串）
-     * @param schema     來源 schema；null/空白 → 視為 "dbo"
      * @throws IllegalArgumentException 當 id 無效（null/空白/"null"）
      */
-    public void upsert(String table, String id, String acaCardNo, String payloadB64, String ivB64, String sha256Hex, String schema) {
-
+    public static MirrorRow row(String table, String id, String acaCardNo, String payloadB64, String ivB64, String sha256Hex, String schema) {
         // 基本防呆：TargetID 不可為空、也不可是字面 "null"
         if (id == null || id.isBlank() || "null".equalsIgnoreCase(id)) {
-            throw new IllegalArgumentException("EraseMirror.upsert: TargetID 不可為空/不可為 'null' 字串, table=" + table + ", aca=" + acaCardNo);
+            throw new IllegalArgumentException("EraseMirror.row: TargetID 不可為空/不可為 'null' 字串, table=" + table + ", aca=" + acaCardNo);
+        }
+        var r = new MirrorRow();
+        r.setTargetSchema((schema == null || schema.isBlank()) ? "dbo" : schema);
+        r.setTargetTable(table);
+        r.setTargetId(id.trim());        // ★ 保險：trim
+        r.setAcaCardNo(acaCardNo);
+        r.setPayloadBase64(payloadB64);
+        r.setIvBase64(ivB64);
+        r.setSha256(sha256Hex);
+        return r;
+    }
+
+    /**
+     * 多筆 UPSERT（有則更新、無則新增）：整批鏡像列以 OPENJSON 陣列帶入單一參數，一個 MERGE 完成。
+     * 以 (TargetSchema, TargetTable, TargetID) 作為唯一定義鍵：
+     * - 若已存在 → UPDATE EncodedPayload / AesIvBase64 / PayloadSha256Hex / ACACardNo
+     * - 若不存在 → INSERT 一筆並填入 CreatedOnDate = SYSDATETIME()
+     * 同一批內 (schema, table, id) 重複時以最後一筆為準（MERGE 來源不可重複）。
+     * SHA-256 為明文 JSON 的雜湊，用於「還原前」校驗解密結果未遭竄改；AES-GCM 密文與 IV 一併保存。
+     *
+     * @param rows 以 {@link #row} 建立的鏡像列
+     * @return 異動筆數
+     */
+    public int upsertAll(List<MirrorRow> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        var unique = new LinkedHashMap<String, MirrorRow>();
+        for (var r : rows) {
+            unique.put(r.getTargetSchema() + "|" + r.getTargetTable() + "|" + r.getTargetId(), r);
         }
-        // 記錄關鍵參數（便於除錯追蹤）
-        log.info("[MirrorUpsert] sch={}, tbl={}, id={}, aca={}, sha256={}",
-                schema, table, id, acaCardNo, sha256Hex);
+        log.debug("[MirrorUpsert] rows={}, first={}.{}:{}", unique.size(),
+                rows.get(0).getTargetSchema(), rows.get(0).getTargetTable(), rows.get(0).getTargetId());
 
         // 使用 SQL Server MERGE 做 UPSERT：
-        //   - USING 一筆臨時資料列 s(...)
+        //   - USING OPENJSON 展開的多筆資料列 s(...)
         //   - ON 條件：以 (TargetSchema,TargetTable,TargetID) 對應到目標表 t
         //   - MATCHED → UPDATE（更新密文/IV/SHA 與 ACACardNo）
         //   - NOT MATCHED → INSERT 新列並寫入 CreatedOnDate=SYSDATETIME()
-
         String sql = "MERGE INTO dbo.ACA_EraseMirror AS t "
-                + "USING (VALUES(:sch,:tbl,:tid,:aca,:pl,:iv,:sha)) AS s("
-                + "  TargetSchema,TargetTable,TargetID,ACACardNo,EncodedPayload,AesIvBase64,PayloadSha256Hex) "
+                + "USING OPENJSON(:rows) WITH ("
+                + "  TargetSchema     NVARCHAR(128) '$.targetSchema', "
+                + "  TargetTable      NVARCHAR(128) '$.targetTable', "
+                + "  TargetID         NVARCHAR(200) '$.targetId', "
+                + "  ACACardNo        NVARCHAR(50)  '$.acaCardNo', "
+                + "  EncodedPayload   NVARCHAR(MAX) '$.payloadBase64', "
+                + "  AesIvBase64      NVARCHAR(200) '$.ivBase64', "
+                + "  PayloadSha256Hex NVARCHAR(200) '$.sha256') AS s "
                 + "  ON t.TargetSchema=s.TargetSchema AND t.TargetTable=s.TargetTable AND t.TargetID=s.TargetID "
                 + "WHEN MATCHED THEN "
                 + "  UPDATE SET EncodedPayload=s.EncodedPayload, AesIvBase64=s.AesIvBase64, "
@@ -118,18 +154,49 @@ public class EraseMirrorRepo {
                 + "WHEN NOT MATCHED THEN "
                 + "  INSERT (TargetSchema,TargetTable,TargetID,ACACardNo,EncodedPayload,AesIvBase64,PayloadSha256Hex,CreatedOnDate) "
                 + "  VALUES (s.TargetSchema,s.TargetTable,s.TargetID,s.ACACardNo,s.EncodedPayload,s.AesIvBase64,s.PayloadSha256Hex,SYSDATETIME());";
+        String json;
+        try {
+            json = om.writeValueAsString(unique.values());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
         try (var con = sql2o.open()) {
-            con.createQuery(sql)
-                    // schema 若為 null/空白 → 視為 "dbo"
-                    .addParameter("sch", (schema == null || schema.isBlank()) ? "dbo" : schema)
-                    .addParameter("tbl", table)
-                    .addParameter("tid", id.trim())        // ★ 保險：trim
-                    .addParameter("aca", acaCardNo)
-                    .addParameter("pl", payloadB64)
-                    .addParameter("iv", ivB64)
-                    .addParameter("sha", sha256Hex)
-                    .executeUpdate();
+            return con.createQuery(sql)
+                    .addParameter("rows", json)
+                    .executeUpdate()
+                    .getResult();
         }
     }
 
+    /**
+     * 刪除個案的鏡像列，但保留指定的列（例如還原時被安全柵欄擋下、尚未寫回的列）。
+     * 保留清單以 OPENJSON 陣列帶入單一參數，不受 SQL Server 參數個數上限影響。
+     *
+     * @param acaCardNo 個案卡號
+     * @param keep      保留的鏡像列（表名 → 主鍵清單）
+     * @return 刪除筆數
+     */
+    public int deleteByAcaCardNoExcept(String acaCardNo, Map<String, List<String>> keep) {
+        var keys = new ArrayList<Map<String, String>>();
+        keep.forEach((table, ids) -> ids.forEach(id -> keys.add(Map.of("t", table, "i", id))));
+        String json;
+        try {
+            json = om.writeValueAsString(keys);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        String sql = "DELETE m FROM dbo.ACA_EraseMirror AS m "
+                + "WHERE m.ACACardNo = :aca "
+                + "  AND NOT EXISTS (SELECT 1 FROM OPENJSON(:keep) WITH ("
+                + "    TargetTable NVARCHAR(128) '$.t', "
+                + "    TargetID    NVARCHAR(200) '$.i') AS k "
+                + "    WHERE k.TargetTable = m.TargetTable AND k.TargetID = m.TargetID)";
+        try (var con = sql2o.open()) {
+            return con.createQuery(sql)
+                    .addParameter("aca", acaCardNo)
+                    .addParameter("keep", json)
+                    .executeUpdate()
+                    .getResult();
+        }
+    }
 }
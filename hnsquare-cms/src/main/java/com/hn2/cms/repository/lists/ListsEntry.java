@@ -0,0 +1,32 @@
+package com.hn2.cms.repository.lists;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * dbo.Lists 單一代碼（唯讀，存放於 {@link ListsSnapshot}）
+ */
+@Value
+public class ListsEntry {
+    /** 主鍵 EntryID */
+    Integer entryId;
+    /** 代碼種類 ListName */
+    String listName;
+    /** 代碼 Value */
+    String value;
+    /** 代碼名稱 Text */
+    String text;
+    /** 父層 EntryID（可為 null） */
+    Integer parentId;
+    /** 層級 Level */
+    String level;
+    /** 排序（可為 null） */
+    Integer sortOrder;
+    /** 是否停用 */
+    boolean disabled;
+    /** 是否刪除 */
+    boolean deleted;
+    /** 最後異動時間 ISNULL(ModifiedOnDate, CreatedOnDate) */
+    LocalDateTime lastModified;
+}
@@ -0,0 +1,204 @@
+package com.hn2.cms.repository.lists;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * dbo.Lists 代碼表快照（不可變）
+ * <p>
+ * 依 EntryID、(ListName, Value)、ParentID、(ParentID, Value) 建立索引，取代查詢中對 Lists 的 JOIN。
+ * Value 比對方式同 DB 定序：去除前後空白、不分大小寫；同一個 Value 有多筆時取最後異動（再依 EntryID 大者）的一筆。
+ * 清單一律依 SortOrder（null 在前，同 SQL Server ASC）、EntryID 排序。
+ */
+public final class ListsSnapshot {
+
+    /** 清單排序：SortOrder ASC（null 在前）, EntryID ASC */
+    private static final Comparator<ListsEntry> LIST_ORDER = Comparator
+            .comparing(ListsEntry::getSortOrder, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ListsEntry::getEntryId);
+
+    /** 重複 Value 取捨：最後異動者優先，再依 EntryID 大者 */
+    private static final Comparator<ListsEntry> LATEST_FIRST = Comparator
+            .comparing(ListsEntry::getLastModified, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(ListsEntry::getEntryId, Comparator.reverseOrder());
+
+    private final long version;
+    private final Map<Integer, ListsEntry> byEntryId;
+    private final Map<String, List<ListsEntry>> byListName;
+    private final Map<String, Map<String, ListsEntry>> byListValue;
+    private final Map<Integer, List<ListsEntry>> byParent;
+    private final Map<Integer, Map<String, ListsEntry>> byParentValue;
+    /** 階層索引，第一次使用時建立（key = ListName + 停止父層） */
+    private final Map<String, ListsTree> trees = new ConcurrentHashMap<>();
+
+    ListsSnapshot(long version, Collection<ListsEntry> entries) {
+        this.version = version;
+
+        Map<Integer, ListsEntry> entryIndex = new HashMap<>(entries.size() * 2);
+        for (ListsEntry e : entries) {
+            entryIndex.put(e.getEntryId(), e);
+        }
+        this.byEntryId = Collections.unmodifiableMap(entryIndex);
+
+        List<ListsEntry> ordered = new ArrayList<>(entries);
+        ordered.sort(LIST_ORDER);
+        this.byListName = group(ordered.stream()
+                .filter(e -> e.getListName() != null)
+                .collect(Collectors.groupingBy(e -> e.getListName().toUpperCase(Locale.ROOT), LinkedHashMap::new, Collectors.toList())));
+        this.byParent = group(ordered.stream()
+                .filter(e -> e.getParentId() != null)
+                .collect(Collectors.groupingBy(ListsEntry::getParentId, LinkedHashMap::new, Collectors.toList())));
+        this.byListValue = index(byListName);
+        this.byParentValue = index(byParent);
+    }
+
+    /** 版本（每次重新載入遞增） */
+    public long getVersion() {
+        return version;
+    }
+
+    /** 代碼總筆數 */
+    public int size() {
+        return byEntryId.size();
+    }
+
+    /**
+     * 依 EntryID 取得
+     *
+     * @param entryId EntryID
+     * @return 代碼；查無回傳 null
+     */
+    public ListsEntry get(Integer entryId) {
+        return entryId == null ? null : byEntryId.get(entryId);
+    }
+
+    /**
+     * 依 (ListName, Value) 取得
+     *
+     * @param listName ListName
+     * @param value Value
+     * @return 代碼；查無回傳 null
+     */
+    public ListsEntry get(String listName, String value) {
+        if (listName == null || value == null) {
+            return null;
+        }
+        Map<String, ListsEntry> values = byListValue.get(listName.toUpperCase(Locale.ROOT));
+        return values == null ? null : values.get(key(value));
+    }
+
+    /**
+     * 依 (ListName, Value) 取得代碼名稱
+     *
+     * @param listName ListName
+     * @param value Value
+     * @return Text；查無回傳 null
+     */
+    public String text(String listName, String value) {
+        ListsEntry e = get(listName, value);
+        return e == null ? null : e.getText();
+    }
+
+    /**
+     * 取得某 ListName 全部代碼
+     *
+     * @param listName ListName
+     * @return 依 SortOrder, EntryID 排序的清單
+     */
+    public List<ListsEntry> list(String listName) {
+        return listName == null ? List.of() : byListName.getOrDefault(listName.toUpperCase(Locale.ROOT), List.of());
+    }
+
+    /**
+     * 取得某 ListName 未停用的代碼
+     *
+     * @param listName ListName
+     * @return 依 SortOrder, EntryID 排序的清單
+     */
+    public List<ListsEntry> activeList(String listName) {
+        return list(listName).stream().filter(e -> !e.isDisabled()).collect(Collectors.toList());
+    }
+
+    /**
+     * 取得某父層下的代碼
+     *
+     * @param parentId 父層 EntryID
+     * @return 依 SortOrder, EntryID 排序的清單
+     */
+    public List<ListsEntry> children(Integer parentId) {
+        return parentId == null ? List.of() : byParent.getOrDefault(parentId, List.of());
+    }
+
+    /**
+     * 依 (ParentID, Value) 取得
+     *
+     * @param parentId 父層 EntryID
+     * @param value Value
+     * @return 代碼；查無回傳 null
+     */
+    public ListsEntry child(Integer parentId, String value) {
+        if (parentId == null || value == null) {
+            return null;
+        }
+        Map<String, ListsEntry> values = byParentValue.get(parentId);
+        return values == null ? null : values.get(key(value));
+    }
+
+    /**
+     * 依 (ParentID, Value) 取得代碼名稱
+     *
+     * @param parentId 父層 EntryID
+     * @param value Value
+     * @return Text；查無回傳 null
+     */
+    public String childText(Integer parentId, String value) {
+        ListsEntry e = child(parentId, value);
+        return e == null ? null : e.getText();
+    }
+
+    /**
+     * 取得某 ListName 的階層索引
+     *
+     * @param listName ListName（例如 ACA_PROTECT）
+     * @param stopParentId 根節點 EntryID（路徑往上追溯到其子節點為止）
+     * @return ListsTree
+     */
+    public ListsTree tree(String listName, int stopParentId) {
+        return trees.computeIfAbsent(listName.toUpperCase(Locale.ROOT) + ':' + stopParentId,
+                k -> new ListsTree(list(listName), stopParentId));
+    }
+
+    private static String key(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static <K> Map<K, List<ListsEntry>> group(Map<K, List<ListsEntry>> grouped) {
+        Map<K, List<ListsEntry>> result = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((k, v) -> result.put(k, Collections.unmodifiableList(v)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static <K> Map<K, Map<String, ListsEntry>> index(Map<K, List<ListsEntry>> grouped) {
+        Map<K, Map<String, ListsEntry>> result = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((k, entries) -> {
+            Map<String, ListsEntry> values = new HashMap<>(entries.size() * 2);
+            for (ListsEntry e : entries) {
+                if (e.getValue() != null) {
+                    values.merge(key(e.getValue()), e, (a, b) -> LATEST_FIRST.compare(a, b) <= 0 ? a : b);
+                }
+            }
+            result.put(k, Collections.unmodifiableMap(values));
+        });
+        return Collections.unmodifiableMap(result);
+    }
+}
@@ -0,0 +1,146 @@
+package com.hn2.cms.repository.lists;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * dbo.Lists 代碼表快照提供者
+ * <p>
+ * 第一次取用時載入；之後定期以筆數 + CHECKSUM_AGG + 最後異動時間判斷 Lists 是否變動，有變動才重新載入並整份替換，
+ * 呼叫端拿到的 {@link ListsSnapshot} 不會在使用中被修改。
+ * 排程若停擺或連續失敗，超過 lists.snapshot.max-age-ms 未檢查時由 {@link #get()} 當下檢查；
+ * 需要與資料庫一致的寫入流程（例如認輔條件同步）改用 {@link #fresh()} 每次先比對版本。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListsSnapshotHolder {
+
+    private static final String SQL_LOAD =
+            "SELECT EntryID, ListName, Value, [Text], ParentID, CAST([Level] AS NVARCHAR(20)) AS Lvl, SortOrder, " +
+                    "       IsDisabled, ISNULL(IsDeleted, 0) AS IsDeleted, " +
+                    "       ISNULL(ModifiedOnDate, CreatedOnDate) AS LastModified " +
+                    "FROM dbo.Lists";
+
+    private static final String SQL_SIGNATURE =
+            "SELECT CONCAT(COUNT_BIG(*), ':', " +
+                    "       CHECKSUM_AGG(BINARY_CHECKSUM(EntryID, ListName, Value, [Text], ParentID, [Level], SortOrder, IsDisabled, IsDeleted)), ':', " +
+                    "       CONVERT(NVARCHAR(30), MAX(ISNULL(ModifiedOnDate, CreatedOnDate)), 126)) " +
+                    "FROM dbo.Lists";
+
+    private final JdbcTemplate jdbc;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile ListsSnapshot current;
+
+    private volatile String signature;
+
+    /** 最後一次成功比對版本的時間（毫秒） */
+    private volatile long lastChecked;
+
+    /** 超過此毫秒數未比對版本時，get() 當下檢查 */
+    @Value("${lists.snapshot.max-age-ms:180000}")
+    private long maxAgeMs;
+
+    /**
+     * 取得目前快照
+     *
+     * @return ListsSnapshot
+     */
+    public ListsSnapshot get() {
+        ListsSnapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current;
+                if (snapshot == null) {
+                    snapshot = reload();
+                }
+            }
+        } else if (System.currentTimeMillis() - lastChecked > maxAgeMs) {
+            synchronized (this) {
+                if (System.currentTimeMillis() - lastChecked > maxAgeMs) {
+                    refresh();
+                }
+            }
+            snapshot = current;
+        }
+        return snapshot;
+    }
+
+    /**
+     * 先比對 Lists 版本（有異動即重新載入）再取得快照；多一次輕量查詢，供需要與資料庫一致的寫入流程使用
+     *
+     * @return 與目前 Lists 一致的快照
+     */
+    public ListsSnapshot fresh() {
+        if (current == null) {
+            return get();
+        }
+        String latest = jdbc.queryForObject(SQL_SIGNATURE, String.class);
+        lastChecked = System.currentTimeMillis();
+        if (!Objects.equals(latest, signature)) {
+            return reload();
+        }
+        return current;
+    }
+
+    /** 定期檢查 Lists 是否異動，有異動才重新載入 */
+    @Scheduled(fixedDelayString = "${lists.snapshot.refresh-ms:60000}")
+    public void refresh() {
+        if (current == null) {
+            return;
+        }
+        try {
+            String latest = jdbc.queryForObject(SQL_SIGNATURE, String.class);
+            lastChecked = System.currentTimeMillis();
+            if (!Objects.equals(latest, signature)) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.warn("[Lists] refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 立即重新載入
+     *
+     * @return 新快照
+     */
+    public synchronized ListsSnapshot reload() {
+        String sig = jdbc.queryForObject(SQL_SIGNATURE, String.class);
+        List<ListsEntry> entries = jdbc.query(SQL_LOAD, (rs, i) -> {
+            int parentId = rs.getInt("ParentID");
+            boolean noParent = rs.wasNull();
+            int sortOrder = rs.getInt("SortOrder");
+            boolean noSortOrder = rs.wasNull();
+            Timestamp lastModified = rs.getTimestamp("LastModified");
+            return new ListsEntry(
+                    rs.getInt("EntryID"),
+                    rs.getString("ListName"),
+                    rs.getString("Value"),
+                    rs.getString("Text"),
+                    noParent ? null : parentId,
+                    rs.getString("Lvl"),
+                    noSortOrder ? null : sortOrder,
+                    rs.getBoolean("IsDisabled"),
+                    rs.getBoolean("IsDeleted"),
+                    lastModified == null ? null : lastModified.toLocalDateTime());
+        });
+        ListsSnapshot snapshot = new ListsSnapshot(version.incrementAndGet(), entries);
+        current = snapshot;
+        signature = sig;
+        lastChecked = System.currentTimeMillis();
+        log.info("[Lists] snapshot v{} loaded, entries={}", snapshot.getVersion(), snapshot.size());
+        return snapshot;
+    }
+}
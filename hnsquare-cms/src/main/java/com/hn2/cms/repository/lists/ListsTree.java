@@ -0,0 +1,122 @@
+package com.hn2.cms.repository.lists;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * 單一 ListName 的階層索引（例如 ACA_PROTECT）
+ * <p>
+ * 以陣列存放 parent 指標，並預先算好每個節點「根 → 自己」的路徑，查詢時不需再遞迴。
+ * 路徑往上追溯到 ParentID = stopParentId 的節點為止（該節點納入，stopParentId 本身不納入），
+ * 父節點不屬於同一 ListName 時亦停止；深度上限同原 SQL 的 MAXRECURSION 32。
+ */
+public final class ListsTree {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final ListsEntry[] entries;
+    private final Map<Integer, Integer> indexOf;
+    private final int[] parent;
+    private final int[][] paths;
+    private final Map<String, int[]> byValue;
+
+    ListsTree(List<ListsEntry> list, int stopParentId) {
+        int n = list.size();
+        this.entries = list.toArray(new ListsEntry[0]);
+        this.indexOf = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            indexOf.put(entries[i].getEntryId(), i);
+        }
+
+        this.parent = new int[n];
+        Map<String, List<Integer>> values = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Integer parentId = entries[i].getParentId();
+            Integer p = (parentId == null || parentId == stopParentId) ? null : indexOf.get(parentId);
+            parent[i] = p == null ? -1 : p;
+            if (entries[i].getValue() != null) {
+                values.computeIfAbsent(key(entries[i].getValue()), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        this.paths = new int[n][];
+        for (int i = 0; i < n; i++) {
+            paths[i] = computePath(i);
+        }
+
+        this.byValue = new HashMap<>(values.size() * 2);
+        values.forEach((k, v) -> byValue.put(k, v.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * 代碼 token 對應的節點：Value 相符（去空白、不分大小寫）或 EntryID 相符
+     *
+     * @param token 代碼（例如 ProDtl.ProItem 以逗號分隔後的單一值）
+     * @return EntryID（遞增排序）
+     */
+    public SortedSet<Integer> resolve(String token) {
+        SortedSet<Integer> result = new TreeSet<>();
+        if (token == null) {
+            return result;
+        }
+        String trimmed = token.trim();
+        int[] matched = byValue.get(key(trimmed));
+        if (matched != null) {
+            for (int i : matched) {
+                result.add(entries[i].getEntryId());
+            }
+        }
+        try {
+            Integer idx = indexOf.get(Integer.valueOf(trimmed));
+            if (idx != null) {
+                result.add(entries[idx].getEntryId());
+            }
+        } catch (NumberFormatException e) {
+            // 非數字 token 只比對 Value
+        }
+        return result;
+    }
+
+    /**
+     * 取得節點路徑（根 → 自己）
+     *
+     * @param entryId EntryID
+     * @return 路徑；不在此階層回傳空清單
+     */
+    public List<ListsEntry> path(Integer entryId) {
+        Integer idx = entryId == null ? null : indexOf.get(entryId);
+        if (idx == null) {
+            return List.of();
+        }
+        int[] path = paths[idx];
+        ListsEntry[] result = new ListsEntry[path.length];
+        for (int i = 0; i < path.length; i++) {
+            result[i] = entries[path[i]];
+        }
+        return Collections.unmodifiableList(Arrays.asList(result));
+    }
+
+    private int[] computePath(int idx) {
+        int[] reversed = new int[MAX_DEPTH + 1];
+        int depth = 0;
+        for (int cur = idx; cur >= 0 && depth <= MAX_DEPTH; cur = parent[cur]) {
+            reversed[depth++] = cur;
+        }
+        int[] path = new int[depth];
+        for (int i = 0; i < depth; i++) {
+            path[i] = reversed[depth - 1 - i];
+        }
+        return path;
+    }
+
+    private static String key(String value) {
+        return value.trim().toUpperCase(Locale.ROOT);
+    }
+}
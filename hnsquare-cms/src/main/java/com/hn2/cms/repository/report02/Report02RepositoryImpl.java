@@ -1,24 +1,36 @@
 package com.hn2.cms.repository.report02;
 
 import com.hn2.cms.dto.report02.Report02Dto;
+import com.hn2.cms.repository.lists.ListsEntry;
+import com.hn2.cms.repository.lists.ListsSnapshot;
+import com.hn2.cms.repository.lists.ListsSnapshotHolder;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
 
 @Repository
 public class Report02RepositoryImpl implements Report02Repository {
 
+    /** 排序：分會排序（無則最後）→ 機關代碼（可數值化者依數值，非數值者在前，同 TRY_CONVERT 的 NULL）→ 機關代碼字串 */
+    private static final Comparator<Report02Dto.FlatRow> ROW_ORDER = Comparator
+            .comparing((Report02Dto.FlatRow r) -> r.getSortOrder() == null ? Integer.MAX_VALUE : r.getSortOrder())
+            .thenComparing(r -> toInt(r.getOrgCode()), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Report02Dto.FlatRow::getOrgCode, Comparator.nullsFirst(Comparator.naturalOrder()));
+
     private final JdbcTemplate jdbc;
+    private final ListsSnapshotHolder lists;
 
-    public Report02RepositoryImpl(JdbcTemplate jdbc) {
+    public Report02RepositoryImpl(JdbcTemplate jdbc, ListsSnapshotHolder lists) {
         this.jdbc = jdbc;
+        this.lists = lists;
     }
 
     /**
      * 取回「分會 × 機關」的聚合計數（扁平結構 FlatRow）。
-     * - 分會名稱 / 排序：Lists(ParentID=26) 依 SIGN_PROT_NO 對應 Value -> Text/SortOrder
+     * - 分會名稱 / 排序：Lists 快照(ParentID=26) 依 SIGN_PROT_NO 對應 Value -> Text/SortOrder（同 Value 取最新一筆）
      * - 機關名稱：Org_Lists 依 ORG_CODE 對應 ORG_NAME
      * - RS_DT 為 date 型別：直接用 >= from AND <= to（含頭含尾）
      */
@@ -26,9 +38,8 @@ public class Report02RepositoryImpl implements Report02Repository {
 
         // 核心查詢：
         // 1) agg：在 SUP_AfterCare 依「分會 × 機關」分組，計算三個狀態的數量
-        // 2) lists_clean：從 Lists(ParentID=26) 取每個 Value 最新的一筆（避免重覆/歷史值）
-        // 3) org_clean：從 Org_Lists 取每個 ORG_CODE 一筆（避免重覆）
-        // 4) 將分會名稱/排序與機關名稱 JOIN 回 agg，並依分會排序 + 機關代碼排序輸出
+        // 2) org_clean：從 Org_Lists 取每個 ORG_CODE 一筆（避免重覆）
+        // 3) 將機關名稱 JOIN 回 agg；分會名稱/排序由 Lists 快照補上後於 Java 端排序
         String sql =
                 "WITH agg AS ( \n" +
                         "  SELECT \n" +
@@ -40,13 +51,6 @@ public class Report02RepositoryImpl implements Report02Repository {
                         "  FROM dbo.SUP_AfterCare a WITH (NOLOCK) \n" + // 視規範決定是否保留 NOLOCK
                         "  WHERE a.RS_DT >= ? AND a.RS_DT <= ? \n" +    // date 型別直接比較（含頭含尾）
                         "  GROUP BY a.SIGN_PROT_NO, a.ORG_CODE \n" +
-                        "), lists_clean AS ( \n" +
-                        "  SELECT \n" +
-                        "    Value, Text, SortOrder, \n" +
-                        "    ROW_NUMBER() OVER (PARTITION BY Value \n" +
-                        "      ORDER BY ISNULL(ModifiedOnDate, CreatedOnDate) DESC, EntryID DESC) AS rn \n" + // 每個 Value 取最新一筆
-                        "  FROM dbo.Lists \n" +
-                        "  WHERE ParentID = 26 \n" + // 分會清單
                         "), org_clean AS ( \n" +
                         "  SELECT \n" +
                         "    ORG_CODE, ORG_NAME, \n" +
@@ -56,40 +60,48 @@ public class Report02RepositoryImpl implements Report02Repository {
                         ") \n" +
                         "SELECT \n" +
                         "  agg.branchCode, \n" +
-                        "  ls.Text      AS branchName, \n" + // 分會名稱
-                        "  ls.SortOrder AS sortOrder, \n" + // 分會排序
                         "  agg.orgCode, \n" +
                         "  oc.ORG_NAME  AS orgName, \n" +   // 機關名稱（Org_Lists）
                         "  agg.pendingCount, \n" +
                         "  agg.signedCount, \n" +
                         "  agg.caseCount \n" +
                         "FROM agg \n" +
-                        "LEFT JOIN lists_clean ls \n" +
-                        "  ON ls.rn = 1 \n" +
-                        " AND UPPER(LTRIM(RTRIM(ls.Value))) = UPPER(LTRIM(RTRIM(agg.branchCode))) \n" + // 分會代碼比對（去空白/大小寫忽略）
                         "LEFT JOIN org_clean oc \n" +
                         "  ON oc.rn = 1 \n" +
-                        " AND UPPER(LTRIM(RTRIM(oc.ORG_CODE))) = UPPER(LTRIM(RTRIM(agg.orgCode))) \n" + // 機關代碼比對（去空白/大小寫忽略）
-                        "ORDER BY \n" +
-                        "  ISNULL(ls.SortOrder, 2147483647) ASC, \n" + // 先依分會排序
-                        "  TRY_CONVERT(int, agg.orgCode) ASC, agg.orgCode ASC;"; // 再依機關代碼（可數值化則先）
+                        " AND UPPER(LTRIM(RTRIM(oc.ORG_CODE))) = UPPER(LTRIM(RTRIM(agg.orgCode))); \n"; // 機關代碼比對（去空白/大小寫忽略）
 
 
-        // 綁定參數與 RowMapper：將每一列結果映射成 FlatRow
-        return jdbc.query(sql, ps -> {
+        // 綁定參數與 RowMapper：將每一列結果映射成 FlatRow，分會名稱/排序由 Lists 快照對應（代碼去空白/大小寫忽略）
+        ListsSnapshot codes = lists.get();
+        List<Report02Dto.FlatRow> rows = jdbc.query(sql, ps -> {
                     // JDBC 4.2 起可直接綁 LocalDate；舊 driver 可改成 java.sql.Date.valueOf(from/to)
                     ps.setObject(1, from);
                     ps.setObject(2, to);
-                }, (rs, i) -> Report02Dto.FlatRow.builder()
-                        .branchCode(rs.getString("branchCode"))
-                        .branchName(rs.getString("branchName"))
-                        .sortOrder(rs.getObject("sortOrder") == null ? null : rs.getInt("sortOrder"))
-                        .orgCode(rs.getString("orgCode"))
-                        .orgName(rs.getString("orgName"))
-                        .pendingCount(rs.getInt("pendingCount"))
-                        .signedCount(rs.getInt("signedCount"))
-                        .caseCount(rs.getInt("caseCount"))
-                        .build()
+                }, (rs, i) -> {
+                    ListsEntry branch = codes.child(26, rs.getString("branchCode"));
+                    return Report02Dto.FlatRow.builder()
+                            .branchCode(rs.getString("branchCode"))
+                            .branchName(branch == null ? null : branch.getText())
+                            .sortOrder(branch == null ? null : branch.getSortOrder())
+                            .orgCode(rs.getString("orgCode"))
+                            .orgName(rs.getString("orgName"))
+                            .pendingCount(rs.getInt("pendingCount"))
+                            .signedCount(rs.getInt("signedCount"))
+                            .caseCount(rs.getInt("caseCount"))
+                            .build();
+                }
         );
+        // 先依分會排序，再依機關代碼（可數值化則先）
+        rows.sort(ROW_ORDER);
+        return rows;
+    }
+
+    private static Integer toInt(String s) {
+        if (s == null) return null;
+        try {
+            return Integer.valueOf(s.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,48 @@
+package com.hn2.cms.service;
+
+public interface KeyAllocatorService {
+
+    /**
+     * 取得下一個編號：前綴 + 固定位數流水號
+     *
+     * @param type   編號種類
+     * @param prefix 前綴（分會代碼 + 期間）
+     * @return 新編號
+     */
+    String next(KeyType type, String prefix);
+
+    /** 編號種類：計數名稱、流水號位數、既有資料最大流水號查詢（參數：prefix, prefix + '%'） */
+    enum KeyType {
+        /** 個案代碼：分會代碼(1碼) + 西元年月(6碼) + 流水號(5碼) */
+        ACABRD_ID("ACABrd.ID", 5,
+                "SELECT MAX(TRY_CAST(SUBSTRING(ID, LEN(?) + 1, 5) AS INT)) FROM dbo.ACABrd WHERE ID LIKE ?"),
+        /** 建檔編號：分會代碼(1碼) + 西元年後兩碼(2碼) + 流水號(4碼) */
+        ACABRD_CARD_NO("ACABrd.ACACardNo", 4,
+                "SELECT MAX(TRY_CAST(SUBSTRING(ACACardNo, LEN(?) + 1, 4) AS INT)) FROM dbo.ACABrd WHERE ACACardNo LIKE ?"),
+        /** 犯罪紀錄代碼：分會代碼(1碼) + 西元年月(6碼) + 流水號(5碼) */
+        CRMREC_ID("CrmRec.ID", 5,
+                "SELECT MAX(TRY_CAST(SUBSTRING(ID, LEN(?) + 1, 5) AS INT)) FROM dbo.CrmRec WHERE ID LIKE ?");
+
+        private final String counterName;
+        private final int width;
+        private final String seedSql;
+
+        KeyType(String counterName, int width, String seedSql) {
+            this.counterName = counterName;
+            this.width = width;
+            this.seedSql = seedSql;
+        }
+
+        public String getCounterName() {
+            return counterName;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public String getSeedSql() {
+            return seedSql;
+        }
+    }
+}
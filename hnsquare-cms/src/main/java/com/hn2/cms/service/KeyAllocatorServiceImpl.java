@@ -0,0 +1,53 @@
+package com.hn2.cms.service;
+
+import com.hn2.cms.repository.KeyBlockRepository;
+import com.hn2.util.BusinessException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 編號配發（hi/lo）
+ * <p>
+ * 每個 (編號種類, 前綴) 由 {@link KeyBlockRepository} 一次取得一個區段，區段內的流水號在記憶體中依序發放，
+ * 用完才再向 DB 取下一段；各主機的區段互不重疊，故多台主機同時存檔也不會取得重複編號（不保證連號）。
+ */
+@Service
+public class KeyAllocatorServiceImpl implements KeyAllocatorService {
+
+    @Autowired
+    KeyBlockRepository keyBlockRepository;
+
+    /** 每次向 DB 取得的流水號數量 */
+    @Value("${app.key.block-size:20}")
+    private int blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Override
+    public String next(KeyType type, String prefix) {
+        Block block = blocks.computeIfAbsent(type.getCounterName() + "|" + prefix, k -> new Block());
+        int value;
+        synchronized (block) {
+            if (block.next >= block.end) {
+                int start = keyBlockRepository.reserve(type.getCounterName(), prefix, blockSize, type.getSeedSql());
+                block.next = start;
+                block.end = start + blockSize;
+            }
+            value = block.next++;
+        }
+        if (String.valueOf(value).length() > type.getWidth()) {
+            throw new BusinessException(prefix + " 流水號已用盡");
+        }
+        return prefix + String.format("%0" + type.getWidth() + "d", value);
+    }
+
+    /** 記憶體中的區段 [next, end) */
+    private static class Block {
+        private int next;
+        private int end;
+    }
+}
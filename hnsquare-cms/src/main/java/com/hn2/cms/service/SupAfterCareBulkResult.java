@@ -0,0 +1,47 @@
+package com.hn2.cms.service;
+
+import com.hn2.core.dto.DataDto;
+import com.hn2.core.dto.ResponseInfo;
+import com.hn2.util.BusinessException;
+import com.hn2.util.ErrorType;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * SUP_AfterCare 批次狀態異動（{@link com.hn2.cms.repository.SupAfterCareBulkRepository}）的回應（Aca1001 / Aca1002 共用）
+ */
+public final class SupAfterCareBulkResult {
+
+    private SupAfterCareBulkResult() {
+    }
+
+    /**
+     * 未選取資料時拒絕，不執行異動
+     *
+     * @param ids 所選 ID
+     */
+    public static void requireSelection(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new BusinessException(ErrorType.REQUEST_NOT_VALID, "請選擇要處理的資料");
+        }
+    }
+
+    /**
+     * 依實際異動筆數回應：0 筆表示所選資料皆已不符合狀態（例如已被他人處理），視為失敗；部分異動時於訊息詳述註明筆數
+     *
+     * @param updated 異動筆數
+     * @param ids     所選 ID（不可為空，先以 {@link #requireSelection} 檢查）
+     * @return 成功訊息
+     */
+    public static DataDto<Void> saved(int updated, List<String> ids) {
+        if (updated == 0) {
+            throw new BusinessException(ErrorType.REQUEST_NOT_ALLOW, "所選資料狀態已變更，無資料可更新，請重新查詢");
+        }
+        int selected = new HashSet<>(ids).size();
+        String detail = updated < selected
+                ? "已更新 " + updated + " 筆，" + (selected - updated) + " 筆狀態已變更未更新"
+                : "已更新 " + updated + " 筆";
+        return new DataDto<>(null, new ResponseInfo(1, "儲存成功", detail));
+    }
+}
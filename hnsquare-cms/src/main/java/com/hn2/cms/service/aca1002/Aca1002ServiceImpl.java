@@ -8,31 +8,35 @@ import com.hn2.cms.payload.aca2001.Aca2001SavePayload;
 import com.hn2.cms.payload.aca1002.*;
 import com.hn2.cms.repository.aca1002.Aca1002Repository;
 import com.hn2.cms.repository.AcaBrdRepository;
+import com.hn2.cms.repository.SupAfterCareBulkRepository;
 import com.hn2.cms.repository.SupAfterCareRepository;
 import com.hn2.core.dto.DataDto;
-import com.hn2.core.dto.PageInfo;
 import com.hn2.core.dto.ResponseInfo;
 import com.hn2.core.payload.GeneralPayload;
-import com.hn2.core.util.PagePayloadValidator;
+import com.hn2.core.util.PageQueryHelper;
 import com.hn2.util.BusinessException;
-import com.hn2.util.ErrorType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+
+import static com.hn2.cms.service.SupAfterCareBulkResult.requireSelection;
+import static com.hn2.cms.service.SupAfterCareBulkResult.saved;
 import java.util.Optional;
 
 @Service
 public class Aca1002ServiceImpl implements Aca1002Service {
     @Autowired
-    PagePayloadValidator pagePayloadValidator;
+    PageQueryHelper pageQueryHelper;
     @Autowired
     Aca1002Repository Aca1002Repository;
     @Autowired
     SupAfterCareRepository supAfterCareRepository;
     @Autowired
+    SupAfterCareBulkRepository supAfterCareBulkRepository;
+    @Autowired
     AcaBrdRepository acaBrdRepository;
 
     @Override
@@ -40,104 +44,57 @@ public class Aca1002ServiceImpl implements Aca1002Service {
         var dataPayload = payload.getData();
         var pagePayload = payload.getPage();
 
-        int count = Aca1002Repository.countSearch(dataPayload);
-        if (pagePayload != null && !pagePayloadValidator.checkPageExist(pagePayload, count))
-            throw new BusinessException(ErrorType.RESOURCE_NOT_FOUND, "請求分頁不存在");
-
-        var dataList = Aca1002Repository.queryList(dataPayload, pagePayload);
+        var result = pageQueryHelper.query(pagePayload, "aca1002:" + dataPayload,
+                withTotalCount -> Aca1002Repository.queryList(dataPayload, pagePayload, withTotalCount),
+                () -> Aca1002Repository.countSearch(dataPayload),
+                Aca1002QueryDto::getItemId);
+        result.setResponse(new ResponseInfo(1, "查詢成功"));
 
-        PageInfo pageInfo = new PageInfo();
-        pageInfo.setTotalDatas((long) count);
-        if(pagePayload != null){
-            pageInfo.setCurrentPage(pagePayload.getPage());
-            pageInfo.setPageItems(pagePayload.getPageSize());
-            int i = count % pagePayload.getPageSize() == 0 ? 0 : 1;
-            pageInfo.setTotalPages(count / pagePayload.getPageSize() + i);
-        }
-
-        return new DataDto<>(dataList, pageInfo, new ResponseInfo(1, "查詢成功"));
+        return result;
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public DataDto<Void> signList(GeneralPayload<Aca1002SignPayload> payload) {
         Aca1002SignPayload payloadData = payload.getData();
-        List<SupAfterCareEntity> entityList = supAfterCareRepository.findAllById(payloadData.getItemIdList());
-
-        for (SupAfterCareEntity v : entityList){
-            if("0".equals(v.getAcaState()) || v.getAcaState() == null){
-                v.setAcaReceiptDate(payloadData.getAcaReceiptDate());
-                v.setAcaUser(payloadData.getAcaUser());
-                v.setAcaState("1");
+        // 僅 ACA_STATE 為 0 或 null 者簽收
+        requireSelection(payloadData.getItemIdList());
+        int updated = supAfterCareBulkRepository.receive(payloadData.getItemIdList(), payloadData.getAcaReceiptDate(), payloadData.getAcaUser());
 
+        //todo 需要寫入正式資料
+        //insertAca(v.getId());
 
-                //todo 需要寫入正式資料
-                //insertAca(v.getId());
-            }
-        }
-
-        supAfterCareRepository.saveAll(entityList);
-
-        return new DataDto<>(null, new ResponseInfo(1, "儲存成功"));
+        return saved(updated, payloadData.getItemIdList());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public DataDto<Void> transPort(GeneralPayload<Aca1002TransPortPayload> payload) {
         var payloadData = payload.getData();
-        var entityList = supAfterCareRepository.findAllById(payloadData.getItemIdList());
-
-        for (var v : entityList) {
-            v.setSignProtName(payloadData.getSignProtName());
-            v.setSignProtNo(payloadData.getSignProtNo());
-            v.setAcaReceiptDate(null);
-            v.setAcaUser(null);
-            v.setAcaState("0");
-
-            v.setSignDate(null);
-            v.setSignUser(null);
-            v.setSignState("0");
+        requireSelection(payloadData.getItemIdList());
+        int updated = supAfterCareBulkRepository.transfer(payloadData.getItemIdList(), payloadData.getSignProtNo(), payloadData.getSignProtName(), true);
 
-        };
-
-        supAfterCareRepository.saveAll(entityList);
-
-        return new DataDto<>(null, new ResponseInfo(1, "儲存成功"));
+        return saved(updated, payloadData.getItemIdList());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public DataDto<Void> goBack(GeneralPayload<Aca1002GoBackPayload> payload) {
         var payloadData = payload.getData();
-        var entityList = supAfterCareRepository.findAllById(payloadData.getItemIdList());
+        requireSelection(payloadData.getItemIdList());
+        int updated = supAfterCareBulkRepository.goBack(payloadData.getItemIdList());
 
-        for (var v : entityList) {
-            v.setAcaReceiptDate(null);
-            v.setAcaUser(null);
-            v.setAcaState("0");
-        };
-
-        supAfterCareRepository.saveAll(entityList);
-
-        return new DataDto<>(null, new ResponseInfo(1, "儲存成功"));
+        return saved(updated, payloadData.getItemIdList());
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public DataDto<Void> reassign(GeneralPayload<Aca1002ReassignPayload> payload) {
         var payloadData = payload.getData();
-        var entityList = supAfterCareRepository.findAllById(payloadData.getItemIdList());
+        requireSelection(payloadData.getItemIdList());
+        int updated = supAfterCareBulkRepository.reassign(payloadData.getItemIdList(), payloadData.getAcaUser());
 
-        for (var v : entityList) {
-            v.setAcaReceiptDate(null);
-            v.setAcaUser(payloadData.getAcaUser());
-            v.setAcaState("0");
-
-        };
-
-        supAfterCareRepository.saveAll(entityList);
-
-        return new DataDto<>(null, new ResponseInfo(1, "儲存成功"));
+        return saved(updated, payloadData.getItemIdList());
     }
 
     @Override
@@ -194,6 +151,4 @@ public class Aca1002ServiceImpl implements Aca1002Service {
 
         return new DataDto<>(null, new ResponseInfo(1, "儲存成功"));
     }
-
-
 }
@@ -5,6 +5,7 @@ import com.hn2.cms.model.SupAfterCareEntity;
 import com.hn2.cms.payload.aca2001.Aca2001SavePayload;
 import com.hn2.cms.repository.AcaBrdRepository;
 import com.hn2.cms.repository.SupAfterCareRepository;
+import com.hn2.cms.service.KeyAllocatorService;
 import com.hn2.cms.service.SysService;
 import com.hn2.core.dto.DataDto;
 import com.hn2.core.dto.ResponseInfo;
@@ -27,6 +28,8 @@ public class Aca2001ServiceImpl implements Aca2001Service {
     AcaBrdRepository acaBrdRepository;
     @Autowired
     SysService sysService;
+    @Autowired
+    KeyAllocatorService keyAllocatorService;
 
     @Override
     public DataDto<Void> save(GeneralPayload<Aca2001SavePayload> payload) {
@@ -88,8 +91,7 @@ public class Aca2001ServiceImpl implements Aca2001Service {
         SimpleDateFormat sf = new SimpleDateFormat("yyyyMM");
         String datestr = sf.format(date);
         String key = createdByBranchId + datestr ;
-        String no = acaBrdRepository.genNewId(key+ "%");
-        return key + no;
+        return keyAllocatorService.next(KeyAllocatorService.KeyType.ACABRD_ID, key);
     }
 
     /**
@@ -103,7 +105,6 @@ public class Aca2001ServiceImpl implements Aca2001Service {
         SimpleDateFormat sf = new SimpleDateFormat("yy");
         String datestr = sf.format(date);
         String key = createdByBranchId + datestr ;
-        String no = acaBrdRepository.genNewAcaCardNo(key+ "%");
-        return key + no;
+        return keyAllocatorService.next(KeyAllocatorService.KeyType.ACABRD_CARD_NO, key);
     }
 }
@@ -6,6 +6,7 @@ import com.hn2.cms.payload.aca2002.Aca2002QueryListPayload;
 import com.hn2.cms.payload.aca2002.Aca2002QueryPayload;
 import com.hn2.cms.payload.aca2002.Aca2002SavePayload;
 import com.hn2.cms.repository.CrmRecRepository;
+import com.hn2.cms.service.KeyAllocatorService;
 import com.hn2.cms.service.SysService;
 import com.hn2.core.dto.DataDto;
 import com.hn2.core.dto.ResponseInfo;
@@ -30,6 +31,8 @@ public class Aca2002ServiceImpl implements Aca2002Service {
     ModelMapper modelMapper;
     @Autowired
     SysService sysService;
+    @Autowired
+    KeyAllocatorService keyAllocatorService;
 
 
     @Override
@@ -83,8 +86,7 @@ public class Aca2002ServiceImpl implements Aca2002Service {
         SimpleDateFormat sf = new SimpleDateFormat("yyyyMM");
         String datestr = sf.format(date);
         String key = createdByBranchId + datestr ;
-        String no = crmRecRepository.genNewId(key+ "%'");
-        return key + no;
+        return keyAllocatorService.next(KeyAllocatorService.KeyType.CRMREC_ID, key);
     }
 
 }
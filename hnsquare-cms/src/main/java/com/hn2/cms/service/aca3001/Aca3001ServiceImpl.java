@@ -8,8 +8,10 @@ import com.hn2.cms.payload.aca3001.Aca3001QueryPayload;
 import com.hn2.cms.payload.aca3001.Aca3001SavePayload;
 import com.hn2.cms.repository.aca3001.Aca3001Repository;
 
-import com.hn2.cms.repository.aca3001.ListsRepository;
 import com.hn2.cms.repository.aca3001.ProAdoptRepository;
+import com.hn2.cms.repository.lists.ListsEntry;
+import com.hn2.cms.repository.lists.ListsSnapshot;
+import com.hn2.cms.repository.lists.ListsSnapshotHolder;
 import com.hn2.core.dto.DataDto;
 import com.hn2.core.dto.ResponseInfo;
 import com.hn2.core.payload.GeneralPayload;
@@ -26,14 +28,14 @@ public class Aca3001ServiceImpl implements Aca3001Service {
 
     private final Aca3001Repository repo;
     private final ProAdoptRepository proAdoptRepo; // 新增：JPA Repo
-    private final ListsRepository listsRepo; // <-- 新增
+    private final ListsSnapshotHolder lists; // Lists 代碼表快照
 
 
     @Autowired
-    public Aca3001ServiceImpl(Aca3001Repository repo, ProAdoptRepository proAdoptRepo, ListsRepository listsRepo) {
+    public Aca3001ServiceImpl(Aca3001Repository repo, ProAdoptRepository proAdoptRepo, ListsSnapshotHolder lists) {
         this.repo = repo;
         this.proAdoptRepo = proAdoptRepo;
-        this.listsRepo = listsRepo;
+        this.lists = lists;
     }
 
     /**
@@ -49,27 +51,13 @@ public class Aca3001ServiceImpl implements Aca3001Service {
             return new DataDto<>(null, new ResponseInfo(0, "proRecId 不可為空"));
         }
 
-        // 1) 驗證個案存在性
-        //    - Profile 為 null 表示查無此 ProRec
-        //    - 規則：若個案不存在 → ACABrd 關聯也不成立
-        Aca3001QueryDto.Profile profile = repo.computeProfile(proRecId);
-        if (profile == null) {
+        // 1) 一次往返載入並組裝完整 DTO
+        //    - Meta / Header / Profile / Direct & Eval AdoptCriteria / Summary 由同一批次的多個結果集組成
+        //    - 回傳 null 表示查無此 ProRec（或 ACABrd 關聯不成立）
+        Aca3001QueryDto dto = repo.loadQuery(proRecId);
+        if (dto == null) {
             return new DataDto<>(null, new ResponseInfo(0, "查無資料"));
         }
-
-        // 2) 取得認輔評估主表 ID
-        //    - 若為 null 表示尚未建立過 ProAdopt
-        Integer proAdoptId = repo.findProAdoptIdByProRecId(proRecId);
-
-        // 3) 組裝完整 DTO
-        //    - 各區塊由 repository 提供，Service 僅負責組合
-        Aca3001QueryDto dto = new Aca3001QueryDto();
-        dto.setMeta(repo.computeMeta(proRecId, proAdoptId));
-        dto.setHeader(repo.computeHeader(proRecId));
-        dto.setProfile(profile);
-        dto.setDirectAdoptCriteria(repo.computeDirectAdoptCriteria(proAdoptId));
-        dto.setEvalAdoptCriteria(repo.computeEvalAdoptCriteria(proAdoptId));
-        dto.setSummary(repo.computeSummary(proRecId, proAdoptId));
         return new DataDto<>(dto, new ResponseInfo(1, "查詢成功"));
     }
 
@@ -444,9 +432,10 @@ public class Aca3001ServiceImpl implements Aca3001Service {
 
         // ---------- 3) 讀現行有效 Lists（作為子表「文字快照」來源） ----------
         boolean refresh = Boolean.TRUE.equals(p.getRefreshSnapshot());
-        // 讀現行有效 Lists（只讀）
-        List<ListsEntity> dacActives = listsRepo.findByListNameAndIsDisabledFalseOrderBySortOrderAscEntryIdAsc("PROADOPT_DAC");
-        List<ListsEntity> eacActives = listsRepo.findByListNameAndIsDisabledFalseOrderBySortOrderAscEntryIdAsc("PROADOPT_EAC");
+        // 讀現行有效 Lists：寫入的文字快照須與資料庫一致，先比對版本（有異動即重新載入）
+        ListsSnapshot snapshot = lists.fresh();
+        List<ListsEntry> dacActives = snapshot.activeList("PROADOPT_DAC");
+        List<ListsEntry> eacActives = snapshot.activeList("PROADOPT_EAC");
 
         // 用 LinkedHashMap 保留穩定排序（報表/畫面友善）, 「目前還有效的 Lists 快照」
         Map<Integer, String> dacText = new LinkedHashMap<>();
@@ -1,6 +1,7 @@
 package com.hn2.cms.service.aca4001;
 
 import com.hn2.cms.dto.aca4001.Aca4001AuditQueryDto;
+import com.hn2.cms.dto.aca4001.Aca4001RestoreDto;
 import com.hn2.cms.dto.aca4001.Aca4001RestoreQueryDto;
 import com.hn2.cms.dto.aca4001.Aca4001EraseQueryDto;
 import com.hn2.cms.payload.aca4001.Aca4001ErasePayload;
@@ -17,7 +18,7 @@ public interface Aca4001Service {
 
     DataDto<Aca4001RestoreQueryDto> restoreQuery(GeneralPayload<Aca4001RestoreQueryPayload> payload);
 
-    DataDto<Void> restore(GeneralPayload<Aca4001RestorePayload> payload, String userId, String userIp);
+    DataDto<Aca4001RestoreDto> restore(GeneralPayload<Aca4001RestorePayload> payload, String userId, String userIp);
 
     DataDto<Aca4001AuditQueryDto> auditQuery();
 }
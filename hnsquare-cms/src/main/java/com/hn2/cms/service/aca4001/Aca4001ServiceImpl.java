@@ -3,6 +3,7 @@ package com.hn2.cms.service.aca4001;
 import com.hn2.cms.dto.aca4001.Aca4001AuditQueryDto;
 import com.hn2.cms.dto.aca4001.Aca4001EraseQueryDto;
 import com.hn2.cms.dto.aca4001.Aca4001EraseQueryDto.*;
+import com.hn2.cms.dto.aca4001.Aca4001RestoreDto;
 import com.hn2.cms.dto.aca4001.Aca4001RestoreQueryDto;
 import com.hn2.cms.payload.aca4001.Aca4001ErasePayload;
 import com.hn2.cms.payload.aca4001.Aca4001EraseQueryPayload;
@@ -22,6 +23,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.Future;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +31,7 @@ public class Aca4001ServiceImpl implements Aca4001Service {
 
     private final Aca4001Repository repo;
     private final GenericEraseService genericEraseService; // 用於執行通用的塗銷與還原邏輯
+    private final QuerySectionExecutor sectionExecutor; // eraseQuery 各區塊並行查詢
 
     /**
      * 依個案卡號與(可選)日期區間，查詢其在「滿 18 歲以前」的 CrmRec/ProRec 清單，
@@ -40,13 +43,14 @@ public class Aca4001ServiceImpl implements Aca4001Service {
      * 4) 已滿 18 → 組成查詢時間區間 (eighteenthStart 排除；[start, endInclusive] 可選)。
      * 5) 依條件撈出 CrmRec/ProRec 的 ID 清單，再批次補齊欄位成 DTO 清單。
      * 6) 查詢「最新 ProRec 是否結案」與「主檔是否已塗銷」，設定回傳 DTO 的旗標。
+     * 5)、6) 各區塊互不相依，交由 {@link QuerySectionExecutor} 並行執行；各區塊在各自的唯讀交易（逾時為剩餘秒數）內取得連線，故本方法不開交易，
+     * 避免呼叫端執行緒佔住一條連線等待工作執行緒。
      *
      * @param payload GeneralPayload 包裹的請求物件，內含 acaCardNo / startDate / endDate 字串
      * @return 查詢結果與訊息
      * @throws IllegalArgumentException 當必要欄位缺漏或日期區間不正確時
      */
     @Override
-    @Transactional(readOnly = true)
     public DataDto<Aca4001EraseQueryDto> eraseQuery(GeneralPayload<Aca4001EraseQueryPayload> payload) {
 
         if (payload == null || payload.getData() == null) {
@@ -98,32 +102,31 @@ public class Aca4001ServiceImpl implements Aca4001Service {
         LocalDateTime startTs = (start == null) ? null : start.atStartOfDay();
         LocalDateTime endInclusive = (end == null) ? null : end.atTime(23, 59, 59, 999_000_000);
 
-        // 3) 針對滿18歲個案，撈所有的犯罪紀錄 ID 清單
-        List<String> crmIds = repo.findAllCrmRecIdsByAcaCardNo(acaCardNo);
-        // 4) 針對滿18歲個案，撈18歲前的保護紀錄 ID 清單
-        List<String> proIds = repo.findProRecIdsBefore18(acaCardNo, eighteenthStart, startTs, endInclusive);
-        // 5) 針對滿18歲個案，撈所有的毒品紀錄 ID 清單
-        List<String> drgIds = repo.findAllAcaDrugUseIdsByAcaCardNo(acaCardNo);
-
-        // CrmRec：用犯罪紀錄ID清單補齊CrmRec.dto欄位
-        List<Aca4001EraseQueryDto.CrmRec> crmRecs = repo.findCrmRecsByIds(crmIds);
-        dto.setCrmRecList(crmRecs);
-
-        // ProRec：用保護紀錄ID清單補齊ProRec.dto欄位
-        List<Aca4001EraseQueryDto.ProRec> proRecs = repo.findProRecsByIds(proIds);
-        dto.setProRecListBefore18(proRecs);
-
-        // ProRec：用保護紀錄ID清單補齊ACADrugUse.dto欄位
-        List<Aca4001EraseQueryDto.ACADrugUse> drgRecs = repo.findAcaDrugUsesByIds(drgIds);
-        dto.setAcaDrugUseList(drgRecs);
-
-        // 5) 判斷最新 ProRec 是否結案
-        Boolean latestClosed = repo.findLatestProRecClosed(acaCardNo);
-        dto.setLatestProRecClosed(latestClosed != null && latestClosed);
-
-        // 6) 判斷 ACABrd 是否已塗銷
-        Boolean erased = repo.findPersonErased(acaCardNo);
-        dto.setErased(erased != null && erased);
+        // 3) 已滿18 → 各區塊互不相依，並行查詢（共用截止時間，逾時或失敗即取消其餘區塊）
+        QuerySectionExecutor.Batch batch = sectionExecutor.batch();
+        // CrmRec：撈所有的犯罪紀錄 ID 清單，再補齊 CrmRec.dto 欄位
+        Future<List<CrmRec>> crmRecs = batch.submit("crmRec",
+                () -> repo.findCrmRecsByIds(repo.findAllCrmRecIdsByAcaCardNo(acaCardNo)));
+        // ProRec：撈18歲前的保護紀錄 ID 清單，再補齊 ProRec.dto 欄位
+        Future<List<ProRec>> proRecs = batch.submit("proRec",
+                () -> repo.findProRecsByIds(repo.findProRecIdsBefore18(acaCardNo, eighteenthStart, startTs, endInclusive)));
+        // ACADrugUse：撈所有的毒品紀錄 ID 清單，再補齊 ACADrugUse.dto 欄位
+        Future<List<ACADrugUse>> drgRecs = batch.submit("acaDrugUse",
+                () -> repo.findAcaDrugUsesByIds(repo.findAllAcaDrugUseIdsByAcaCardNo(acaCardNo)));
+        // 判斷最新 ProRec 是否結案
+        Future<Boolean> latestClosed = batch.submit("latestProRecClosed", () -> repo.findLatestProRecClosed(acaCardNo));
+        // 判斷 ACABrd 是否已塗銷
+        Future<Boolean> erased = batch.submit("erased", () -> repo.findPersonErased(acaCardNo));
+        batch.await();
+
+        dto.setCrmRecList(batch.get(crmRecs));
+        dto.setProRecListBefore18(batch.get(proRecs));
+        dto.setAcaDrugUseList(batch.get(drgRecs));
+        dto.setLatestProRecClosed(Boolean.TRUE.equals(batch.get(latestClosed)));
+        dto.setErased(Boolean.TRUE.equals(batch.get(erased)));
+        if (sectionExecutor.isDebug()) {
+            dto.setTimings(batch.getTimings());
+        }
 
         // 已滿 18 的正常回覆
         return new DataDto<>(dto, new ResponseInfo(1, "查詢成功：個案已滿18"));
@@ -145,7 +148,7 @@ public class Aca4001ServiceImpl implements Aca4001Service {
      * @param payload 包含 acaCardNo、使用者選取的紀錄 ID、以及可選的 isOver18/docNum/eraseReason
      * @param userId  操作人 UserID（用於稽核）
      * @param userIp  操作人 IP（用於稽核）
-     * @return 空資料主體 + 成功訊息（依滿/未滿 18 帶入不同字串）
+     * @return 未寫回的主鍵（表名 → 主鍵清單）+ 訊息（依滿/未滿 18 帶入不同字串）
      * @throws IllegalArgumentException acaCardNo 缺漏或為空時拋出
      */
     @Override
@@ -256,8 +259,9 @@ public class Aca4001ServiceImpl implements Aca4001Service {
      * 3) 委派給 genericEraseService.restoreAllByAcaCardNo(cmd)：
      * - 讀取 ACA_EraseMirror 中該 ACACardNo 的鏡像資料
      * - 逐表解密＋校驗（AES-GCM + SHA-256），通過者寫回原表
-     * - 成功後寫一筆 RESTORE 稽核，並清理鏡像（依你的 service 實作）
-     * 4) 回傳成功訊息。
+     * - 成功後寫一筆 RESTORE 稽核，並清理已寫回的鏡像
+     * - 目前非塗銷狀態（isERASE 非 1）的列不寫回，鏡像保留
+     * 4) 回傳未寫回的主鍵與訊息。
      * 交易特性：
      * - 方法加上 @Transactional；若過程中任一步拋出 Runtime 例外，整個還原交易將回滾，
      * 不會產生成功稽核，鏡像也不會被刪除（便於調查）。
@@ -265,12 +269,12 @@ public class Aca4001ServiceImpl implements Aca4001Service {
      * @param payload 包含 acaCardNo 與 restoreReason 的請求
      * @param userId  操作者 ID（將寫入稽核；型別需與資料庫欄位一致）
      * @param userIp  來源 IP（寫入稽核）
-     * @return 空資料主體 + 成功訊息
+     * @return 未寫回的主鍵（表名 → 主鍵清單）+ 訊息
      * @throws IllegalArgumentException 當 acaCardNo 缺漏或空白
      */
     @Override
     @Transactional
-    public DataDto<Void> restore(GeneralPayload<Aca4001RestorePayload> payload, String userId, String userIp) {
+    public DataDto<Aca4001RestoreDto> restore(GeneralPayload<Aca4001RestorePayload> payload, String userId, String userIp) {
         var req = payload.getData();
         if (req == null || req.getAcaCardNo() == null || req.getAcaCardNo().isBlank())
             throw new IllegalArgumentException("acaCardNo 不可為空");
@@ -285,10 +289,16 @@ public class Aca4001ServiceImpl implements Aca4001Service {
 
         // 執行實際還原流程：
         // - 讀鏡像 → 解密/校驗 → 分表寫回 → 寫 RESTORE 入塗銷異動表 → 清理鏡像（視你的 service 實作）
-        genericEraseService.restoreAllByAcaCardNo(cmd);
+        var skipped = genericEraseService.restoreAllByAcaCardNo(cmd);
 
-        // 回傳成功訊息
-        return new DataDto<>(null, new ResponseInfo(1, "還原成功 for ACACardNo=" + req.getAcaCardNo()));
+        var dto = new Aca4001RestoreDto();
+        dto.setSkippedIds(skipped);
+        dto.setSkippedCount(skipped.values().stream().mapToInt(List::size).sum());
+        if (dto.getSkippedCount() == 0) {
+            return new DataDto<>(dto, new ResponseInfo(1, "還原成功 for ACACardNo=" + req.getAcaCardNo()));
+        }
+        return new DataDto<>(dto, new ResponseInfo(1, "還原完成 for ACACardNo=" + req.getAcaCardNo()
+                + "，" + dto.getSkippedCount() + " 筆目前非塗銷狀態未寫回，其鏡像已保留"));
     }
 
     /**
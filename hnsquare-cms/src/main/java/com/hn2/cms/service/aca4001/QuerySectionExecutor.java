@@ -0,0 +1,233 @@
+package com.hn2.cms.service.aca4001;
+
+import com.hn2.util.BusinessException;
+import com.hn2.util.ErrorType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 查詢區塊並行執行器（Aca4001 eraseQuery 等多區塊查詢使用）
+ * <p>
+ * 固定大小執行緒池 + 有界佇列，佇列滿時回 429；每次請求以 {@link #batch()} 取得一組區塊，
+ * 共用同一個截止時間，逾時或任一區塊失敗即取消其餘區塊（尚未開始的不再執行，執行中的送出中斷）。
+ * 依完成順序等待，第一個失敗的區塊不必等排在前面的區塊跑完就能取消其餘區塊。
+ * <p>
+ * 中斷無法停止執行中的 JDBC 查詢，因此每個區塊在唯讀交易內執行，交易逾時為開始執行時距截止時間的剩餘秒數；
+ * JdbcTemplate 與 sql2o（{@code SpringTxConnectionSource}）建立 Statement 時都會套用剩餘秒數為 query timeout，
+ * 由資料庫端中止逾時的查詢並釋放連線。
+ * 每個區塊記錄排隊與執行毫秒數，供 debug 模式回傳與記錄。
+ */
+@Slf4j
+@Component
+public class QuerySectionExecutor {
+
+    /** 執行緒數（0 = CPU 核心數） */
+    @Value("${aca4001.query.workers:4}")
+    private int workers;
+
+    /** 佇列長度 */
+    @Value("${aca4001.query.queue-capacity:64}")
+    private int queueCapacity;
+
+    /** 單次請求截止時間（毫秒） */
+    @Value("${aca4001.query.timeout-ms:15000}")
+    private long timeoutMs;
+
+    @Autowired
+    private TransactionManager transactionManager;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int size = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "query-section-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("[QuerySection] workers={}, queueCapacity={}, timeoutMs={}", size, queueCapacity, timeoutMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** 是否回傳各區塊耗時（logger 為 DEBUG 時啟用） */
+    public boolean isDebug() {
+        return log.isDebugEnabled();
+    }
+
+    /**
+     * 建立一組共用截止時間的區塊
+     *
+     * @return Batch
+     */
+    public Batch batch() {
+        return new Batch(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+    }
+
+    /** 一次請求的區塊集合 */
+    public class Batch {
+        private final long deadline;
+        private final List<Future<?>> futures = new ArrayList<>();
+        private final CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+        private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+        private final long created = System.nanoTime();
+
+        private Batch(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * 送出一個區塊
+         *
+         * @param name 區塊名稱（用於耗時紀錄）
+         * @param task 查詢
+         * @return Future；請先 {@link #await()} 再以 {@link #get(Future)} 取值
+         */
+        public <T> Future<T> submit(String name, Callable<T> task) {
+            long queued = System.nanoTime();
+            try {
+                @SuppressWarnings("unchecked")
+                Future<T> future = (Future<T>) completion.submit(() -> {
+                    long start = System.nanoTime();
+                    timings.put(name + ".waitMs", TimeUnit.NANOSECONDS.toMillis(start - queued));
+                    long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - start);
+                    if (remainingMs <= 0) {
+                        throw new TimeoutException(name);
+                    }
+                    TransactionTemplate tx = new TransactionTemplate((PlatformTransactionManager) transactionManager);
+                    tx.setReadOnly(true);
+                    tx.setTimeout((int) Math.max(1L, (remainingMs + 999) / 1000));
+                    try {
+                        return tx.execute(status -> {
+                            try {
+                                return task.call();
+                            } catch (RuntimeException e) {
+                                throw e;
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        });
+                    } finally {
+                        timings.put(name + ".ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                });
+                futures.add(future);
+                return future;
+            } catch (RejectedExecutionException e) {
+                cancel();
+                throw new BusinessException(ErrorType.TOO_MANY_REQUESTS, "系統忙碌中，請稍後再試");
+            }
+        }
+
+        /** 依完成順序等待全部區塊；逾時、任一區塊失敗或中斷時立即取消其餘區塊並拋出 */
+        public void await() {
+            try {
+                for (int i = 0; i < futures.size(); i++) {
+                    Future<Object> done = completion.poll(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        throw new TimeoutException();
+                    }
+                    done.get();
+                }
+            } catch (TimeoutException | CancellationException e) {
+                cancel();
+                log.warn("[QuerySection] timeout, timings={}", timings);
+                throw new BusinessException(ErrorType.SERVICE_TIMEOUT, "查詢逾時，請縮小查詢區間後再試");
+            } catch (ExecutionException e) {
+                cancel();
+                if (isTimeout(e.getCause())) {
+                    log.warn("[QuerySection] query timeout, timings={}", timings);
+                    throw new BusinessException(ErrorType.SERVICE_TIMEOUT, "查詢逾時，請縮小查詢區間後再試");
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new BusinessException(ErrorType.SERVICE_TIMEOUT, "查詢已中斷");
+            }
+            timings.put("total.ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - created));
+            log.debug("[QuerySection] timings={}", timings);
+        }
+
+        /**
+         * 取得已完成區塊的結果（需先呼叫 {@link #await()}）
+         *
+         * @param future submit 回傳的 Future
+         * @return 結果
+         */
+        public <T> T get(Future<T> future) {
+            if (!future.isDone()) {
+                throw new IllegalStateException("區塊尚未完成，請先呼叫 await()");
+            }
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        /** 各區塊耗時（毫秒） */
+        public Map<String, Long> getTimings() {
+            synchronized (timings) {
+                return new LinkedHashMap<>(timings);
+            }
+        }
+
+        private void cancel() {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /** 區塊因截止時間而失敗：排隊逾時、交易逾時或資料庫端 query timeout */
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof TransactionTimedOutException
+                    || t instanceof QueryTimeoutException || t instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -14,6 +14,13 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
 
+/**
+ * 塗銷鏡像用 AES-GCM 加解密與 SHA-256。
+ * <p>
+ * Cipher／MessageDigest 非執行緒安全，以 ThreadLocal 每執行緒各快取一個（每次使用前重新 init/reset）；
+ * SecureRandom 為執行緒安全，全域共用一個；Base64 編解碼器與十六進位轉換不產生中間物件，
+ * 供 {@link ParallelCodec} 多執行緒並行呼叫。
+ */
 @Component
 public class AesGcmCrypto {
 
@@ -22,6 +29,29 @@ public class AesGcmCrypto {
     private static final int GCM_TAG_BITS = 128;   // 認證標籤長度 128 bits（標準建議值）
     private static final int GCM_IV_BYTES = 12;    // GCM 推薦 IV 長度：12 bytes（96 bits）
 
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final Base64.Encoder B64_ENC = Base64.getEncoder();
+    private static final Base64.Decoder B64_DEC = Base64.getDecoder();
+
+    // 共用亂數來源（SecureRandom 本身執行緒安全，避免每筆重新建立與播種）
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // 每執行緒快取的 Cipher / MessageDigest（Cipher.getInstance 需查 Provider，成本高）
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance("AES/GCM/NoPadding");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES/GCM/NoPadding not available", e);
+        }
+    });
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
     public AesGcmCrypto(@Value("${erase.crypto.base64Key}") String base64Key) {
         // 1) 讀取並解 Base64；得到原始金鑰位元組
         byte[] raw = Base64.getDecoder().decode(base64Key);
@@ -33,14 +63,20 @@ public class AesGcmCrypto {
         this.key = new SecretKeySpec(raw, "AES");
     }
 
-    // 內部使用的小型回傳封裝：密文與 IV 的 Base64
+    // 內部使用的小型回傳封裝：密文與 IV 的 Base64（seal 另帶明文 SHA-256）
     public static final class Encoded {
         public final String payloadBase64; // Base64(ciphertext)
         public final String ivBase64;      // Base64(12-byte IV)
+        public final String sha256Hex;     // 明文 SHA-256（僅 seal 填入）
 
         public Encoded(String payloadBase64, String ivBase64) {
+            this(payloadBase64, ivBase64, null);
+        }
+
+        public Encoded(String payloadBase64, String ivBase64, String sha256Hex) {
             this.payloadBase64 = payloadBase64;
             this.ivBase64 = ivBase64;
+            this.sha256Hex = sha256Hex;
         }
     }
 
@@ -48,56 +84,90 @@ public class AesGcmCrypto {
      * 將 JSON（或任意字串）加密為 Base64 密文＋IV（AES-GCM），每次呼叫都會產生新的隨機 IV。
      */
     public Encoded encryptJson(String json) {
+        byte[] pt = json.getBytes(StandardCharsets.UTF_8);
+        return encrypt(pt, null);
+    }
+
+    /**
+     * 加密並同時計算明文 SHA-256（明文只轉一次 UTF-8），供鏡像寫入使用。
+     */
+    public Encoded seal(String json) {
+        byte[] pt = json.getBytes(StandardCharsets.UTF_8);
+        return encrypt(pt, sha256Hex(pt));
+    }
+
+    /**
+     * 以 Base64 密文＋IV 解回原始 JSON 字串（同金鑰、同 GCM 參數）。
+     */
+    public String decryptToJson(String payloadBase64, String ivBase64) {
+        return new String(decrypt(payloadBase64, ivBase64), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解密並以明文 SHA-256 校驗（expectedSha 為 null 時不校驗）。
+     *
+     * @throws IllegalStateException 解密失敗或 SHA 不符
+     */
+    public String open(String payloadBase64, String ivBase64, String expectedSha) {
+        byte[] pt = decrypt(payloadBase64, ivBase64);
+        if (expectedSha != null && !sha256Hex(pt).equalsIgnoreCase(expectedSha)) {
+            throw new IllegalStateException("SHA-256 mismatch");
+        }
+        return new String(pt, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 對任意字串計算 SHA-256 並以 64 位十六進位小寫字串回傳。
+     */
+    public static String sha256Hex(String s) {
+        return sha256Hex(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256Hex(byte[] data) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        return toHex(md.digest(data));
+    }
+
+    private Encoded encrypt(byte[] pt, String sha) {
         // 1) 產生 12-byte 隨機 IV（GCM 建議長度）
         byte[] iv = new byte[GCM_IV_BYTES];
-        new SecureRandom().nextBytes(iv);
+        RANDOM.nextBytes(iv);
         try {
-            // 2) 取得 Cipher，設定為 AES/GCM/NoPadding
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            // 3) 以金鑰與 IV 初始化為加密模式，標籤長度 128 bits
+            // 2) 以本執行緒的 Cipher、金鑰與新 IV 重新初始化為加密模式（GCM 不可重用 IV，故每次 init）
+            Cipher cipher = CIPHER.get();
             cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, iv));
-            // 4) 執行加密（UTF-8 編碼）
-            byte[] ct = cipher.doFinal(json.getBytes(StandardCharsets.UTF_8));
-            // 5) 回傳 Base64(ciphertext) 與 Base64(IV)
-            return new Encoded(Base64.getEncoder().encodeToString(ct),
-                    Base64.getEncoder().encodeToString(iv));
+            // 3) 執行加密
+            byte[] ct = cipher.doFinal(pt);
+            // 4) 回傳 Base64(ciphertext) 與 Base64(IV)
+            return new Encoded(B64_ENC.encodeToString(ct), B64_ENC.encodeToString(iv), sha);
         } catch (GeneralSecurityException e) {
             throw new IllegalStateException("AES-GCM encrypt failed", e);
         }
     }
 
-    /**
-     * 以 Base64 密文＋IV 解回原始 JSON 字串（同金鑰、同 GCM 參數）。
-     */
-    public String decryptToJson(String payloadBase64, String ivBase64) {
+    private byte[] decrypt(String payloadBase64, String ivBase64) {
         try {
             // 1) 解 Base64 取得 IV 與密文
-            byte[] iv = Base64.getDecoder().decode(ivBase64);
-            byte[] ct = Base64.getDecoder().decode(payloadBase64);
-            // 2) 取得 Cipher 並初始化為解密模式（同樣的標籤長度與 IV）
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            byte[] iv = B64_DEC.decode(ivBase64);
+            byte[] ct = B64_DEC.decode(payloadBase64);
+            // 2) 以本執行緒的 Cipher 初始化為解密模式（同樣的標籤長度與 IV）
+            Cipher cipher = CIPHER.get();
             cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_BITS, iv));
             // 3) 執行解密與驗證；若密文/IV/標籤被竄改會在此丟出 AEADBadTagException
-            byte[] pt = cipher.doFinal(ct);
-            // 4) 回傳 UTF-8 字串
-            return new String(pt, StandardCharsets.UTF_8);
+            return cipher.doFinal(ct);
         } catch (GeneralSecurityException e) {
             throw new IllegalStateException("AES-GCM decrypt failed", e);
         }
     }
 
-    /**
-     * 對任意字串計算 SHA-256 並以 64 位十六進位小寫字串回傳。
-     */
-    public static String sha256Hex(String s) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] h = md.digest(s.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(64);
-            for (byte b : h) sb.append(String.format("%02x", b));
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException(e);
+    private static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            out[j++] = HEX[v >>> 4];
+            out[j++] = HEX[v & 0x0F];
         }
+        return new String(out);
     }
-}
\ No newline at end of file
+}
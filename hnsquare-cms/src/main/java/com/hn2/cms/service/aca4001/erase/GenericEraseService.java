@@ -9,14 +9,19 @@ import com.hn2.cms.service.aca4001.erase.command.RestoreCommand;
 import com.hn2.cms.service.aca4001.erase.rules.EraseTableConfigPojo;
 import com.hn2.cms.service.aca4001.erase.rules.EraseRestoreExecutor;
 import com.hn2.cms.service.aca4001.erase.support.RowUtils;
+import com.hn2.util.PersonalDataErasedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +34,11 @@ public class GenericEraseService {
     private final ObjectMapper om;                                  // JSON 序列化/反序列化
     private final List<EraseTableConfigPojo> tableConfig;           // 各表的規則宣告
     private final EraseRestoreExecutor executor;                    // 通用執行器
+    private final ParallelCodec codec;                              // 打包/加解密並行階段（保留原順序）
+    private final ApplicationEventPublisher events;                 // 塗銷完成事件（提交後清除含個資的快取）
+
+    @Value("${erase.mirror.batch-size:200}")
+    private int mirrorBatchSize;                                    // 每頁讀取／鏡像 MERGE／還原的筆數
 
     // 新增在類別裡（任一欄位區塊都可）
     private static final String C_RULE = "\u001B[96m";  // 亮青：Rule
@@ -51,6 +61,9 @@ public class GenericEraseService {
                 cmd.getOperatorUserId(),
                 cmd.getOperatorIp()
         );
+
+        // 交易提交後通知清除含個資的快取（例如報表產出檔）
+        events.publishEvent(new PersonalDataErasedEvent(cmd.getAcaCardNo()));
     }
 
     private void runRuleErase(EraseCommand cmd) {
@@ -60,21 +73,22 @@ public class GenericEraseService {
             List<String> keys = rule.isChild() ? cmd.idsOf(rule.getParentTable()) : cmd.idsOf(rule.getTable());
             if (keys == null || keys.isEmpty()) continue;
 
-            // 撈資料（白名單欄位＋__PK__），子表走父鍵；主表走主鍵
-            var rows = rule.isChild() ? executor.loadRowsByParentIds(rule, keys) : executor.loadRowsByIds(rule, keys);
-            if (rows.isEmpty()) continue;
-
-            // —— 鏡像：為每一列把「欄位 Map」打包成 JSON → AES-GCM 加密 → SHA → upsert 鏡像表
-            for (var row : rows) {
+            // 分頁撈資料（白名單欄位＋__PK__，子表走父鍵；主表走主鍵），每頁 mirrorBatchSize 列：
+            // 打包成 JSON → AES-GCM 加密＋SHA（並行、順序不變）→ 一次 upsert 鏡像表；頁處理完即釋放，記憶體不隨筆數成長
+            Consumer<List<Map<String, Object>>> mirrorPage = rows -> mirrorRepo.upsertAll(codec.map(rows, row -> {
                 String id = RowUtils.extractIdOrThrow(row, rule.getIdColumn(), rule.getTable());
                 String json = buildRowPayloadJson(rule.getSchema(), rule.getTable(), rule.getIdColumn(), id, row);
 
                 logJson(false, false, cmd.getAcaCardNo(), rule.getTable(), id, json); // [RULE][ERASE]
 
-                var enc = crypto.encryptJson(json);
-                String sha = AesGcmCrypto.sha256Hex(json);
-                mirrorRepo.upsert(rule.getTable(), id, cmd.getAcaCardNo(), enc.payloadBase64, enc.ivBase64, sha, rule.getSchema());
-            }
+                var enc = crypto.seal(json);
+                return EraseMirrorRepo.row(rule.getTable(), id, cmd.getAcaCardNo(), enc.payloadBase64, enc.ivBase64, enc.sha256Hex, rule.getSchema());
+            }));
+            int mirrored = rule.isChild()
+                    ? executor.forEachPageByParentIds(rule, keys, mirrorBatchSize, mirrorPage)
+                    : executor.forEachPageByIds(rule, keys, mirrorBatchSize, mirrorPage);
+            if (mirrored == 0) continue;
+            log.info("[MirrorUpsert] aca={}, tbl={}, rows={}", cmd.getAcaCardNo(), rule.getTable(), mirrored);
 
             // —— 清空（Erase）：子表用父鍵，主表用主鍵
             if (rule.isChild()) executor.eraseByParent(rule, keys);
@@ -84,51 +98,51 @@ public class GenericEraseService {
 
     /**
      * 以規則引擎執行：從鏡像解密→校驗→回寫→寫 RESTORE 稽核→刪鏡像。
+     * 被 isERASE=1 安全柵欄擋下（目前不是塗銷狀態）的列沒有寫回，其鏡像是唯一的加密副本，因此保留不刪。
+     *
+     * @return 未寫回的主鍵（表名 → 主鍵清單）；全部寫回時為空 Map
      */
     @Transactional
-    public void restoreAllByAcaCardNo(RestoreCommand cmd) {
-        runRuleRestore(cmd); // 依規則：從鏡像解密→校驗→回寫
+    public Map<String, List<String>> restoreAllByAcaCardNo(RestoreCommand cmd) {
+        Map<String, List<String>> skipped = runRuleRestore(cmd); // 依規則：從鏡像解密→校驗→回寫
 
-        // 成功後寫一筆 RESTORE 稽核，並刪除該卡號的鏡像紀錄
+        // 成功後寫一筆 RESTORE 稽核，並刪除該卡號已寫回的鏡像紀錄
         auditRepo.insertRestoreAction(
                 cmd.getAcaCardNo(),
                 cmd.getRestoreReason(),
                 cmd.getOperatorUserId(),
                 cmd.getOperatorIp()
         );
-        auditRepo.deleteByAcaCardNo(cmd.getAcaCardNo());
+        if (skipped.isEmpty()) {
+            auditRepo.deleteByAcaCardNo(cmd.getAcaCardNo());
+        } else {
+            log.warn("[Restore] aca={}, 未寫回的鏡像保留不刪: {}", cmd.getAcaCardNo(),
+                    skipped.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue().size()).collect(Collectors.joining(", ")));
+            mirrorRepo.deleteByAcaCardNoExcept(cmd.getAcaCardNo(), skipped);
+        }
+        return skipped;
     }
 
-    private void runRuleRestore(RestoreCommand cmd) {
-        // 只處理 rule 有定義過的表（避免鏡像表裡有舊資料或非本規則表）
-        var allowedTables = tableConfig.stream()
-                .map(EraseTableConfigPojo::getTable)
-                .distinct()
-                .collect(Collectors.toList());
-
-        // 撈出該卡號、且目標表在 allowedTables 的所有鏡像資料
-        var mirrors = mirrorRepo.findAllByAcaCardNo(cmd.getAcaCardNo(), allowedTables, "dbo");
-        if (mirrors.isEmpty()) return;
-
-        // 依目標表分組 → 依規則順序逐表回寫
-        var byTable = mirrors.stream()
-                .collect(Collectors.groupingBy(EraseMirrorRepo.MirrorRow::getTargetTable));
-
+    private Map<String, List<String>> runRuleRestore(RestoreCommand cmd) {
+        var skipped = new LinkedHashMap<String, List<String>>();
+        // 只處理 rule 有定義過的表（避免鏡像表裡有舊資料或非本規則表）→ 依規則順序逐表、逐頁回寫
         for (var rule : tableConfig) {
-            var list = byTable.get(rule.getTable());
-            if (list == null || list.isEmpty()) continue;
-
-            var rows = new ArrayList<Map<String, Object>>();
-            for (var m : list) {
-                // 解密 +（可選）SHA 驗證
-                String json = decryptPayloadJson(m, true); // 解密＋SHA 校驗
-                logJson(false, true, m.getAcaCardNo(), m.getTargetTable(), m.getTargetId(), json); // [RULE][RESTORE]
-                rows.add(parsePayloadToMap(json)); // 還原用的 Map（含 __PK__）
-            }
-
-            // 只覆蓋白名單欄位，並套用 restoreExtraSet（如 isERASE=0, ModifiedByUserID=:uid）
-            executor.restoreRows(rule, rows, cmd.getOperatorUserId());
+            mirrorRepo.forEachPage(cmd.getAcaCardNo(), rule.getTable(), "dbo", mirrorBatchSize, page -> {
+                // 解密＋SHA 校驗＋解析（並行、順序不變）→ 還原用的 Map（含 __PK__）
+                List<Map<String, Object>> rows = codec.map(page, m -> {
+                    String json = decryptPayloadJson(m, true);
+                    logJson(false, true, m.getAcaCardNo(), m.getTargetTable(), m.getTargetId(), json); // [RULE][RESTORE]
+                    return parsePayloadToMap(json);
+                });
+
+                // 只覆蓋白名單欄位，並套用 restoreExtraSet（如 isERASE=0, ModifiedByUserID=:uid）
+                var result = executor.restoreRows(rule, rows, cmd.getOperatorUserId());
+                if (!result.getSkippedIds().isEmpty()) {
+                    skipped.computeIfAbsent(rule.getTable(), k -> new ArrayList<>()).addAll(result.getSkippedIds());
+                }
+            });
         }
+        return skipped;
     }
 
     // ====== Helpers ======
@@ -154,14 +168,11 @@ public class GenericEraseService {
      * 解密鏡像 payload，必要時進行 SHA-256 驗證。
      */
     private String decryptPayloadJson(EraseMirrorRepo.MirrorRow m, boolean verifySha) {
-        final String json = crypto.decryptToJson(m.getPayloadBase64(), m.getIvBase64());
-        if (verifySha) {
-            final String sha = AesGcmCrypto.sha256Hex(json);
-            if (!sha.equalsIgnoreCase(m.getSha256())) {
-                throw new IllegalStateException("Mirror payload 校驗失敗: " + m.getTargetId());
-            }
+        try {
+            return crypto.open(m.getPayloadBase64(), m.getIvBase64(), verifySha ? m.getSha256() : null);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("Mirror payload 校驗失敗: " + m.getTargetId(), e);
         }
-        return json;
     }
 
     /**
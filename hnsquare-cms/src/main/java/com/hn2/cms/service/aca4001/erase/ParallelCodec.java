@@ -0,0 +1,118 @@
+package com.hn2.cms.service.aca4001.erase;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 塗銷／還原的並行編解碼階段（JSON 打包 + AES-GCM + SHA-256 為純 CPU 運算）
+ * <p>
+ * 將一個規則的資料列切成連續區段分給固定大小的執行緒池，結果依原順序寫回同一陣列，
+ * 呼叫端拿到的清單順序與輸入一致；筆數低於門檻時直接在呼叫執行緒執行。
+ * 區段內不可存取資料庫（工作執行緒不在呼叫端交易內），任一區段失敗即取消其餘並拋出原例外。
+ */
+@Slf4j
+@Component
+public class ParallelCodec {
+
+    /** 執行緒數（0 = CPU 核心數） */
+    @Value("${erase.codec.workers:0}")
+    private int workers;
+
+    /** 低於此筆數不並行 */
+    @Value("${erase.codec.parallel-threshold:64}")
+    private int threshold;
+
+    private ThreadPoolExecutor executor;
+    private int size;
+
+    @PostConstruct
+    public void init() {
+        size = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "erase-codec-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        log.info("[ParallelCodec] workers={}, threshold={}", size, threshold);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 依序對每筆套用 fn，結果順序與輸入相同
+     *
+     * @param items 輸入
+     * @param fn    轉換（需執行緒安全、不可存取資料庫）
+     * @return 結果清單
+     */
+    public <T, R> List<R> map(List<T> items, Function<? super T, ? extends R> fn) {
+        int n = items.size();
+        if (n < Math.max(threshold, 2) || size <= 1) {
+            List<R> result = new ArrayList<>(n);
+            for (T item : items) {
+                result.add(fn.apply(item));
+            }
+            return result;
+        }
+
+        Object[] out = new Object[n];
+        int chunks = Math.min(size, n);
+        int chunkSize = (n + chunks - 1) / chunks;
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        for (int from = 0; from < n; from += chunkSize) {
+            int start = from;
+            int end = Math.min(from + chunkSize, n);
+            futures.add(executor.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    out[i] = fn.apply(items.get(i));
+                }
+            }));
+        }
+        await(futures);
+
+        @SuppressWarnings("unchecked")
+        List<R> result = (List<R>) Arrays.asList(out);
+        return result;
+    }
+
+    private static void await(List<Future<?>> futures) {
+        try {
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("編解碼已中斷", e);
+        }
+    }
+}
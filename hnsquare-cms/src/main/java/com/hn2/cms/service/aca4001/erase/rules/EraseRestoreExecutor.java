@@ -3,87 +3,109 @@ package com.hn2.cms.service.aca4001.erase.rules;
 import com.hn2.cms.service.aca4001.erase.support.RowUtils;
 import com.hn2.cms.service.aca4001.erase.support.SqlNorm;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * 規則驅動的「塗銷／還原」通用執行器。
- * - 依 EraseTableConfigPojo 的設定，讀取資料、組 UPDATE、執行。
+ * - 依 EraseTableConfigPojo 編譯好的 {@link EraseTablePlan}（SQL、參數名、型態轉換皆已備妥）讀取資料、綁值、執行。
  * - 支援：
  * 1) 以主鍵 ID 清單讀／改
  * 2) 以父鍵（可經 lookup 映射）讀／改子表
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class EraseRestoreExecutor {
 
+    /** 還原每次 executeBatch 的筆數 */
+    private static final int RESTORE_BATCH_SIZE = 500;
+
     private final org.sql2o.Sql2o sql2o;
+    private final EraseTablePlans plans;
+
+    /** 單次還原結果：寫回筆數與被 isERASE=1 安全柵欄擋下（0 筆異動）的主鍵 */
+    @lombok.Value
+    public static class RestoreResult {
+        int restored;
+        List<String> skippedIds;
+
+        static final RestoreResult EMPTY = new RestoreResult(0, List.of());
+    }
 
-    /* ========== 讀取資料（以主鍵 ID 清單） ========== */
-    public List<Map<String, Object>> loadRowsByIds(EraseTableConfigPojo r, List<String> ids) {
-        if (ids == null || ids.isEmpty()) return List.of();
+    /* ========== 分頁讀取（以主鍵 ID 清單）：每頁最多 pageSize 列，交給 sink 處理後即釋放 ========== */
+    public int forEachPageByIds(EraseTableConfigPojo r, List<String> ids, int pageSize, Consumer<List<Map<String, Object>>> sink) {
+        if (ids == null || ids.isEmpty()) return 0;
         // 主鍵 + 白名單欄位
-        String cols = buildSelectCols(r);
-        String sql = "SELECT " + cols + " FROM " + r.getSchema() + "." + r.getTable() + " WHERE " + r.getIdColumn() + " IN (:ids)";
-        var out = new ArrayList<Map<String, Object>>();
-        // 分批執行，避免 IN(...) 過長造成效能或語法限制
-        for (int i = 0; i < ids.size(); i += 1000) {
-            var sub = ids.subList(i, Math.min(i + 1000, ids.size()));
+        String sql = plans.of(r).getSqlLoadByIds();
+        int total = 0;
+        // 主鍵唯一：每批 pageSize 個 ID 最多 pageSize 列，同時避免 IN(...) 過長
+        for (int i = 0; i < ids.size(); i += pageSize) {
+            var sub = ids.subList(i, Math.min(i + pageSize, ids.size()));
+            List<Map<String, Object>> page;
             try (var con = sql2o.open()) {
                 var t = con.createQuery(sql).addParameter("ids", sub).executeAndFetchTable();
-                out.addAll(t.rows().stream().map(org.sql2o.data.Row::asMap).collect(Collectors.toList()));
+                page = t.rows().stream().map(org.sql2o.data.Row::asMap).collect(Collectors.toList());
+            }
+            if (!page.isEmpty()) {
+                total += page.size();
+                sink.accept(page);
             }
         }
-        return out;
+        return total;
     }
 
-    /* ========== 讀取資料（以父鍵清單；子表用） ========== */
-    public List<Map<String, Object>> loadRowsByParentIds(EraseTableConfigPojo r, List<String> parentIds) {
-        if (!r.isChild() || parentIds == null || parentIds.isEmpty()) return List.of();
+    /* ========== 分頁讀取（以父鍵清單；子表用）：依主鍵 keyset 分頁，單一父鍵下資料再多也只佔一頁記憶體 ========== */
+    public int forEachPageByParentIds(EraseTableConfigPojo r, List<String> parentIds, int pageSize, Consumer<List<Map<String, Object>>> sink) {
+        if (!r.isChild() || parentIds == null || parentIds.isEmpty()) return 0;
+        var plan = plans.of(r);
 
         // 先把 ACACardNo 轉成 FamCardNo（或其他對應）
-        List<String> keys = resolveParentKeys(r, parentIds);
-        if (keys.isEmpty()) return List.of();
-
-        String cols = buildSelectCols(r);
-        String sql = "SELECT " + cols + " FROM " + r.getSchema() + "." + r.getTable()
-                + " WHERE " + r.getParentFkColumn() + " IN (:pids)";
+        List<String> keys = resolveParentKeys(plan, parentIds);
+        if (keys.isEmpty()) return 0;
 
-        var out = new ArrayList<Map<String, Object>>();
+        int total = 0;
         for (int i = 0; i < keys.size(); i += 1000) {                      // ★ 用 keys 計數
             var sub = keys.subList(i, Math.min(i + 1000, keys.size()));     // ★ 切 keys
-            try (var con = sql2o.open()) {
-                var t = con.createQuery(sql)
-                        .addParameter("pids", sub)                        // ★ 綁 keys 的 sub
-                        .executeAndFetchTable();
-                out.addAll(t.rows().stream().map(org.sql2o.data.Row::asMap).collect(Collectors.toList()));
+            Object after = null;                                            // 上一頁最後一筆主鍵
+            while (true) {
+                List<Map<String, Object>> page;
+                try (var con = sql2o.open()) {
+                    var q = con.createQuery(after == null ? plan.getSqlPageByParent() : plan.getSqlPageByParentAfter())
+                            .addParameter("n", pageSize)
+                            .addParameter("pids", sub);                     // ★ 綁 keys 的 sub
+                    if (after != null) q.addParameter("after", after);
+                    page = q.executeAndFetchTable().rows().stream().map(org.sql2o.data.Row::asMap).collect(Collectors.toList());
+                }
+                if (page.isEmpty()) break;
+                total += page.size();
+                after = RowUtils.getCI(page.get(page.size() - 1), "__PK__");
+                sink.accept(page);
+                if (page.size() < pageSize || after == null) break;
             }
         }
-        return out;
+        return total;
     }
 
     /* ========== 父鍵映射（例如 ACACardNo -> FamCardNo） ========== */
-    private List<String> resolveParentKeys(EraseTableConfigPojo r, List<String> parentIds) {
+    private List<String> resolveParentKeys(EraseTablePlan plan, List<String> parentIds) {
         // 若規則沒設定 lookup（table/src/dst 任一為 null），直接回傳原父鍵
-        if (r.getParentIdLookupTable() == null || r.getParentIdLookupSrcColumn() == null || r.getParentIdLookupDstColumn() == null) {
+        if (plan.getSqlLookup() == null) {
             return parentIds;
         }
         if (parentIds == null || parentIds.isEmpty()) return List.of();
 
-        // SELECT DISTINCT [dst] AS v FROM schema.lookupTable WHERE [src] IN (:pids)
-        String sql = "SELECT DISTINCT [" + r.getParentIdLookupDstColumn() + "] AS v " +
-                "FROM " + r.getSchema() + "." + r.getParentIdLookupTable() +
-                " WHERE [" + r.getParentIdLookupSrcColumn() + "] IN (:pids)";
-
         var out = new ArrayList<String>();
 
         // 分批查出對應鍵值
         for (int i = 0; i < parentIds.size(); i += 1000) {
             var sub = parentIds.subList(i, Math.min(i + 1000, parentIds.size()));
             try (var con = sql2o.open()) {
-                var t = con.createQuery(sql).addParameter("pids", sub).executeAndFetchTable();
+                var t = con.createQuery(plan.getSqlLookup()).addParameter("pids", sub).executeAndFetchTable();
                 // 讀出別名 v 的值，去空白、過濾空字串
                 for (var row : t.rows()) {
                     var v = row.getObject("v");
@@ -98,136 +120,97 @@ public class EraseRestoreExecutor {
         return out.stream().distinct().collect(Collectors.toList());
     }
 
-    /* ========== 組 SELECT 欄位字串（主鍵必帶為 __PK__） ========== */
-    private String buildSelectCols(EraseTableConfigPojo r) {
-        return (r.getWhitelist() == null || r.getWhitelist().isEmpty())
-                ? r.getIdColumn() + " AS __PK__"
-                : r.getIdColumn() + " AS __PK__," + String.join(",", r.getWhitelist());
-    }
-
     /* ========== 清空（Erase）by 主鍵 ID ========== */
     public int eraseByIds(EraseTableConfigPojo r, List<String> ids) {
         if (ids == null || ids.isEmpty()) return 0;
         // 將白名單欄位清成 NULL，再覆蓋 eraseExtraSet
-        String setSql = buildEraseSetSql(r);
-        String sql = "UPDATE " + r.getSchema() + "." + r.getTable()
-                + " SET " + setSql + " WHERE " + r.getIdColumn() + " IN (:ids)";
         try (var con = sql2o.open()) {
-            return con.createQuery(sql).addParameter("ids", ids).executeUpdate().getResult();
+            return con.createQuery(plans.of(r).getSqlEraseByIds()).addParameter("ids", ids).executeUpdate().getResult();
         }
     }
 
     /* ========== 清空（Erase）by 父鍵（會先做映射） ========== */
     public int eraseByParent(EraseTableConfigPojo r, List<String> parentIds) {
         if (!r.isChild() || parentIds == null || parentIds.isEmpty()) return 0;
+        var plan = plans.of(r);
 
         // 先把父鍵映射成子表實際過濾鍵
-        List<String> keys = resolveParentKeys(r, parentIds);
+        List<String> keys = resolveParentKeys(plan, parentIds);
         if (keys.isEmpty()) return 0;
 
-        String setSql = buildEraseSetSql(r);
-        String sql = "UPDATE " + r.getSchema() + "." + r.getTable()
-                + " SET " + setSql + " WHERE " + r.getParentFkColumn() + " IN (:pids)";
         try (var con = sql2o.open()) {
-            return con.createQuery(sql).addParameter("pids", keys).executeUpdate().getResult();
+            return con.createQuery(plan.getSqlEraseByParent()).addParameter("pids", keys).executeUpdate().getResult();
         }
     }
 
-    /* ========== 產生 Erase 用的 SET 子句 ========== */
-    private String buildEraseSetSql(EraseTableConfigPojo r) {
-
-        var parts = new ArrayList<String>();
-        // 1) 白名單欄位預設 = NULL（若 eraseExtraSet 有覆蓋就不清）
-        for (String c : r.getWhitelist()) {
-            if (!r.getEraseExtraSet().containsKey(c)) {
-                parts.add("[" + c + "]=NULL");
-            }
-        }
-        // 2) 附加 eraseExtraSet（支援 ${NOW}、:param、字串、數值）
-        for (var e : r.getEraseExtraSet().entrySet()) {
-            parts.add("[" + e.getKey() + "]=" + renderSqlValue(e.getValue()));
+    /* ========== 還原（Restore）：同一規則共用一個 PreparedStatement，以 JDBC batch 寫回 ========== */
+    public RestoreResult restoreRows(EraseTableConfigPojo r, List<Map<String, Object>> rows, String operatorUserId) {
+        if (rows == null || rows.isEmpty()) return RestoreResult.EMPTY;
+        var plan = plans.of(r);
+        if (plan.getSqlRestore() == null) return RestoreResult.EMPTY; // 沒東西可寫回就略過
+
+        // 若 restoreExtraSet 用到 :uid，嘗試以 int 綁定，否則以字串
+        Object uid = null;
+        if (plan.isRestoreBindsUid()) {
+            Integer uidInt = SqlNorm.tryParseInt(operatorUserId);
+            uid = uidInt != null ? uidInt : operatorUserId;
         }
-        return String.join(", ", parts);
-    }
-
-    /* ========== 將宣告的值轉成 SQL 字面值/參數 ========== */
-    private String renderSqlValue(Object v) {
-        if (v == null) return "NULL";
-        if (v instanceof Number) return v.toString();
-        String s = v.toString();
-        if ("${NOW}".equals(s)) return "SYSDATETIME()";
-        if (s.startsWith(":")) return s;                 // 參數名，留給外層綁（:uid）
-        // 其餘當作 NVARCHAR 常值，做引號轉義避免 SQL 注入
-        return "N'" + s.replace("'", "''") + "'";
-    }
 
-    /* ========== 還原（Restore） ========== */
-    public int restoreRows(EraseTableConfigPojo r, List<Map<String, Object>> rows, String operatorUserId) {
-        if (rows == null || rows.isEmpty()) return 0;
         int total = 0;
+        var skipped = new ArrayList<String>();  // 被 isERASE=1 安全柵欄擋下（0 筆異動）的主鍵
+        try (var con = sql2o.open()) {
+            // 安全柵欄（isERASE=1）已寫在計畫的 UPDATE 內；此處只綁定白名單欄位（依計畫做型態正規化）
+            var q = con.createQuery(plan.getSqlRestore());
+            var batchIds = new ArrayList<String>(Math.min(rows.size(), RESTORE_BATCH_SIZE));
+            for (var row : rows) {
+                // 每列必須帶 __PK__（主鍵）
+                String id = RowUtils.toStringCI(row, "__PK__");
+                if (id == null || id.isBlank()) {
+                    throw new IllegalStateException("Restore: __PK__ 不可為空, table=" + r.getTable());
+                }
 
-        // 逐列更新（通常 rows 來自鏡像／備份資料）
-        for (var row : rows) {
-            // 每列必須帶 __PK__（主鍵）
-            String id = RowUtils.toStringCI(row, "__PK__");
-            if (id == null || id.isBlank()) {
-                throw new IllegalStateException("Restore: __PK__ 不可為空, table=" + r.getTable());
-            }
-
-            // 1) 依規則的 dateCols/intCols 對白名單欄位做型態正規化
-            var cleaned = new LinkedHashMap<String, Object>();
-            for (String c : r.getWhitelist()) {
-                // ModifiedByUserID 交給 restoreExtraSet 控制，避免衝突
-                if ("ModifiedByUserID".equalsIgnoreCase(c)) continue; // 讓 restoreExtraSet 控制
-                Object raw = RowUtils.getCI(row, c);
-                Object norm = SqlNorm.normalizeForColumn(c, raw, normSet(r.getDateCols()), normSet(r.getIntCols()));
-                cleaned.put(c, norm);
-            }
+                q.addParameter("id", id);
+                for (var c : plan.getRestoreColumns()) {
+                    q.addParameter(c.getParam(), c.coerce(RowUtils.getCI(row, c.getColumn())));
+                }
+                if (plan.isRestoreBindsUid()) {
+                    q.addParameter("uid", uid);
+                }
+                q.addToBatch();
+                batchIds.add(id);
 
-            // 2) 白名單欄位組成動態 SET（使用命名參數）
-            StringBuilder set = new StringBuilder();
-            int i = 0;
-            for (var e : cleaned.entrySet()) {
-                if (i++ > 0) set.append(", ");
-                set.append("[").append(e.getKey()).append("] = :").append(RowUtils.paramName(e.getKey()));
+                if (batchIds.size() >= RESTORE_BATCH_SIZE) {
+                    total += executeRestoreBatch(q, batchIds, skipped);
+                }
             }
-            // 3) 追加 restoreExtraSet（支援 :uid / ${NOW}）
-            for (var e : r.getRestoreExtraSet().entrySet()) {
-                if (set.length() > 0) set.append(", ");
-                String val = renderSqlValue(e.getValue());
-                set.append("[").append(e.getKey()).append("] = ").append(val);
+            if (!batchIds.isEmpty()) {
+                total += executeRestoreBatch(q, batchIds, skipped);
             }
+        }
 
-            if (set.length() == 0) continue; // 沒東西可寫回就略過
-
-            // 安全柵欄：只還原目前 isERASE=1 的列，避免覆蓋正常資料
-            String sql = "UPDATE " + r.getSchema() + "." + r.getTable()
-                    + " SET " + set + " WHERE " + r.getIdColumn() + "=:id AND ISNULL(isERASE,0)=1";
-            try (var con = sql2o.open()) {
-                var q = con.createQuery(sql).addParameter("id", id);
-                // 綁定白名單欄位的命名參數
-                for (var e : cleaned.entrySet()) {
-                    q.addParameter(RowUtils.paramName(e.getKey()), e.getValue());
-                }
-                // 若 restoreExtraSet 用到 :uid，嘗試以 int 綁定，否則以字串
-                if (r.getRestoreExtraSet().values().stream().anyMatch(v -> (v != null && v.toString().startsWith(":uid")))) {
-                    Integer uidInt = SqlNorm.tryParseInt(operatorUserId);
-                    q.addParameter("uid", uidInt != null ? uidInt : operatorUserId);
-                }
-                total += q.executeUpdate().getResult();
-            }
+        if (!skipped.isEmpty()) {
+            log.warn("[Restore] tbl={}, skipped={} (非 isERASE=1 或已不存在), ids={}", r.getTable(), skipped.size(),
+                    skipped.size() > 20 ? skipped.subList(0, 20) + "..." : skipped);
         }
-        return total;
+        log.info("[Restore] tbl={}, rows={}, restored={}, skipped={}", r.getTable(), rows.size(), total, skipped.size());
+        return new RestoreResult(total, Collections.unmodifiableList(skipped));
     }
 
-    /* ========== 欄位名集合正規化（大小寫一致化） ========== */
-    private Set<String> normSet(Set<String> s) {
-        if (s == null) return Set.of();
-        return s.stream().map(com.hn2.cms.service.aca4001.erase.support.RowUtils::normKey).collect(Collectors.toSet());
+    /* ========== 執行一批還原並比對各列異動筆數（0 筆 → 被安全柵欄擋下） ========== */
+    private int executeRestoreBatch(org.sql2o.Query q, List<String> batchIds, List<String> skipped) {
+        int[] counts = q.executeBatch().getBatchResult();
+        int total = 0;
+        for (int i = 0; i < counts.length && i < batchIds.size(); i++) {
+            if (counts[i] > 0) total += counts[i];
+            else if (counts[i] == 0) skipped.add(batchIds.get(i));
+            // Statement.SUCCESS_NO_INFO（-2）：驅動未回報筆數，不計入也不視為略過
+        }
+        batchIds.clear();
+        return total;
     }
 
     /*
-    loadRowsByIds() & loadRowsByParentIds() 回傳型別：List<Map<String,Object>>
+    forEachPageByIds() & forEachPageByParentIds() 每頁交給 sink 的型別：List<Map<String,Object>>
     範例（以 ProRec 為例）：
 
     [
@@ -0,0 +1,166 @@
+package com.hn2.cms.service.aca4001.erase.rules;
+
+import com.hn2.cms.service.aca4001.erase.support.RowUtils;
+import com.hn2.cms.service.aca4001.erase.support.SqlNorm;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * 單一 EraseTableConfigPojo 的執行計畫（不可變）。
+ * - 啟動時由 {@link EraseTablePlans} 編譯一次：SELECT 欄位、清空/還原的 SET 子句、lookup 語法、
+ * 參數名稱與各欄位的型態轉換（日期/整數/原樣）都先算好。
+ * - 執行時 EraseRestoreExecutor 只負責綁值，不再逐次組字串、跑正規表示式或重算 normSet。
+ */
+@Getter
+public final class EraseTablePlan {
+
+    /** 還原時單一白名單欄位：欄位名、命名參數名、型態轉換 */
+    @Getter
+    public static final class RestoreColumn {
+        private final String column;
+        private final String param;
+        private final UnaryOperator<Object> coercer;
+
+        RestoreColumn(String column, String param, UnaryOperator<Object> coercer) {
+            this.column = column;
+            this.param = param;
+            this.coercer = coercer;
+        }
+
+        public Object coerce(Object raw) {
+            return coercer.apply(raw);
+        }
+    }
+
+    private final EraseTableConfigPojo rule;
+    private final String qualifiedTable;        // schema.table
+
+    private final String sqlLoadByIds;          // ... WHERE id IN (:ids)
+    private final String sqlPageByParent;       // TOP (:n) ... WHERE fk IN (:pids) ORDER BY id
+    private final String sqlPageByParentAfter;  // TOP (:n) ... WHERE fk IN (:pids) AND id > :after ORDER BY id
+    private final String sqlLookup;             // 父鍵映射；未設定 lookup 時為 null
+
+    private final String sqlEraseByIds;
+    private final String sqlEraseByParent;      // 非子表時為 null
+
+    private final List<RestoreColumn> restoreColumns;
+    private final String sqlRestore;            // 沒有可寫回欄位時為 null
+    private final boolean restoreBindsUid;      // restoreExtraSet 是否用到 :uid
+
+    private EraseTablePlan(EraseTableConfigPojo r) {
+        this.rule = r;
+        this.qualifiedTable = r.getSchema() + "." + r.getTable();
+
+        // 主鍵 + 白名單欄位（主鍵必帶為 __PK__）
+        String cols = (r.getWhitelist() == null || r.getWhitelist().isEmpty())
+                ? r.getIdColumn() + " AS __PK__"
+                : r.getIdColumn() + " AS __PK__," + String.join(",", r.getWhitelist());
+        this.sqlLoadByIds = "SELECT " + cols + " FROM " + qualifiedTable + " WHERE " + r.getIdColumn() + " IN (:ids)";
+
+        if (r.isChild()) {
+            String base = "SELECT TOP (:n) " + cols + " FROM " + qualifiedTable
+                    + " WHERE " + r.getParentFkColumn() + " IN (:pids)";
+            String order = " ORDER BY " + r.getIdColumn();
+            this.sqlPageByParent = base + order;
+            this.sqlPageByParentAfter = base + " AND " + r.getIdColumn() + " > :after" + order;
+        } else {
+            this.sqlPageByParent = null;
+            this.sqlPageByParentAfter = null;
+        }
+
+        // SELECT DISTINCT [dst] AS v FROM schema.lookupTable WHERE [src] IN (:pids)
+        this.sqlLookup = hasLookup(r)
+                ? "SELECT DISTINCT [" + r.getParentIdLookupDstColumn() + "] AS v " +
+                "FROM " + r.getSchema() + "." + r.getParentIdLookupTable() +
+                " WHERE [" + r.getParentIdLookupSrcColumn() + "] IN (:pids)"
+                : null;
+
+        String eraseSet = buildEraseSetSql(r);
+        this.sqlEraseByIds = "UPDATE " + qualifiedTable + " SET " + eraseSet + " WHERE " + r.getIdColumn() + " IN (:ids)";
+        this.sqlEraseByParent = r.isChild()
+                ? "UPDATE " + qualifiedTable + " SET " + eraseSet + " WHERE " + r.getParentFkColumn() + " IN (:pids)"
+                : null;
+
+        // 還原：白名單欄位（ModifiedByUserID 交給 restoreExtraSet 控制）→ 命名參數與型態轉換
+        Set<String> dateNorm = normSet(r.getDateCols());
+        Set<String> intNorm = normSet(r.getIntCols());
+        var columns = new ArrayList<RestoreColumn>();
+        StringBuilder set = new StringBuilder();
+        for (String c : r.getWhitelist()) {
+            if ("ModifiedByUserID".equalsIgnoreCase(c)) continue;
+            String key = RowUtils.normKey(c);
+            UnaryOperator<Object> coercer = dateNorm.contains(key) ? SqlNorm::toTimestamp
+                    : intNorm.contains(key) ? SqlNorm::toInt
+                    : UnaryOperator.identity();
+            var col = new RestoreColumn(c, RowUtils.paramName(c), coercer);
+            if (set.length() > 0) set.append(", ");
+            set.append("[").append(col.getColumn()).append("] = :").append(col.getParam());
+            columns.add(col);
+        }
+        // 追加 restoreExtraSet（支援 :uid / ${NOW}）
+        for (var e : r.getRestoreExtraSet().entrySet()) {
+            if (set.length() > 0) set.append(", ");
+            set.append("[").append(e.getKey()).append("] = ").append(renderSqlValue(e.getValue()));
+        }
+        this.restoreColumns = Collections.unmodifiableList(columns);
+        // 安全柵欄：只還原目前 isERASE=1 的列，避免覆蓋正常資料
+        this.sqlRestore = set.length() == 0 ? null
+                : "UPDATE " + qualifiedTable + " SET " + set + " WHERE " + r.getIdColumn() + "=:id AND ISNULL(isERASE,0)=1";
+        this.restoreBindsUid = r.getRestoreExtraSet().values().stream()
+                .anyMatch(v -> v != null && v.toString().startsWith(":uid"));
+    }
+
+    /**
+     * 編譯規則為執行計畫
+     *
+     * @param r 規則
+     * @return 執行計畫
+     */
+    public static EraseTablePlan compile(EraseTableConfigPojo r) {
+        return new EraseTablePlan(r);
+    }
+
+    /** 是否設定父鍵映射（lookup table/src/dst 皆有值） */
+    static boolean hasLookup(EraseTableConfigPojo r) {
+        return r.getParentIdLookupTable() != null && r.getParentIdLookupSrcColumn() != null && r.getParentIdLookupDstColumn() != null;
+    }
+
+    /* ========== 產生 Erase 用的 SET 子句 ========== */
+    private static String buildEraseSetSql(EraseTableConfigPojo r) {
+        var parts = new ArrayList<String>();
+        // 1) 白名單欄位預設 = NULL（若 eraseExtraSet 有覆蓋就不清）
+        for (String c : r.getWhitelist()) {
+            if (!r.getEraseExtraSet().containsKey(c)) {
+                parts.add("[" + c + "]=NULL");
+            }
+        }
+        // 2) 附加 eraseExtraSet（支援 ${NOW}、:param、字串、數值）
+        for (var e : r.getEraseExtraSet().entrySet()) {
+            parts.add("[" + e.getKey() + "]=" + renderSqlValue(e.getValue()));
+        }
+        return String.join(", ", parts);
+    }
+
+    /* ========== 將宣告的值轉成 SQL 字面值/參數 ========== */
+    private static String renderSqlValue(Object v) {
+        if (v == null) return "NULL";
+        if (v instanceof Number) return v.toString();
+        String s = v.toString();
+        if ("${NOW}".equals(s)) return "SYSDATETIME()";
+        if (s.startsWith(":")) return s;                 // 參數名，留給外層綁（:uid）
+        // 其餘當作 NVARCHAR 常值，做引號轉義避免 SQL 注入
+        return "N'" + s.replace("'", "''") + "'";
+    }
+
+    /* ========== 欄位名集合正規化（大小寫一致化） ========== */
+    private static Set<String> normSet(Set<String> s) {
+        if (s == null) return Set.of();
+        return s.stream().map(RowUtils::normKey).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,127 @@
+package com.hn2.cms.service.aca4001.erase.rules;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 塗銷規則執行計畫庫。
+ * - 啟動時把每個 EraseTableConfigPojo Bean 編譯成 {@link EraseTablePlan}（之後以規則物件本身查表）。
+ * - erase.plan.validate=true（預設）時，以 INFORMATION_SCHEMA.COLUMNS 檢核表名、主鍵、父鍵、lookup、
+ * 白名單與 extraSet 欄位是否存在；有缺漏即啟動失敗，避免到塗銷當下才 SQL 錯誤。
+ * 讀不到資料庫中繼資料（例如啟動時 DB 尚未可用）只記 warn，不阻擋啟動。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EraseTablePlans {
+
+    private final org.sql2o.Sql2o sql2o;
+    private final List<EraseTableConfigPojo> tableConfig;
+
+    @Value("${erase.plan.validate:true}")
+    private boolean validate;
+
+    private final Map<EraseTableConfigPojo, EraseTablePlan> plans = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    @PostConstruct
+    public void init() {
+        for (var rule : tableConfig) {
+            plans.put(rule, EraseTablePlan.compile(rule));
+        }
+        log.info("[ErasePlan] compiled {} rules", plans.size());
+        if (validate) {
+            validate();
+        }
+    }
+
+    /**
+     * 取得規則的執行計畫（非啟動時註冊的規則於第一次使用時編譯，不做中繼資料檢核）
+     *
+     * @param rule 規則
+     * @return 執行計畫
+     */
+    public EraseTablePlan of(EraseTableConfigPojo rule) {
+        return plans.computeIfAbsent(rule, EraseTablePlan::compile);
+    }
+
+    /* ========== 以資料庫中繼資料檢核欄位 ========== */
+    private void validate() {
+        var tables = new LinkedHashSet<String>();
+        for (var rule : tableConfig) {
+            tables.add(rule.getTable());
+            if (EraseTablePlan.hasLookup(rule)) tables.add(rule.getParentIdLookupTable());
+        }
+        if (tables.isEmpty()) return;
+
+        Map<String, Set<String>> columns = new HashMap<>();   // SCHEMA.TABLE → COLUMN（皆大寫，同 DB 定序不分大小寫）
+        try (var con = sql2o.open()) {
+            var t = con.createQuery("SELECT TABLE_SCHEMA AS s, TABLE_NAME AS t, COLUMN_NAME AS c " +
+                            "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME IN (:tbls)")
+                    .addParameter("tbls", new ArrayList<>(tables))
+                    .executeAndFetchTable();
+            for (var row : t.rows()) {
+                columns.computeIfAbsent(key(row.getString("s"), row.getString("t")), k -> new HashSet<>())
+                        .add(row.getString("c").toUpperCase(Locale.ROOT));
+            }
+        } catch (RuntimeException e) {
+            log.warn("[ErasePlan] 無法讀取資料庫中繼資料，略過規則欄位檢核: {}", e.getMessage());
+            return;
+        }
+
+        var problems = new ArrayList<String>();
+        for (var rule : tableConfig) {
+            String name = rule.getSchema() + "." + rule.getTable();
+            Set<String> cols = columns.get(key(rule.getSchema(), rule.getTable()));
+            if (cols == null) {
+                problems.add(name + "：資料表不存在");
+                continue;
+            }
+            check(problems, name, cols, "idColumn", List.of(rule.getIdColumn()));
+            if (rule.isChild()) check(problems, name, cols, "parentFkColumn", List.of(rule.getParentFkColumn()));
+            check(problems, name, cols, "whitelist", rule.getWhitelist());
+            check(problems, name, cols, "eraseExtraSet", rule.getEraseExtraSet().keySet());
+            check(problems, name, cols, "restoreExtraSet", rule.getRestoreExtraSet().keySet());
+
+            if (EraseTablePlan.hasLookup(rule)) {
+                String lookup = rule.getSchema() + "." + rule.getParentIdLookupTable();
+                Set<String> lookupCols = columns.get(key(rule.getSchema(), rule.getParentIdLookupTable()));
+                if (lookupCols == null) {
+                    problems.add(name + "：lookup 資料表不存在 " + lookup);
+                } else {
+                    check(problems, lookup, lookupCols, "lookup(" + rule.getTable() + ")",
+                            List.of(rule.getParentIdLookupSrcColumn(), rule.getParentIdLookupDstColumn()));
+                }
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("塗銷規則欄位與資料庫不符：\n  " + String.join("\n  ", problems));
+        }
+        log.info("[ErasePlan] validated {} rules against schema metadata", tableConfig.size());
+    }
+
+    private static void check(List<String> problems, String table, Set<String> cols, String what, Iterable<String> names) {
+        for (String c : names) {
+            if (c == null || !cols.contains(c.toUpperCase(Locale.ROOT))) {
+                problems.add(table + "：" + what + " 欄位不存在 " + c);
+            }
+        }
+    }
+
+    private static String key(String schema, String table) {
+        return (schema == null ? "dbo" : schema).toUpperCase(Locale.ROOT) + "." + table.toUpperCase(Locale.ROOT);
+    }
+}
@@ -21,7 +21,7 @@ public class ACABrdConfig {
         r.setIdColumn("ID");
 
         // ACABrd 的需求是「用 ACACardNo 來批次處理 ACABrd 自己」，而非用 ACABrd.ID。因此必須把 ACABrd 這個規則「包裝成子規則」：
-        // EraseRestoreExecutor 才會走到 eraseByParent(...) 與 loadRowsByParentIds(...) 這條路。
+        // EraseRestoreExecutor 才會走到 eraseByParent(...) 與 forEachPageByParentIds(...) 這條路。
         r.setParentTable("ACABrd");
         r.setParentFkColumn("ACACardNo");
 
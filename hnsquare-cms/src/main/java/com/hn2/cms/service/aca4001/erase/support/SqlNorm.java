@@ -48,55 +48,69 @@ public final class SqlNorm {
         String key = RowUtils.normKey(col);
 
         // -------- 日期欄位正規化 --------
-        if (dateColsNorm.contains(key)) {
-            // 已是 JDBC 友善型別
-            if (val instanceof java.sql.Timestamp) return val;
-            if (val instanceof java.util.Date) return new java.sql.Timestamp(((java.util.Date) val).getTime());
+        if (dateColsNorm.contains(key)) return toTimestamp(val);
 
-            // 其餘 → 轉字串處理
-            String s = val.toString().trim();
-            if (s.isEmpty()) return null; // 空字串視為 NULL
+        // -------- 整數欄位正規化 --------
+        if (intColsNorm.contains(key)) return toInt(val);
 
-            // 1) 優先試有時區資訊的格式
-            try {
-                var odt = java.time.OffsetDateTime.parse(s);
-                return java.sql.Timestamp.from(odt.toInstant());
-            } catch (Exception ignore) {
-            }
+        // 其他欄位：不變動
+        return val;
+    }
 
-            // 2) 寬鬆處理 ISO-like：去掉 'T'、時區偏移(+08:00)/Z、小數秒等
-            try {
-                var zdt = java.time.ZonedDateTime.parse(s);
-                return java.sql.Timestamp.from(zdt.toInstant());
-            } catch (Exception ignore) {
-            }
-            s = s.replace('T', ' ');
-            int plus = Math.max(s.indexOf('+'), s.indexOf('-'));
-            if (plus > 10) s = s.substring(0, plus);
-            int z = s.indexOf('Z');
-            if (z > 0) s = s.substring(0, z);
-            int dot = s.indexOf('.');
-            if (dot > 0) s = s.substring(0, dot);
-            if (s.length() == 10) s += " 00:00:00";
-            String ts = s.substring(0, Math.min(19, s.length()));
-            try {
-                return java.sql.Timestamp.valueOf(ts);
-            } catch (IllegalArgumentException ex) {
-                return val.toString();
-            }
+    /**
+     * 日期欄位正規化（規則同 {@link #normalizeForColumn} 的日期部分）：
+     * Timestamp / Date / 各種 ISO-like 字串 → java.sql.Timestamp；空字串 → null；解析失敗回原字串。
+     */
+    public static Object toTimestamp(Object val) {
+        if (val == null) return null;
+        // 已是 JDBC 友善型別
+        if (val instanceof java.sql.Timestamp) return val;
+        if (val instanceof java.util.Date) return new java.sql.Timestamp(((java.util.Date) val).getTime());
+
+        // 其餘 → 轉字串處理
+        String s = val.toString().trim();
+        if (s.isEmpty()) return null; // 空字串視為 NULL
+
+        // 1) 優先試有時區資訊的格式
+        try {
+            var odt = java.time.OffsetDateTime.parse(s);
+            return java.sql.Timestamp.from(odt.toInstant());
+        } catch (Exception ignore) {
         }
 
-        // -------- 整數欄位正規化 --------
-        if (intColsNorm.contains(key)) {
-            if (val instanceof Number) return ((Number) val).intValue();
-            try {
-                return Integer.parseInt(val.toString().trim());
-            } catch (Exception ex) {
-                return val.toString();
-            }
+        // 2) 寬鬆處理 ISO-like：去掉 'T'、時區偏移(+08:00)/Z、小數秒等
+        try {
+            var zdt = java.time.ZonedDateTime.parse(s);
+            return java.sql.Timestamp.from(zdt.toInstant());
+        } catch (Exception ignore) {
+        }
+        s = s.replace('T', ' ');
+        int plus = Math.max(s.indexOf('+'), s.indexOf('-'));
+        if (plus > 10) s = s.substring(0, plus);
+        int z = s.indexOf('Z');
+        if (z > 0) s = s.substring(0, z);
+        int dot = s.indexOf('.');
+        if (dot > 0) s = s.substring(0, dot);
+        if (s.length() == 10) s += " 00:00:00";
+        String ts = s.substring(0, Math.min(19, s.length()));
+        try {
+            return java.sql.Timestamp.valueOf(ts);
+        } catch (IllegalArgumentException ex) {
+            return val.toString();
+        }
+    }
+
+    /**
+     * 整數欄位正規化（規則同 {@link #normalizeForColumn} 的整數部分）：Number → intValue；字串 → parseInt；失敗回原字串。
+     */
+    public static Object toInt(Object val) {
+        if (val == null) return null;
+        if (val instanceof Number) return ((Number) val).intValue();
+        try {
+            return Integer.parseInt(val.toString().trim());
+        } catch (Exception ex) {
+            return val.toString();
         }
-        // 其他欄位：不變動
-        return val;
     }
 
     /**
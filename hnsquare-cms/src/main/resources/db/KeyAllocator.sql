@@ -0,0 +1,14 @@
+-- 流水號區段配發計數表（KeyBlockRepository）
+-- 每個 (Name, Prefix) 一列，NextValue 為下一個未配發的流水號；第一次配發時由程式以既有資料最大流水號 + 1 建立計數列。
+-- 部署前由 DBA 執行（可重複執行）；應用程式帳號只需 SELECT / INSERT / UPDATE 權限。
+IF OBJECT_ID(N'dbo.KeyAllocator', N'U') IS NULL
+BEGIN
+    CREATE TABLE dbo.KeyAllocator (
+        Name           NVARCHAR(50) NOT NULL,
+        Prefix         NVARCHAR(20) NOT NULL,
+        NextValue      INT          NOT NULL,
+        ModifiedOnDate DATETIME     NOT NULL CONSTRAINT DF_KeyAllocator_ModifiedOnDate DEFAULT GETDATE(),
+        CONSTRAINT PK_KeyAllocator PRIMARY KEY (Name, Prefix)
+    );
+END
+GO
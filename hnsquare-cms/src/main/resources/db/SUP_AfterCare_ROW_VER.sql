@@ -0,0 +1,15 @@
+-- 更生人姓名索引（SupAfterCareNameIndex）增量更新用的異動水位
+-- SUP_AfterCare 由外部介接寫入，CR_DATE_TIME / UP_DATE_TIME 只有日期且可能補登舊日期或為 NULL，不能作為水位；
+-- 改以 rowversion 判斷異動：任何 INSERT / UPDATE 都會由資料庫自動遞增，不需介接端配合。
+-- 部署前由 DBA 執行（可重複執行）；新增 rowversion 欄位會改寫整張表，請於離峰時段執行。
+-- 未執行前姓名查詢一律走 like，功能不受影響。
+IF COL_LENGTH(N'dbo.SUP_AfterCare', N'ROW_VER') IS NULL
+BEGIN
+    ALTER TABLE dbo.SUP_AfterCare ADD ROW_VER ROWVERSION;
+END
+GO
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE object_id = OBJECT_ID(N'dbo.SUP_AfterCare') AND name = N'IX_SUP_AfterCare_ROW_VER')
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_SUP_AfterCare_ROW_VER ON dbo.SUP_AfterCare (ROW_VER);
+END
+GO
@@ -0,0 +1,69 @@
+package com.hn2.cms.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class KeyBlockRepositoryTest {
+    private static final String SEED_SQL = "SELECT MAX(...) FROM dbo.ACABrd WHERE ID LIKE ?";
+
+    private JdbcTemplate jdbcTemplate;
+    private KeyBlockRepository repository;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repository = new KeyBlockRepository(jdbcTemplate);
+    }
+
+    @Test
+    public void testReserveExistingCounter() {
+        // Arrange：計數列已存在，UPDATE ... OUTPUT 回傳推進前的值
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(), any(), any())).thenReturn(List.of(121));
+
+        // action
+        int start = repository.reserve("ACABrd.ID", "A202601", 20, SEED_SQL);
+
+        // assert
+        assertEquals(121, start);
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Integer.class), any(), any());
+    }
+
+    @Test
+    public void testReserveSeedsFromExistingMax() {
+        // Arrange：第一次使用此前綴，既有資料最大流水號為 41
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(), any(), any())).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(SEED_SQL, Integer.class, "A202601", "A202601%")).thenReturn(41);
+
+        // action
+        int start = repository.reserve("ACABrd.ID", "A202601", 20, SEED_SQL);
+
+        // assert：區段由 42 起，計數列記錄下一段起點 62
+        assertEquals(42, start);
+        verify(jdbcTemplate).update(anyString(), eq("ACABrd.ID"), eq("A202601"), eq(62));
+    }
+
+    @Test
+    public void testReserveSeedsEmptyPrefixFromOne() {
+        // Arrange：此前綴尚無任何資料
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(), any(), any())).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(SEED_SQL, Integer.class, "B25", "B25%")).thenReturn(null);
+
+        // action
+        int start = repository.reserve("ACABrd.ACACardNo", "B25", 20, SEED_SQL);
+
+        // assert
+        assertEquals(1, start);
+        verify(jdbcTemplate).update(anyString(), eq("ACABrd.ACACardNo"), eq("B25"), eq(21));
+    }
+}
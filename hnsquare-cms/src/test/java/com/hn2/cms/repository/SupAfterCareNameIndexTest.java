@@ -0,0 +1,210 @@
+package com.hn2.cms.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hn2.util.Sql2oHelper;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SupAfterCareNameIndexTest {
+    private SupAfterCareNameIndex.State state;
+
+    @BeforeEach
+    public void setup() {
+        state = new SupAfterCareNameIndex.State();
+        state.put("S1", "王小明");
+        state.put("S2", "陳小華");
+        state.put("S3", "王大明");
+        state.put("S4", "Lee Ann");
+        state.put("S5", null);
+    }
+
+    @Test
+    public void testFindSingleCharacter() {
+        assertEquals(List.of("S1", "S2"), state.find("小", 100));
+    }
+
+    @Test
+    public void testFindBigramAndLonger() {
+        assertEquals(List.of("S1", "S3"), state.find("明", 100));
+        assertEquals(List.of("S1"), state.find("小明", 100));
+        assertEquals(List.of("S1"), state.find("王小明", 100));
+    }
+
+    @Test
+    public void testFindRequiresContiguousMatch() {
+        // 「王明」的單字都在，但不是連續出現，like '%王明%' 不會命中
+        assertEquals(List.of(), state.find("王明", 100));
+    }
+
+    @Test
+    public void testFindMissingGramReturnsEmpty() {
+        assertEquals(List.of(), state.find("林", 100));
+    }
+
+    @Test
+    public void testFindIgnoresCaseButKeepsWhitespace() {
+        assertEquals(List.of("S4"), state.find(SupAfterCareNameIndex.normalize("LEE"), 100));
+        assertEquals(List.of("S4"), state.find(SupAfterCareNameIndex.normalize("e A"), 100));
+        // 與 like 相同，不去除空白
+        assertEquals(List.of(), state.find(SupAfterCareNameIndex.normalize("leeann"), 100));
+        assertEquals(List.of(), state.find(SupAfterCareNameIndex.normalize(" 王小明"), 100));
+    }
+
+    @Test
+    public void testFindReturnsNullWhenOverLimit() {
+        assertNull(state.find("小", 1));
+        assertEquals(List.of("S1"), state.find("小明", 1));
+    }
+
+    @Test
+    public void testPutRenameReplacesMatch() {
+        state.put("S1", "林小美");
+        // 索引 key 不分大小寫，同一列不會重複
+        state.put("s2", "陳小華");
+
+        assertEquals(List.of("S3"), state.find("明", 100));
+        assertEquals(List.of("S1"), state.find("小美", 100));
+        assertEquals(List.of("S1", "S2"), state.find("小", 100));
+    }
+
+    @Test
+    public void testAppendFilterNarrowsWithIndex() {
+        SupAfterCareNameIndex index = index(state, mockHelper());
+        StringBuilder condition = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+
+        index.appendFilter("小明", condition, params);
+
+        assertEquals("AND SAC.NAM_CNAME like :namName AND SAC.ID IN (:nameIds) ", condition.toString());
+        assertEquals("%小明%", params.get("namName"));
+        assertEquals(List.of("S1"), params.get("nameIds"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAppendFilterCatchesUpBeforeSearch() {
+        // Arrange：水位 100 以後新增 S6、S3 改名
+        Sql2oHelper sql2oHelper = mockHelper(row("S6", "小明"), row("S3", "王小明"));
+        SupAfterCareNameIndex index = index(state, sql2oHelper);
+        StringBuilder condition = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+
+        // action
+        index.appendFilter("小明", condition, params);
+
+        // assert
+        assertEquals(List.of("S1", "S3", "S6"), params.get("nameIds"));
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(sql2oHelper).queryForEach(contains("SAC.ROW_VER >= "), captor.capture(),
+                eq(SupAfterCareNameIndex.NameRow.class), any(Consumer.class));
+        assertEquals(100L, captor.getValue().get("since"));
+        assertEquals(200L, (long) ReflectionTestUtils.getField(state, "watermark"));
+    }
+
+    @Test
+    public void testAppendFilterWithoutHitsMatchesNothing() {
+        SupAfterCareNameIndex index = index(state, mockHelper());
+        StringBuilder condition = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+
+        index.appendFilter("林", condition, params);
+
+        assertEquals("AND SAC.NAM_CNAME like :namName AND 1 = 0 ", condition.toString());
+        assertFalse(params.containsKey("nameIds"));
+    }
+
+    @Test
+    public void testAppendFilterFallsBackToLike() {
+        // 含萬用字元、候選過多、索引未載入、補讀失敗（例如尚未建立 ROW_VER 欄位）：只保留 like
+        assertLikeOnly(index(state, mockHelper()), "王%明");
+        assertLikeOnly(index(state, mockHelper()), "王_明");
+        SupAfterCareNameIndex limited = index(state, mockHelper());
+        ReflectionTestUtils.setField(limited, "maxIds", 1);
+        assertLikeOnly(limited, "小");
+        assertLikeOnly(index(null, mockHelper()), "小明");
+        Sql2oHelper failing = mock(Sql2oHelper.class);
+        when(failing.executeScalar(anyString())).thenThrow(new RuntimeException("Invalid column name 'ROW_VER'"));
+        assertLikeOnly(index(state, failing), "小明");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRefreshBuildsIndex() {
+        Sql2oHelper sql2oHelper = mockHelper(row("S1", "王小明"), row("S2", "陳小華"));
+        SupAfterCareNameIndex index = new SupAfterCareNameIndex();
+        ReflectionTestUtils.setField(index, "sql2oHelper", sql2oHelper);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "maxIds", 1000);
+        ReflectionTestUtils.setField(index, "rebuildHours", 6L);
+
+        assertNull(index.findIds("小"));
+        index.refresh();
+
+        assertEquals(List.of("S1", "S2"), index.findIds("小"));
+        assertEquals(List.of("S2"), index.findIds("小華"));
+        verify(sql2oHelper).queryForEach(eq("SELECT SAC.ID itemId, SAC.NAM_CNAME namName FROM SUP_AfterCare SAC "), isNull(),
+                eq(SupAfterCareNameIndex.NameRow.class), any(Consumer.class));
+    }
+
+    private static void assertLikeOnly(SupAfterCareNameIndex index, String keyword) {
+        StringBuilder condition = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+
+        index.appendFilter(keyword, condition, params);
+
+        assertEquals("AND SAC.NAM_CNAME like :namName ", condition.toString());
+        assertEquals("%" + keyword + "%", params.get("namName"));
+        assertEquals(1, params.size());
+    }
+
+    /** 水位固定回傳 200；讀取（全量或補讀）皆回傳 changed */
+    @SuppressWarnings("unchecked")
+    private static Sql2oHelper mockHelper(SupAfterCareNameIndex.NameRow... changed) {
+        Sql2oHelper sql2oHelper = mock(Sql2oHelper.class);
+        when(sql2oHelper.executeScalar(anyString())).thenReturn(200L);
+        doAnswer(invocation -> {
+            Consumer<SupAfterCareNameIndex.NameRow> consumer = invocation.getArgument(3);
+            for (SupAfterCareNameIndex.NameRow row : changed) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(sql2oHelper).queryForEach(anyString(), any(), eq(SupAfterCareNameIndex.NameRow.class), any(Consumer.class));
+        return sql2oHelper;
+    }
+
+    private static SupAfterCareNameIndex index(SupAfterCareNameIndex.State state, Sql2oHelper sql2oHelper) {
+        if (state != null) {
+            ReflectionTestUtils.setField(state, "watermark", 100L);
+        }
+        SupAfterCareNameIndex index = new SupAfterCareNameIndex();
+        ReflectionTestUtils.setField(index, "state", state);
+        ReflectionTestUtils.setField(index, "sql2oHelper", sql2oHelper);
+        ReflectionTestUtils.setField(index, "maxIds", 1000);
+        return index;
+    }
+
+    private static SupAfterCareNameIndex.NameRow row(String id, String name) {
+        SupAfterCareNameIndex.NameRow row = new SupAfterCareNameIndex.NameRow();
+        row.setItemId(id);
+        row.setNamName(name);
+        return row;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hn2.cms.repository.aca3001;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hn2.cms.repository.aca3001.AdoptCriteriaSync.Change;
+import com.hn2.cms.repository.aca3001.AdoptCriteriaSync.CurrentRow;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AdoptCriteriaSyncTest {
+    private Map<Integer, CurrentRow> current;
+    private Map<Integer, String> active;
+
+    @BeforeEach
+    public void setup() {
+        // 目前紀錄：1 勾選、2 未勾選、9 已停用（不在現行選項中）
+        current = new LinkedHashMap<>();
+        current.put(1, new CurrentRow("就業", true));
+        current.put(2, new CurrentRow("就學", false));
+        current.put(9, new CurrentRow("舊選項", true));
+
+        // 現行選項：2 文字已改、3 新增
+        active = new LinkedHashMap<>();
+        active.put(1, "就業");
+        active.put(2, "就學輔導");
+        active.put(3, "安置");
+    }
+
+    @Test
+    public void testDiffRefresh() {
+        // action
+        List<Change> changes = AdoptCriteriaSync.diffRefresh(current, Set.of(2, 3), active);
+
+        // assert：停用項目刪除；現行選項依本次勾選，文字一律更新為 Lists.Text
+        assertEquals(List.of(
+                new Change(9, null, false, true),
+                new Change(1, "就業", false, false),
+                new Change(2, "就學輔導", true, false),
+                new Change(3, "安置", true, false)), changes);
+    }
+
+    @Test
+    public void testDiffRefreshUnchanged() {
+        // Arrange
+        current.remove(9);
+        current.put(2, new CurrentRow("就學輔導", false));
+        current.put(3, new CurrentRow("安置", false));
+
+        // assert
+        assertTrue(AdoptCriteriaSync.diffRefresh(current, Set.of(1), active).isEmpty());
+    }
+
+    @Test
+    public void testDiffKeep() {
+        // action
+        List<Change> changes = AdoptCriteriaSync.diffKeep(current, Set.of(2, 3, 4), active, false);
+
+        // assert：既有紀錄（含停用項目）只更新勾選狀態、保留文字快照；新勾選且有效者新增，無效者（4）略過
+        assertEquals(List.of(
+                new Change(1, null, false, false),
+                new Change(2, null, true, false),
+                new Change(9, null, false, false),
+                new Change(3, "安置", true, false)), changes);
+    }
+
+    @Test
+    public void testDiffKeepNewFillsUnselected() {
+        // action
+        List<Change> changes = AdoptCriteriaSync.diffKeep(new LinkedHashMap<>(), Set.of(2), active, true);
+
+        // assert：新增時補齊其餘現行選項為未勾選
+        assertEquals(List.of(
+                new Change(2, "就學輔導", true, false),
+                new Change(1, "就業", false, false),
+                new Change(3, "安置", false, false)), changes);
+    }
+
+    @Test
+    public void testChangeJsonMatchesOpenJsonPaths() throws Exception {
+        // assert：欄位名稱需對應 SQL_MERGE 的 OPENJSON WITH 路徑
+        assertEquals("{\"entryId\":3,\"text\":\"安置\",\"selected\":true,\"removed\":false}",
+                new ObjectMapper().writeValueAsString(new Change(3, "安置", true, false)));
+    }
+}
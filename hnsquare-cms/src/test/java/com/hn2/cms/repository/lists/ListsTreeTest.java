@@ -0,0 +1,110 @@
+package com.hn2.cms.repository.lists;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ListsTreeTest {
+    /** 根節點的 ParentID（同 ACA_PROTECT 的 stopParentId） */
+    private static final int ROOT = 0;
+
+    private ListsTree tree;
+
+    @BeforeEach
+    public void setup() {
+        tree = new ListsTree(List.of(
+                entry(10, "A", ROOT),
+                entry(11, "A01", 10),
+                entry(12, "A02", 10),
+                entry(13, "a0101", 11),
+                entry(20, "B", ROOT),
+                entry(21, "A01", 20),
+                entry(30, "X", 999),   // 父節點不在此 ListName
+                entry(31, "Y", null)), ROOT);
+    }
+
+    @Test
+    public void testResolveByValue() {
+        assertEquals(Set.of(12), tree.resolve("A02"));
+    }
+
+    @Test
+    public void testResolveTrimsAndIgnoresCase() {
+        assertEquals(Set.of(13), tree.resolve("  A0101 "));
+        assertEquals(Set.of(12), tree.resolve("a02"));
+    }
+
+    @Test
+    public void testResolveDuplicateValueReturnsAllSorted() {
+        assertEquals(List.of(11, 21), new ArrayList<>(tree.resolve("A01")));
+    }
+
+    @Test
+    public void testResolveByEntryId() {
+        assertEquals(Set.of(13), tree.resolve("13"));
+        assertEquals(Set.of(20), tree.resolve(" 20 "));
+    }
+
+    @Test
+    public void testResolveUnknown() {
+        assertTrue(tree.resolve("Z").isEmpty());
+        assertTrue(tree.resolve("404").isEmpty());
+        assertTrue(tree.resolve(null).isEmpty());
+    }
+
+    @Test
+    public void testPathFromRoot() {
+        assertEquals(List.of(10, 11, 13), ids(tree.path(13)));
+        assertEquals(List.of(20, 21), ids(tree.path(21)));
+        assertEquals(List.of(10), ids(tree.path(10)));
+    }
+
+    @Test
+    public void testPathStopsAtForeignOrMissingParent() {
+        assertEquals(List.of(30), ids(tree.path(30)));
+        assertEquals(List.of(31), ids(tree.path(31)));
+    }
+
+    @Test
+    public void testPathUnknownEntry() {
+        assertTrue(tree.path(404).isEmpty());
+        assertTrue(tree.path(null).isEmpty());
+    }
+
+    @Test
+    public void testPathDepthIsBounded() {
+        // 40 層的鏈：路徑只追溯 32 層（同原 SQL 的 MAXRECURSION 32），加上自己共 33 個節點
+        List<ListsEntry> chain = new ArrayList<>();
+        chain.add(entry(1, "L1", ROOT));
+        for (int id = 2; id <= 40; id++) {
+            chain.add(entry(id, "L" + id, id - 1));
+        }
+        ListsTree deep = new ListsTree(chain, ROOT);
+
+        List<Integer> path = ids(deep.path(40));
+        assertEquals(33, path.size());
+        assertEquals(8, path.get(0));
+        assertEquals(40, path.get(path.size() - 1));
+    }
+
+    @Test
+    public void testPathWithCycleTerminates() {
+        ListsTree cyclic = new ListsTree(List.of(entry(1, "P", 2), entry(2, "Q", 1)), ROOT);
+
+        assertEquals(33, cyclic.path(1).size());
+    }
+
+    private static List<Integer> ids(List<ListsEntry> path) {
+        return path.stream().map(ListsEntry::getEntryId).collect(Collectors.toList());
+    }
+
+    private static ListsEntry entry(int entryId, String value, Integer parentId) {
+        return new ListsEntry(entryId, "ACA_PROTECT", value, value, parentId, null, entryId, false, false, null);
+    }
+}
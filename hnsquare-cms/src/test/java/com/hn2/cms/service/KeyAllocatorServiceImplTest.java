@@ -0,0 +1,74 @@
+package com.hn2.cms.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hn2.cms.repository.KeyBlockRepository;
+import com.hn2.cms.service.KeyAllocatorService.KeyType;
+import com.hn2.util.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class KeyAllocatorServiceImplTest {
+    private KeyBlockRepository keyBlockRepository;
+    private KeyAllocatorServiceImpl keyAllocatorService;
+
+    @BeforeEach
+    public void setup() {
+        keyBlockRepository = mock(KeyBlockRepository.class);
+        keyAllocatorService = new KeyAllocatorServiceImpl();
+        keyAllocatorService.keyBlockRepository = keyBlockRepository;
+        ReflectionTestUtils.setField(keyAllocatorService, "blockSize", 2);
+    }
+
+    @Test
+    public void testNextPadsToWidth() {
+        // Arrange
+        when(keyBlockRepository.reserve(eq("ACABrd.ID"), eq("A202601"), eq(2), anyString())).thenReturn(42);
+
+        // action & assert
+        assertEquals("A20260100042", keyAllocatorService.next(KeyType.ACABRD_ID, "A202601"));
+        assertEquals("A20260100043", keyAllocatorService.next(KeyType.ACABRD_ID, "A202601"));
+    }
+
+    @Test
+    public void testNextReservesNewBlockWhenUsedUp() {
+        // Arrange：第一段 [1, 3)，第二段 [11, 13)（其他主機已取走中間的區段）
+        when(keyBlockRepository.reserve(eq("ACABrd.ACACardNo"), eq("B25"), eq(2), anyString())).thenReturn(1, 11);
+
+        // action & assert
+        assertEquals("B250001", keyAllocatorService.next(KeyType.ACABRD_CARD_NO, "B25"));
+        assertEquals("B250002", keyAllocatorService.next(KeyType.ACABRD_CARD_NO, "B25"));
+        assertEquals("B250011", keyAllocatorService.next(KeyType.ACABRD_CARD_NO, "B25"));
+        verify(keyBlockRepository, times(2)).reserve(eq("ACABrd.ACACardNo"), eq("B25"), eq(2), anyString());
+    }
+
+    @Test
+    public void testNextKeepsPrefixesApart() {
+        // Arrange
+        when(keyBlockRepository.reserve(eq("CrmRec.ID"), eq("A202601"), eq(2), anyString())).thenReturn(5);
+        when(keyBlockRepository.reserve(eq("CrmRec.ID"), eq("A202602"), eq(2), anyString())).thenReturn(1);
+
+        // action & assert
+        assertEquals("A20260100005", keyAllocatorService.next(KeyType.CRMREC_ID, "A202601"));
+        assertEquals("A20260200001", keyAllocatorService.next(KeyType.CRMREC_ID, "A202602"));
+        assertEquals("A20260100006", keyAllocatorService.next(KeyType.CRMREC_ID, "A202601"));
+    }
+
+    @Test
+    public void testNextFailsWhenBlockRollsPastWidth() {
+        // Arrange：4 碼流水號的最後一段為 [9999, 10001)
+        when(keyBlockRepository.reserve(eq("ACABrd.ACACardNo"), eq("B25"), eq(2), anyString())).thenReturn(9999);
+
+        // action & assert
+        assertEquals("B259999", keyAllocatorService.next(KeyType.ACABRD_CARD_NO, "B25"));
+        assertThrows(BusinessException.class, () -> keyAllocatorService.next(KeyType.ACABRD_CARD_NO, "B25"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.hn2.cms.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.hn2.core.dto.DataDto;
+import com.hn2.util.BusinessException;
+import com.hn2.util.ErrorType;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SupAfterCareBulkResultTest {
+
+    @Test
+    public void testRequireSelection() {
+        BusinessException e = assertThrows(BusinessException.class, () -> SupAfterCareBulkResult.requireSelection(List.of()));
+        assertEquals(ErrorType.REQUEST_NOT_VALID.getStatus(), e.getStatusCode());
+        assertEquals("請選擇要處理的資料", e.getMessage());
+        assertThrows(BusinessException.class, () -> SupAfterCareBulkResult.requireSelection(null));
+        assertDoesNotThrow(() -> SupAfterCareBulkResult.requireSelection(List.of("A")));
+    }
+
+    @Test
+    public void testSavedAll() {
+        DataDto<Void> result = SupAfterCareBulkResult.saved(2, List.of("A", "B", "A"));
+
+        assertEquals("儲存成功", result.getResponse().getState().getMsgSubject());
+        assertEquals("已更新 2 筆", result.getResponse().getState().getMsgContent());
+    }
+
+    @Test
+    public void testSavedPartial() {
+        DataDto<Void> result = SupAfterCareBulkResult.saved(1, List.of("A", "B", "C"));
+
+        assertEquals("已更新 1 筆，2 筆狀態已變更未更新", result.getResponse().getState().getMsgContent());
+    }
+
+    @Test
+    public void testSavedNothingUpdated() {
+        BusinessException e = assertThrows(BusinessException.class, () -> SupAfterCareBulkResult.saved(0, List.of("A")));
+        assertEquals(ErrorType.REQUEST_NOT_ALLOW.getStatus(), e.getStatusCode());
+    }
+}
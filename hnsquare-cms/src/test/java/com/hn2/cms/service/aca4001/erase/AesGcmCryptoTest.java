@@ -0,0 +1,115 @@
+package com.hn2.cms.service.aca4001.erase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AesGcmCryptoTest {
+    private static final String KEY = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+    private static final String JSON = "{\"table\":\"CrmRec\",\"id\":\"C001\",\"fields\":{\"CrmMemo\":\"王小明 備註\"}}";
+
+    private AesGcmCrypto crypto;
+
+    @BeforeEach
+    public void setup() {
+        crypto = new AesGcmCrypto(KEY);
+    }
+
+    @Test
+    public void testSealOpenRoundTrip() {
+        AesGcmCrypto.Encoded enc = crypto.seal(JSON);
+
+        assertEquals(AesGcmCrypto.sha256Hex(JSON), enc.sha256Hex);
+        assertEquals(JSON, crypto.open(enc.payloadBase64, enc.ivBase64, enc.sha256Hex));
+        assertEquals(JSON, crypto.open(enc.payloadBase64, enc.ivBase64, enc.sha256Hex.toUpperCase()));
+        assertEquals(JSON, crypto.open(enc.payloadBase64, enc.ivBase64, null));
+    }
+
+    @Test
+    public void testSealUsesFreshIv() {
+        AesGcmCrypto.Encoded first = crypto.seal(JSON);
+        AesGcmCrypto.Encoded second = crypto.seal(JSON);
+
+        assertNotEquals(first.ivBase64, second.ivBase64);
+        assertNotEquals(first.payloadBase64, second.payloadBase64);
+        assertEquals(first.sha256Hex, second.sha256Hex);
+    }
+
+    @Test
+    public void testSealMatchesEncryptJson() {
+        // 新舊 API 互通：encryptJson 的密文可用 open 解開，seal 的密文可用 decryptToJson 解開
+        AesGcmCrypto.Encoded legacy = crypto.encryptJson(JSON);
+        AesGcmCrypto.Encoded sealed = crypto.seal(JSON);
+
+        assertEquals(JSON, crypto.open(legacy.payloadBase64, legacy.ivBase64, AesGcmCrypto.sha256Hex(JSON)));
+        assertEquals(JSON, crypto.decryptToJson(sealed.payloadBase64, sealed.ivBase64));
+    }
+
+    @Test
+    public void testOpenRejectsShaMismatch() {
+        AesGcmCrypto.Encoded enc = crypto.seal(JSON);
+
+        assertThrows(IllegalStateException.class,
+                () -> crypto.open(enc.payloadBase64, enc.ivBase64, AesGcmCrypto.sha256Hex("other")));
+    }
+
+    @Test
+    public void testOpenRejectsTamperedPayload() {
+        AesGcmCrypto.Encoded enc = crypto.seal(JSON);
+        byte[] ct = Base64.getDecoder().decode(enc.payloadBase64);
+        ct[0] ^= 1;
+        String tampered = Base64.getEncoder().encodeToString(ct);
+
+        assertThrows(IllegalStateException.class, () -> crypto.open(tampered, enc.ivBase64, null));
+    }
+
+    @Test
+    public void testOpenRejectsOtherKey() {
+        AesGcmCrypto.Encoded enc = crypto.seal(JSON);
+        AesGcmCrypto other = new AesGcmCrypto(Base64.getEncoder().encodeToString(new byte[16]));
+
+        assertThrows(IllegalStateException.class, () -> other.open(enc.payloadBase64, enc.ivBase64, null));
+    }
+
+    @Test
+    public void testRejectsInvalidKeyLength() {
+        assertThrows(IllegalArgumentException.class, () -> new AesGcmCrypto(Base64.getEncoder().encodeToString(new byte[20])));
+    }
+
+    @Test
+    public void testSha256Hex() {
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", AesGcmCrypto.sha256Hex(""));
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", AesGcmCrypto.sha256Hex("abc"));
+    }
+
+    @Test
+    public void testConcurrentSealOpen() throws Exception {
+        // 每執行緒各自的 Cipher / MessageDigest，並行使用結果不互相干擾
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String json = JSON + i;
+                futures.add(pool.submit(() -> {
+                    AesGcmCrypto.Encoded enc = crypto.seal(json);
+                    return crypto.open(enc.payloadBase64, enc.ivBase64, enc.sha256Hex);
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(JSON + i, futures.get(i).get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
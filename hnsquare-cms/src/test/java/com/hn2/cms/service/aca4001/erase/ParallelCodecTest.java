@@ -0,0 +1,104 @@
+package com.hn2.cms.service.aca4001.erase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ParallelCodecTest {
+    private ParallelCodec codec;
+
+    @BeforeEach
+    public void setup() {
+        codec = new ParallelCodec();
+        ReflectionTestUtils.setField(codec, "workers", 4);
+        ReflectionTestUtils.setField(codec, "threshold", 8);
+        codec.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        codec.shutdown();
+    }
+
+    @Test
+    public void testMapPreservesOrder() {
+        List<Integer> items = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<String> result = codec.map(items, i -> {
+            threads.add(Thread.currentThread().getName());
+            // 各區段完成時間不一，結果仍須依輸入順序
+            if (ThreadLocalRandom.current().nextInt(50) == 0) {
+                sleep(1);
+            }
+            return "row-" + i;
+        });
+
+        assertEquals(items.stream().map(i -> "row-" + i).collect(Collectors.toList()), result);
+        assertTrue(threads.stream().allMatch(t -> t.startsWith("erase-codec-")));
+    }
+
+    @Test
+    public void testMapBelowThresholdRunsOnCaller() {
+        String caller = Thread.currentThread().getName();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        List<Integer> result = codec.map(List.of(3, 1, 2), i -> {
+            threads.add(Thread.currentThread().getName());
+            return i * 10;
+        });
+
+        assertEquals(List.of(30, 10, 20), result);
+        assertEquals(Set.of(caller), threads);
+    }
+
+    @Test
+    public void testMapEmpty() {
+        assertEquals(List.of(), codec.map(List.<Integer>of(), i -> i));
+    }
+
+    @Test
+    public void testMapRethrowsOriginalException() {
+        List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        IllegalStateException failure = new IllegalStateException("Mirror payload 校驗失敗: 42");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> codec.map(items, i -> {
+            if (i == 42) {
+                throw failure;
+            }
+            return i;
+        }));
+
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    public void testMapReusableAfterFailure() {
+        List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        assertThrows(IllegalArgumentException.class, () -> codec.map(items, i -> {
+            throw new IllegalArgumentException();
+        }));
+
+        assertEquals(items, codec.map(items, i -> i));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
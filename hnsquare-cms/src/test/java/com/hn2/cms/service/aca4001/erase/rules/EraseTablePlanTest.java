@@ -0,0 +1,159 @@
+package com.hn2.cms.service.aca4001.erase.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.hn2.cms.service.aca4001.erase.support.RowUtils;
+import com.hn2.cms.service.aca4001.erase.support.SqlNorm;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 預期 SQL 皆為改用執行計畫前 EraseRestoreExecutor 逐次組出的字串，確保編譯後語法完全相同
+ */
+public class EraseTablePlanTest {
+    private EraseTableConfigPojo parent;
+    private EraseTableConfigPojo child;
+    private EraseTableConfigPojo lookup;
+
+    @BeforeEach
+    public void setup() {
+        parent = new EraseTableConfigPojo();
+        parent.setTable("CrmRec");
+        parent.setWhitelist(List.of("CrmMemo", "ProDate", "CreatedByUserID", "Memo-Text", "ModifiedByUserID"));
+        parent.setDateCols(Set.of("Pro_Date"));
+        parent.setIntCols(Set.of("CreatedByUserID"));
+        parent.getEraseExtraSet().put("isERASE", 1);
+        parent.getEraseExtraSet().put("ModifiedOnDate", "${NOW}");
+        parent.getEraseExtraSet().put("ModifiedByUserID", ":uid");
+        parent.getEraseExtraSet().put("CrmMemo", "已塗銷'");
+        parent.getRestoreExtraSet().put("isERASE", 0);
+        parent.getRestoreExtraSet().put("ModifiedOnDate", "${NOW}");
+        parent.getRestoreExtraSet().put("ModifiedByUserID", ":uid");
+        parent.getRestoreExtraSet().put("Remark", null);
+
+        child = new EraseTableConfigPojo();
+        child.setTable("ProDtl");
+        child.setParentTable("ProRec");
+        child.setParentFkColumn("ProRecID");
+        child.getEraseExtraSet().put("isERASE", 1);
+
+        lookup = new EraseTableConfigPojo();
+        lookup.setTable("ACAFamilies");
+        lookup.setIdColumn("FamID");
+        lookup.setParentTable("ACABrd");
+        lookup.setParentFkColumn("FamCardNo");
+        lookup.setParentIdLookupTable("ACABrd");
+        lookup.setParentIdLookupSrcColumn("ACACardNo");
+        lookup.setParentIdLookupDstColumn("FamCardNo");
+        lookup.setWhitelist(List.of("FamName", "FamTel"));
+        lookup.getEraseExtraSet().put("isERASE", 1);
+        lookup.getRestoreExtraSet().put("isERASE", 0);
+    }
+
+    @Test
+    public void testParentSql() {
+        // action
+        EraseTablePlan plan = EraseTablePlan.compile(parent);
+
+        // assert
+        assertEquals("dbo.CrmRec", plan.getQualifiedTable());
+        assertEquals("SELECT ID AS __PK__,CrmMemo,ProDate,CreatedByUserID,Memo-Text,ModifiedByUserID FROM dbo.CrmRec WHERE ID IN (:ids)",
+                plan.getSqlLoadByIds());
+        assertEquals("UPDATE dbo.CrmRec SET [ProDate]=NULL, [CreatedByUserID]=NULL, [Memo-Text]=NULL, "
+                        + "[isERASE]=1, [ModifiedOnDate]=SYSDATETIME(), [ModifiedByUserID]=:uid, [CrmMemo]=N'已塗銷''' WHERE ID IN (:ids)",
+                plan.getSqlEraseByIds());
+        assertEquals("UPDATE dbo.CrmRec SET [CrmMemo] = :CrmMemo, [ProDate] = :ProDate, [CreatedByUserID] = :CreatedByUserID, "
+                        + "[Memo-Text] = :Memo_Text, [isERASE] = 0, [ModifiedOnDate] = SYSDATETIME(), [ModifiedByUserID] = :uid, "
+                        + "[Remark] = NULL WHERE ID=:id AND ISNULL(isERASE,0)=1",
+                plan.getSqlRestore());
+        assertTrue(plan.isRestoreBindsUid());
+        assertNull(plan.getSqlPageByParent());
+        assertNull(plan.getSqlPageByParentAfter());
+        assertNull(plan.getSqlEraseByParent());
+        assertNull(plan.getSqlLookup());
+    }
+
+    @Test
+    public void testRestoreColumnsSkipModifiedBy() {
+        // action
+        EraseTablePlan plan = EraseTablePlan.compile(parent);
+
+        // assert
+        assertEquals(List.of("CrmMemo", "ProDate", "CreatedByUserID", "Memo-Text"),
+                plan.getRestoreColumns().stream().map(EraseTablePlan.RestoreColumn::getColumn).collect(Collectors.toList()));
+        assertEquals(List.of("CrmMemo", "ProDate", "CreatedByUserID", "Memo_Text"),
+                plan.getRestoreColumns().stream().map(EraseTablePlan.RestoreColumn::getParam).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testRestoreCoerceMatchesNormalizeForColumn() {
+        // Arrange
+        EraseTablePlan plan = EraseTablePlan.compile(parent);
+        Set<String> dateNorm = Set.of(RowUtils.normKey("Pro_Date"));
+        Set<String> intNorm = Set.of(RowUtils.normKey("CreatedByUserID"));
+        List<Object> values = Arrays.asList("2024-03-05", "2024-03-05T08:09:10", " 42 ", "abc", 7L, null);
+
+        // assert
+        for (EraseTablePlan.RestoreColumn col : plan.getRestoreColumns()) {
+            for (Object v : values) {
+                assertEquals(SqlNorm.normalizeForColumn(col.getColumn(), v, dateNorm, intNorm), col.coerce(v),
+                        col.getColumn() + " <- " + v);
+            }
+        }
+    }
+
+    @Test
+    public void testChildSql() {
+        // action
+        EraseTablePlan plan = EraseTablePlan.compile(child);
+
+        // assert
+        assertEquals("SELECT ID AS __PK__ FROM dbo.ProDtl WHERE ID IN (:ids)", plan.getSqlLoadByIds());
+        assertEquals("SELECT TOP (:n) ID AS __PK__ FROM dbo.ProDtl WHERE ProRecID IN (:pids) ORDER BY ID",
+                plan.getSqlPageByParent());
+        assertEquals("SELECT TOP (:n) ID AS __PK__ FROM dbo.ProDtl WHERE ProRecID IN (:pids) AND ID > :after ORDER BY ID",
+                plan.getSqlPageByParentAfter());
+        assertEquals("UPDATE dbo.ProDtl SET [isERASE]=1 WHERE ID IN (:ids)", plan.getSqlEraseByIds());
+        assertEquals("UPDATE dbo.ProDtl SET [isERASE]=1 WHERE ProRecID IN (:pids)", plan.getSqlEraseByParent());
+        assertNull(plan.getSqlLookup());
+        // 沒有可寫回欄位：舊版逐列略過，計畫則不產生還原語法
+        assertNull(plan.getSqlRestore());
+        assertTrue(plan.getRestoreColumns().isEmpty());
+        assertFalse(plan.isRestoreBindsUid());
+    }
+
+    @Test
+    public void testLookupSql() {
+        // action
+        EraseTablePlan plan = EraseTablePlan.compile(lookup);
+
+        // assert
+        assertTrue(EraseTablePlan.hasLookup(lookup));
+        assertEquals("SELECT DISTINCT [FamCardNo] AS v FROM dbo.ACABrd WHERE [ACACardNo] IN (:pids)", plan.getSqlLookup());
+        assertEquals("SELECT TOP (:n) FamID AS __PK__,FamName,FamTel FROM dbo.ACAFamilies WHERE FamCardNo IN (:pids) ORDER BY FamID",
+                plan.getSqlPageByParent());
+        assertEquals("UPDATE dbo.ACAFamilies SET [FamName]=NULL, [FamTel]=NULL, [isERASE]=1 WHERE FamCardNo IN (:pids)",
+                plan.getSqlEraseByParent());
+        assertEquals("UPDATE dbo.ACAFamilies SET [FamName] = :FamName, [FamTel] = :FamTel, [isERASE] = 0 "
+                        + "WHERE FamID=:id AND ISNULL(isERASE,0)=1",
+                plan.getSqlRestore());
+        assertFalse(plan.isRestoreBindsUid());
+    }
+
+    @Test
+    public void testPartialLookupIgnored() {
+        // Arrange
+        lookup.setParentIdLookupDstColumn(null);
+
+        // assert
+        assertFalse(EraseTablePlan.hasLookup(lookup));
+        assertNull(EraseTablePlan.compile(lookup).getSqlLookup());
+    }
+}
@@ -14,12 +14,17 @@ public class ApplicationConfig {
   /**
    * 建立 Sql2o Bean
    *
+   * <p>連線改由 {@link SpringTxConnectionSource} 提供，在 @Transactional 範圍內與 JPA / JdbcTemplate
+   * 共用同一條連線與交易。
+   *
    * @param ds DataSource
    * @return Sql2o
    */
   @Bean
   org.sql2o.Sql2o sql2o(javax.sql.DataSource ds) {
-    return new org.sql2o.Sql2o(ds);
+    org.sql2o.Sql2o sql2o = new org.sql2o.Sql2o(ds);
+    sql2o.setConnectionSource(new SpringTxConnectionSource(ds));
+    return sql2o;
   }
 
   /**
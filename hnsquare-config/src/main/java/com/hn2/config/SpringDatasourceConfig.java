@@ -1,12 +1,12 @@
 package com.hn2.config;
 
-import javax.sql.DataSource;
+import com.zaxxer.hikari.HikariDataSource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
 import org.springframework.context.annotation.*;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.transaction.TransactionManager;
@@ -41,15 +41,19 @@ public class SpringDatasourceConfig {
   /**
    * 建立 DataSource Bean
    *
+   * <p>使用 HikariCP 連線池；連線資訊沿用 spring.datasource.*，池大小、逾時與洩漏偵測等參數由
+   * spring.datasource.hikari.* 綁定（可依 profile 覆寫）。
+   *
    * @return DataSource
    */
   @Bean
   @Primary
-  public DataSource dataSource() {
+  @ConfigurationProperties(prefix = "spring.datasource.hikari")
+  public HikariDataSource dataSource() {
     log.info("Configuring spring.datasources");
-    DriverManagerDataSource dataSource = new DriverManagerDataSource();
+    HikariDataSource dataSource = new HikariDataSource();
     dataSource.setDriverClassName(driver);
-    dataSource.setUrl(url);
+    dataSource.setJdbcUrl(url);
     dataSource.setUsername(user);
     dataSource.setPassword(mima);
     return dataSource;
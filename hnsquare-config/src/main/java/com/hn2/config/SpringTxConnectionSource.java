@@ -0,0 +1,106 @@
+package com.hn2.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.sql2o.connectionsources.ConnectionSource;
+
+/**
+ * Sql2o ConnectionSource：與 Spring 交易共用同一條 JDBC 連線
+ *
+ * <p>透過 {@link DataSourceUtils} 取得連線；若目前執行緒已有 Spring 交易（JPA / JDBC），則 sql2o.open()
+ * 拿到的就是該交易綁定的連線，commit / rollback / setAutoCommit / close 交由 Spring 交易管理器處理，
+ * sql2o 端的呼叫一律忽略。無交易時行為與原本相同（自連線池取得，close 時歸還）。
+ *
+ * <p>交易設有逾時時，建立的 Statement 會套用交易剩餘秒數為 query timeout（與 JdbcTemplate 行為一致）。
+ *
+ * @author hsien
+ */
+public class SpringTxConnectionSource implements ConnectionSource {
+
+  private final DataSource dataSource;
+
+  public SpringTxConnectionSource(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    Connection target = DataSourceUtils.getConnection(dataSource);
+    return (Connection)
+        Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new TxAwareInvocationHandler(target, dataSource));
+  }
+
+  /** 攔截交易控制相關方法；連線已納入 Spring 交易時不得由 sql2o 自行 commit / rollback / 關閉 */
+  private static class TxAwareInvocationHandler implements InvocationHandler {
+
+    private final Connection target;
+    private final DataSource dataSource;
+    private boolean closed;
+
+    TxAwareInvocationHandler(Connection target, DataSource dataSource) {
+      this.target = target;
+      this.dataSource = dataSource;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "unwrap":
+          if (((Class<?>) args[0]).isInstance(proxy)) {
+            return proxy;
+          }
+          break;
+        case "isWrapperFor":
+          if (((Class<?>) args[0]).isInstance(proxy)) {
+            return true;
+          }
+          break;
+        case "isClosed":
+          return closed || target.isClosed();
+        case "close":
+          if (!closed) {
+            closed = true;
+            DataSourceUtils.releaseConnection(target, dataSource);
+          }
+          return null;
+        case "commit":
+        case "rollback":
+        case "setAutoCommit":
+        case "setTransactionIsolation":
+          if (DataSourceUtils.isConnectionTransactional(target, dataSource)) {
+            return null;
+          }
+          break;
+        default:
+          break;
+      }
+      if (closed) {
+        throw new SQLException("Connection is closed");
+      }
+      Object result;
+      try {
+        result = method.invoke(target, args);
+      } catch (InvocationTargetException ex) {
+        throw ex.getTargetException();
+      }
+      if (result instanceof Statement) {
+        DataSourceUtils.applyTransactionTimeout((Statement) result, dataSource);
+      }
+      return result;
+    }
+  }
+}
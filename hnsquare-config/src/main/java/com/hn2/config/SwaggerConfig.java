@@ -1,14 +1,22 @@
 package com.hn2.config;
 
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 /**
@@ -39,4 +47,39 @@ public class SwaggerConfig {
         .paths(PathSelectors.any())
         .build();
   }
+
+  /**
+   * 排除 actuator 使用 PathPatternParser 的 handler mapping，避免 springfox 啟動時 NPE
+   *
+   * @return BeanPostProcessor
+   */
+  @Bean
+  public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName)
+          throws BeansException {
+        if (bean instanceof WebMvcRequestHandlerProvider) {
+          List<RequestMappingInfoHandlerMapping> mappings = getHandlerMappings(bean);
+          List<RequestMappingInfoHandlerMapping> copy =
+              mappings.stream()
+                  .filter(mapping -> mapping.getPatternParser() == null)
+                  .collect(Collectors.toList());
+          mappings.clear();
+          mappings.addAll(copy);
+        }
+        return bean;
+      }
+
+      @SuppressWarnings("unchecked")
+      private List<RequestMappingInfoHandlerMapping> getHandlerMappings(Object bean) {
+        Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+        if (field == null) {
+          throw new IllegalStateException("springfox handlerMappings not found");
+        }
+        ReflectionUtils.makeAccessible(field);
+        return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+      }
+    };
+  }
 }
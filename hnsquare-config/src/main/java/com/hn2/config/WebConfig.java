@@ -13,9 +13,15 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -26,6 +32,25 @@ public class WebConfig implements WebMvcConfigurer {
 
   private final static String LOCAL_DATE_PATTERN = "yyyy-MM-dd";
   private final static String LOCAL_DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+  /** 非同步回應（StreamingResponseBody 等）逾時毫秒數 */
+  @Value("${app.mvc.async.timeout:600000}")
+  private long asyncTimeout;
+
+  /**
+   * MVC 非同步回應使用 Spring Boot 預設的 applicationTaskExecutor（參數為 spring.task.execution.*）；
+   * 不另宣告 Executor Bean，以免 Boot 因此不建立預設執行緒池而改變 @Async 等其他使用者取得的 Executor
+   */
+  @Autowired
+  @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  private AsyncTaskExecutor applicationTaskExecutor;
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(applicationTaskExecutor);
+    configurer.setDefaultTimeout(asyncTimeout);
+  }
+
   @Override
   public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
     //        Remove the default MappingJackson2HttpMessageConverter
@@ -1,11 +1,22 @@
 package com.hn2.report.controller;
 
+import com.hn2.report.dto.ReportJobDto;
 import com.hn2.report.payload.Reprot01Payload;
 import com.hn2.report.service.Report01Service;
+import com.hn2.report.service.ReportJobService;
+import com.hn2.util.BusinessException;
+import com.hn2.util.ErrorType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.validation.Valid;
 
 @RestController
 @RequestMapping(value = "/aca/aca1000")
@@ -14,16 +25,49 @@ public class Report01Controller {
     @Autowired
     Report01Service service;
 
+    @Autowired
+    ReportJobService reportJobService;
+
     @PostMapping(value = "/report01")
-    public ResponseEntity<Object> getListByCustom(@RequestBody Reprot01Payload payload) {
+    public ResponseEntity<StreamingResponseBody> getListByCustom(@RequestBody Reprot01Payload payload) {
 
         //payload.setPrintUser(principalAccessor.getPrincipal().getCname());
-        System.out.println("print log");
         log.info(payload.toString());
-        byte[] bytes = service.getReport(payload); //pdf generated
+        StreamingResponseBody body = service.streamReport(payload); //pdf streamed to response (chunked)
+
+        return ResponseEntity.ok()
+                .header("Content-Type", "application/pdf; charset=UTF-8")
+                .body(body);
+    }
+
+    /** 送出非同步報表工作，回傳 jobId */
+    @PostMapping(value = "/report01/jobs")
+    public ResponseEntity<ReportJobDto> submitJob(@Valid @RequestBody Reprot01Payload payload) {
+        log.info(payload.toString());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submitReport01(payload, owner(payload.getOperatorUserId())));
+    }
 
+    /** 查詢報表工作狀態 */
+    @GetMapping(value = "/report01/jobs/{jobId}")
+    public ResponseEntity<ReportJobDto> getJob(@PathVariable String jobId, @RequestParam(required = false) String operatorUserId) {
+        return ResponseEntity.ok(reportJobService.getStatus(jobId, owner(operatorUserId)));
+    }
+
+    /** 下載已完成的報表 */
+    @GetMapping(value = "/report01/jobs/{jobId}/file")
+    public ResponseEntity<Resource> downloadJob(@PathVariable String jobId, @RequestParam(required = false) String operatorUserId) {
+        Resource file = new FileSystemResource(reportJobService.getFile(jobId, owner(operatorUserId)));
         return ResponseEntity.ok()
                 .header("Content-Type", "application/pdf; charset=UTF-8")
-                .body(bytes);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=report01.pdf")
+                .body(file);
+    }
+
+    /** 報表工作以操作人員代號為擁有者（同其他作業由前端帶入 operatorUserId）；未帶入不可使用 */
+    private static String owner(String operatorUserId) {
+        if (operatorUserId == null || operatorUserId.isBlank()) {
+            throw new BusinessException(ErrorType.INVALID_OPERATION_PERMISSION, "缺少操作人員代號");
+        }
+        return operatorUserId.trim();
     }
 }
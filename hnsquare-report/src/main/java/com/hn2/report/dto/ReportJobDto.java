@@ -0,0 +1,32 @@
+package com.hn2.report.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 非同步報表工作狀態
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDto {
+    /** 工作編號 */
+    private String jobId;
+    /** 狀態：QUEUED / RUNNING / DONE / FAILED */
+    private String status;
+    /** 送出人員 */
+    private String user;
+    /** 送出時間 */
+    private LocalDateTime submittedAt;
+    /** 完成時間 */
+    private LocalDateTime finishedAt;
+    /** 檔案大小（bytes），完成後才有值 */
+    private Long fileSize;
+    /** 失敗訊息 */
+    private String message;
+}
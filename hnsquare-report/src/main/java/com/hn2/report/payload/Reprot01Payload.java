@@ -14,4 +14,6 @@ public class Reprot01Payload {
     /** 簽收人員 */
     @NotNull(message = "列印人員為必填欄位")
     private String printUser;
+    /** 操作人員代號（非同步報表工作的擁有者） */
+    private String operatorUserId;
 }
@@ -5,14 +5,18 @@ import com.hn2.report.dto.Reprot01Dto;
 import com.hn2.report.payload.Reprot01Payload;
 import com.hn2.report.repository.Reprot01Repository;
 import com.hn2.report.service.Report01Service;
+import com.hn2.report.util.FilledReport;
 import com.hn2.report.util.ReportFormat;
 import com.hn2.report.util.ReportGenerator;
+import com.hn2.report.util.ReportOutputCache;
+import com.hn2.report.util.ReportSpec;
 import com.hn2.util.BusinessException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import com.hn2.report.util.ReportEnvironment;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -28,26 +32,83 @@ public class Report01ServiceImpl implements Report01Service {
     @Autowired
     Reprot01Repository repository;
 
-    /*** 報表 Environment*/
-    @Autowired
-    private ReportEnvironment reportEnvironment;
-
     /*** 報表 Generator*/
     @Autowired
     private ReportGenerator reportGenerator;
 
+    /*** 報表產出檔快取*/
+    @Autowired
+    private ReportOutputCache reportOutputCache;
+
     @Override
     public byte[] getReport(Reprot01Payload payload) {
+        List<Reprot01Dto> listDto = loadAndLogPrint(payload);
+        ReportSpec spec = buildSpec();
+
+        try {
+            // 相同樣板/參數/資料已產出過則直接回傳（列印紀錄仍於上方每次寫入）
+            String cacheKey = reportOutputCache.key(spec, listDto);
+            byte[] cached = reportOutputCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+            byte[] bytes = reportGenerator.generate(spec, listDto);
+            reportOutputCache.put(cacheKey, bytes);
+            return bytes;
+
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BusinessException("can't generate file!");
+        }
+    }
+
+    @Override
+    public StreamingResponseBody streamReport(Reprot01Payload payload) {
+        List<Reprot01Dto> listDto = loadAndLogPrint(payload);
+        ReportSpec spec = buildSpec();
+
+        // 快取命中：取得的內容不會因淘汰而失效，直接寫到 response（不持有任何需關閉的資源）
+        String cacheKey = reportOutputCache.key(spec, listDto);
+        byte[] cached = reportOutputCache.get(cacheKey);
+        if (cached != null) {
+            return outputStream -> outputStream.write(cached);
+        }
+
+        // fill 於回傳 body 前完成：失敗時尚未送出 200 與 PDF 標頭，由一般錯誤處理回傳錯誤訊息，不會變成截斷的 PDF。
+        // body 只負責 export，並以同一個 try 關閉 FilledReport（含 virtualizer swap 檔）；回傳後 MVC 必定執行 body 一次
+        FilledReport filledReport;
+        try {
+            filledReport = reportGenerator.fill(spec, listDto);
+        } catch (Exception e) {
+            log.error(e.getMessage());
+            throw new BusinessException("can't generate file!");
+        }
+        return outputStream -> {
+            try (filledReport; ReportOutputCache.Entry cacheEntry = reportOutputCache.newEntry(cacheKey)) {
+                reportGenerator.export(spec, filledReport, cacheEntry.tee(outputStream));
+                cacheEntry.commit();
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                log.error(e.getMessage());
+                throw new IOException("can't generate file!", e);
+            }
+        };
+    }
+
+    /**
+     * 查詢報表資料並寫入列印紀錄
+     *
+     * @param payload Reprot01Payload
+     * @return 報表資料
+     */
+    private List<Reprot01Dto> loadAndLogPrint(Reprot01Payload payload) {
         List<Reprot01Dto> listDto = repository.getList(payload); //get listDto from repository
-        System.out.println("listDto: " + listDto); //print listDto for debugging
+        log.debug("listDto size: {}", listDto == null ? 0 : listDto.size());
 
         Date date = new Date();
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd :hh:mm:ss");
-        String rocDate = date2Roc(new Date(), yyy年M月d日); //create another date to ROC date format
         String dd = dateFormat.format(date); //create date string in "yyyy-MM-dd :hh:mm:ss" format
-        HashMap<String, Object> params = new HashMap<String, Object>();
-        params.put("reportNo", "Reprot01");
-        params.put("reportCreateDateTime", rocDate);
 
         if (listDto == null || listDto.size() == 0) {
             throw new BusinessException("查無資料");
@@ -65,17 +126,23 @@ public class Report01ServiceImpl implements Report01Service {
             }
             repository.insertToSUP_AfterCare_Print_Log(insertDTOList); //insert insertDTOList into SUP_AfterCare_Print_Log table
         }
+        return listDto;
+    }
 
-        try {
-            reportEnvironment.setFormat(ReportFormat.FORMAT_PDF);
-            reportEnvironment.setFile("report01.jrxml");
-            return reportGenerator.generate(reportEnvironment, listDto, params);
-
-        } catch (Exception e) {
-            log.error(e.getMessage());
-            throw new BusinessException("can't generate file!");
-        }
-
-
+    /**
+     * 報表規格
+     *
+     * @return ReportSpec
+     */
+    private ReportSpec buildSpec() {
+        String rocDate = date2Roc(new Date(), yyy年M月d日); //create another date to ROC date format
+        HashMap<String, Object> params = new HashMap<String, Object>();
+        params.put("reportNo", "Reprot01");
+        params.put("reportCreateDateTime", rocDate);
+        return ReportSpec.builder()
+                .template("report01.jrxml")
+                .format(ReportFormat.FORMAT_PDF)
+                .parameters(params)
+                .build();
     }
 }
@@ -0,0 +1,231 @@
+package com.hn2.report.service.Impl;
+
+import com.hn2.report.dto.ReportJobDto;
+import com.hn2.report.payload.Reprot01Payload;
+import com.hn2.report.service.Report01Service;
+import com.hn2.report.service.ReportJobService;
+import com.hn2.util.BusinessException;
+import com.hn2.util.ErrorType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 非同步報表工作
+ * <p>
+ * - 固定大小的 worker pool（預設為 CPU 核心數）+ 有界佇列；佇列滿時直接拒絕（429），不占用 Tomcat 執行緒
+ * - 每位使用者（操作人員代號）同時排隊/執行中的工作數有上限，避免單一大量列印拖垮其他人
+ * - 工作記錄送出者，僅送出者可查詢狀態與下載，其他人一律視為查無此工作
+ * - 產出檔案寫入本機 spool 目錄，逾 TTL 由排程清除，送出新工作時也會順便清除
+ */
+@Service
+@Slf4j
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private static final String STATUS_QUEUED = "QUEUED";
+    private static final String STATUS_RUNNING = "RUNNING";
+    private static final String STATUS_DONE = "DONE";
+    private static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    private Report01Service report01Service;
+
+    /** worker 數，0 表示使用 CPU 核心數 */
+    @Value("${report.job.workers:0}")
+    private int workers;
+
+    /** 等待佇列長度 */
+    @Value("${report.job.queue-capacity:50}")
+    private int queueCapacity;
+
+    /** 每位使用者同時排隊/執行中的工作上限 */
+    @Value("${report.job.per-user-limit:2}")
+    private int perUserLimit;
+
+    /** 產出檔案目錄 */
+    @Value("${report.job.spool-dir:${java.io.tmpdir}/report-spool}")
+    private String spoolDir;
+
+    /** 已結束工作（含檔案）保留分鐘數 */
+    @Value("${report.job.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /** 使用者 -> 排隊/執行中工作數；歸零即移除，不隨使用者累積 */
+    private final Map<String, Integer> activeByUser = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(Paths.get(spoolDir));
+        int size = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "report-job-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("[ReportJob] workers={}, queueCapacity={}, perUserLimit={}, spool={}", size, queueCapacity, perUserLimit, spoolDir);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ReportJobDto submitReport01(Reprot01Payload payload, String owner) {
+        purgeExpired();
+        acquire(owner);
+
+        Job job = new Job(UUID.randomUUID().toString(), owner, payload.getPrintUser());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, payload));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            release(owner);
+            throw new BusinessException(ErrorType.TOO_MANY_REQUESTS, "報表佇列已滿，請稍後再試");
+        }
+        return job.toDto();
+    }
+
+    @Override
+    public ReportJobDto getStatus(String jobId, String owner) {
+        return findJob(jobId, owner).toDto();
+    }
+
+    @Override
+    public Path getFile(String jobId, String owner) {
+        Job job = findJob(jobId, owner);
+        if (!STATUS_DONE.equals(job.status) || job.file == null || !Files.exists(job.file)) {
+            throw new BusinessException(ErrorType.RESOURCE_NOT_FOUND, "報表尚未完成");
+        }
+        return job.file;
+    }
+
+    /** 清除逾 TTL 的已結束工作與其檔案 */
+    @Scheduled(fixedDelayString = "${report.job.cleanup-interval-ms:300000}")
+    public void purgeExpired() {
+        LocalDateTime expireBefore = LocalDateTime.now().minus(Duration.ofMinutes(ttlMinutes));
+        jobs.values().removeIf(job -> {
+            boolean expired = job.finishedAt != null && job.finishedAt.isBefore(expireBefore);
+            if (expired) {
+                deleteQuietly(job.file);
+            }
+            return expired;
+        });
+    }
+
+    private void run(Job job, Reprot01Payload payload) {
+        job.status = STATUS_RUNNING;
+        Path file = Paths.get(spoolDir, job.id + ".pdf");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            report01Service.streamReport(payload).writeTo(out);
+            job.file = file;
+            job.fileSize = Files.size(file);
+            job.status = STATUS_DONE;
+        } catch (Exception e) {
+            log.error("[ReportJob] {} failed: {}", job.id, e.getMessage());
+            deleteQuietly(file);
+            job.message = e.getMessage();
+            job.status = STATUS_FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            release(job.owner);
+        }
+    }
+
+    /** 占用一個名額；已達每人上限即拒絕 */
+    private void acquire(String owner) {
+        activeByUser.compute(owner, (k, count) -> {
+            int active = count == null ? 0 : count;
+            if (active >= perUserLimit) {
+                throw new BusinessException(ErrorType.TOO_MANY_REQUESTS, "您已有 " + perUserLimit + " 份報表處理中，請稍後再試");
+            }
+            return active + 1;
+        });
+    }
+
+    /** 釋放一個名額；歸零時移除該使用者 */
+    private void release(String owner) {
+        activeByUser.computeIfPresent(owner, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private Job findJob(String jobId, String owner) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.owner.equals(owner)) {
+            throw new BusinessException(ErrorType.RESOURCE_NOT_FOUND, "查無此報表工作");
+        }
+        return job;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("[ReportJob] delete spool file failed: {}", file);
+        }
+    }
+
+    /** 工作狀態（由 worker 更新，查詢端讀取） */
+    private static class Job {
+        final String id;
+        /** 送出者（操作人員代號） */
+        final String owner;
+        /** 列印人員（報表上顯示） */
+        final String user;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        volatile String status = STATUS_QUEUED;
+        volatile LocalDateTime finishedAt;
+        volatile Path file;
+        volatile Long fileSize;
+        volatile String message;
+
+        Job(String id, String owner, String user) {
+            this.id = id;
+            this.owner = owner;
+            this.user = user;
+        }
+
+        ReportJobDto toDto() {
+            return ReportJobDto.builder()
+                    .jobId(id)
+                    .status(status)
+                    .user(user)
+                    .submittedAt(submittedAt)
+                    .finishedAt(finishedAt)
+                    .fileSize(fileSize)
+                    .message(message)
+                    .build();
+        }
+    }
+}
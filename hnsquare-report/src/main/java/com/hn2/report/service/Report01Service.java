@@ -1,7 +1,16 @@
 package com.hn2.report.service;
 
 import com.hn2.report.payload.Reprot01Payload;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface Report01Service {
     public byte[] getReport(Reprot01Payload payload);
+
+    /**
+     * 產製報表並以串流直接寫入 HTTP response（不將整份檔案保留在記憶體）
+     *
+     * @param payload Reprot01Payload
+     * @return StreamingResponseBody
+     */
+    public StreamingResponseBody streamReport(Reprot01Payload payload);
 }
@@ -0,0 +1,36 @@
+package com.hn2.report.service;
+
+import com.hn2.report.dto.ReportJobDto;
+import com.hn2.report.payload.Reprot01Payload;
+
+import java.nio.file.Path;
+
+public interface ReportJobService {
+
+    /**
+     * 送出報表工作（排入佇列，立即回傳）
+     *
+     * @param payload Reprot01Payload
+     * @param owner   操作人員代號（每人上限與存取檢查皆以此為準，不採用 payload 內的列印人員）
+     * @return 工作狀態
+     */
+    public ReportJobDto submitReport01(Reprot01Payload payload, String owner);
+
+    /**
+     * 查詢工作狀態
+     *
+     * @param jobId 工作編號
+     * @param owner 操作人員代號；非送出者視同查無此工作
+     * @return 工作狀態
+     */
+    public ReportJobDto getStatus(String jobId, String owner);
+
+    /**
+     * 取得已完成工作的檔案
+     *
+     * @param jobId 工作編號
+     * @param owner 操作人員代號；非送出者視同查無此工作
+     * @return spool 檔案路徑
+     */
+    public Path getFile(String jobId, String owner);
+}
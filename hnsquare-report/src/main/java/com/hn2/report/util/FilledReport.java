@@ -0,0 +1,32 @@
+package com.hn2.report.util;
+
+import net.sf.jasperreports.engine.JasperPrint;
+
+/**
+ * 已填入資料的報表
+ * <p>
+ * 若 fill 時使用了虛擬化，頁面可能仍在 swap 檔中，須於匯出完成後 close() 釋放暫存檔。
+ *
+ * @author hsien
+ */
+public class FilledReport implements AutoCloseable {
+
+    private final JasperPrint jasperPrint;
+    private final ReportVirtualizer.Session virtualizerSession;
+
+    FilledReport(JasperPrint jasperPrint, ReportVirtualizer.Session virtualizerSession) {
+        this.jasperPrint = jasperPrint;
+        this.virtualizerSession = virtualizerSession;
+    }
+
+    public JasperPrint getJasperPrint() {
+        return jasperPrint;
+    }
+
+    @Override
+    public void close() {
+        if (virtualizerSession != null) {
+            virtualizerSession.close();
+        }
+    }
+}
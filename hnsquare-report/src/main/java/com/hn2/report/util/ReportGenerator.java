@@ -6,12 +6,14 @@ import net.sf.jasperreports.engine.export.JRPdfExporter;
 import net.sf.jasperreports.engine.export.oasis.JROdsExporter;
 import net.sf.jasperreports.engine.export.ooxml.JRDocxExporter;
 import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
-import net.sf.jasperreports.engine.util.JRElementsVisitor;
 import net.sf.jasperreports.export.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -22,42 +24,64 @@ import java.util.Map;
 @Component
 public class ReportGenerator {
 
+    /*** 已編譯報表樣板*/
+    @Autowired
+    private ReportTemplateRegistry templateRegistry;
+
+    /*** 分頁虛擬化*/
+    @Autowired
+    private ReportVirtualizer reportVirtualizer;
+
     /**
      * 產生報表檔案
+     * <p>
+     * 所有產製條件皆來自不可變的 {@link ReportSpec}，本元件不持有任何請求狀態，可多執行緒並行呼叫。
      *
-     * @param reportEnvironment 報表環境
+     * @param spec 報表規格
      * @param data 報表資料
      * @return byte[] 報表檔案
      * @throws Exception Exception
      */
-    public byte[] generate(ReportEnvironment reportEnvironment, Collection<?> data)
-            throws Exception {
-        return generate(reportEnvironment, data, null);
+    public byte[] generate(ReportSpec spec, Collection<?> data) throws Exception {
+        ByteArrayOutputStream oStream = new ByteArrayOutputStream();
+        try (FilledReport filledReport = fill(spec, data)) {
+            export(spec, filledReport, oStream);
+        }
+        return oStream.toByteArray();
     }
 
     /**
-     * 產生報表檔案
+     * 填入報表資料（含自定邊界）
+     * <p>
+     * 與 {@link #export(ReportSpec, FilledReport, OutputStream)} 分開，呼叫端可先完成 fill（錯誤仍可正常回應），
+     * 再將匯出直接寫到 HTTP response。資料量大時頁面會換出到 swap 檔，匯出完成後須 close()。
      *
-     * @param reportEnvironment 報表環境
+     * @param spec 報表規格
      * @param data 報表資料
-     * @param parameters 報表參數
-     * @return byte[] 報表檔案
+     * @return FilledReport
      * @throws Exception Exception
      */
-    public byte[] generate(
-            ReportEnvironment reportEnvironment, Collection<?> data, Map<String, Object> parameters)
-            throws Exception {
-        JasperPrint jasperPrint = getJasperPrint(reportEnvironment, data, parameters);
+    public FilledReport fill(ReportSpec spec, Collection<?> data) throws Exception {
+        ReportVirtualizer.Session session = reportVirtualizer.open(data == null ? 0 : data.size());
+        JasperPrint jasperPrint;
+        try {
+            jasperPrint = getJasperPrint(spec, data, session);
+        } catch (Exception e) {
+            if (session != null) {
+                session.close();
+            }
+            throw e;
+        }
 
         // 自定邊界
-        if (reportEnvironment.isCustomMargin()) {
+        if (spec.isCustomMargin()) {
 
-            int finalTop = reportEnvironment.marginTop;
-            int finalRight = reportEnvironment.marginRight;
-            int finalBottom = reportEnvironment.marginBottom;
-            int finalLeft = reportEnvironment.marginLeft;
+            int finalTop = spec.getMarginTop();
+            int finalRight = spec.getMarginRight();
+            int finalBottom = spec.getMarginBottom();
+            int finalLeft = spec.getMarginLeft();
 
-            if (reportEnvironment.addMargin) {
+            if (spec.isAddMargin()) {
                 finalTop += jasperPrint.getTopMargin();
                 finalRight += jasperPrint.getRightMargin();
                 finalBottom += jasperPrint.getBottomMargin();
@@ -69,37 +93,47 @@ public class ReportGenerator {
             jasperPrint.setBottomMargin(finalBottom);
             jasperPrint.setLeftMargin(finalLeft);
         }
+        return new FilledReport(jasperPrint, session);
+    }
 
-        ByteArrayOutputStream oStream = new ByteArrayOutputStream();
-        byte[] bytes = null;
-
-        switch (reportEnvironment.getReportFormat()) {
+    /**
+     * 匯出報表至指定串流（不在記憶體中累積整份檔案）
+     *
+     * @param spec 報表規格
+     * @param filledReport 已填入資料的報表
+     * @param oStream 輸出串流，例如 HTTP response
+     * @throws Exception Exception
+     */
+    public void export(ReportSpec spec, FilledReport filledReport, OutputStream oStream)
+            throws Exception {
+        JasperPrint jasperPrint = filledReport.getJasperPrint();
+        switch (spec.getFormat()) {
             case ReportFormat.FORMAT_PDF:
-                bytes = generatePdf(jasperPrint, oStream);
+                generatePdf(jasperPrint, oStream);
                 break;
             case ReportFormat.FORMAT_ODS:
-                bytes = generateOds(jasperPrint, oStream);
+                generateOds(jasperPrint, oStream);
                 break;
             case ReportFormat.FORMAT_XLSX:
-                bytes = generateXlsx(jasperPrint, oStream);
+                generateXlsx(jasperPrint, oStream);
                 break;
             case ReportFormat.FORMAT_DOCX:
-                bytes = generateDocx(jasperPrint, oStream);
+                generateDocx(jasperPrint, oStream);
                 break;
             default:
+                throw new IllegalArgumentException("unsupported report format: " + spec.getFormat());
         }
-        return bytes;
+        oStream.flush();
     }
 
     /**
      * 產製PDF
      *
      * @param jasperPrint JasperPrint
-     * @param oStream ByteArrayOutputStream
-     * @return byte[] 報表檔金
+     * @param oStream OutputStream
      * @throws Exception Exception
      */
-    private byte[] generatePdf(JasperPrint jasperPrint, ByteArrayOutputStream oStream)
+    private void generatePdf(JasperPrint jasperPrint, OutputStream oStream)
             throws Exception {
         SimplePdfReportConfiguration configuration = new SimplePdfReportConfiguration();
         JRPdfExporter exporter = new JRPdfExporter();
@@ -107,19 +141,16 @@ public class ReportGenerator {
         exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(oStream));
         exporter.setConfiguration(configuration);
         exporter.exportReport();
-        oStream.flush();
-        return oStream.toByteArray();
     }
 
     /**
      * 產製ODS
      *
      * @param jasperPrint JasperPrint
-     * @param oStream ByteArrayOutputStream
-     * @return byte[] 報表檔
+     * @param oStream OutputStream
      * @throws Exception Exception
      */
-    private byte[] generateOds(JasperPrint jasperPrint, ByteArrayOutputStream oStream)
+    private void generateOds(JasperPrint jasperPrint, OutputStream oStream)
             throws Exception {
         SimpleOdsReportConfiguration configuration = new SimpleOdsReportConfiguration();
         configuration.setDetectCellType(true);
@@ -130,18 +161,16 @@ public class ReportGenerator {
         exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(oStream));
         exporter.setConfiguration(configuration);
         exporter.exportReport();
-        return oStream.toByteArray();
     }
 
     /**
      * 產製XLSX
      *
      * @param jasperPrint JasperPrint
-     * @param oStream ByteArrayOutputStream
-     * @return byte[] 報表檔
+     * @param oStream OutputStream
      * @throws Exception Exception
      */
-    private byte[] generateXlsx(JasperPrint jasperPrint, ByteArrayOutputStream oStream)
+    private void generateXlsx(JasperPrint jasperPrint, OutputStream oStream)
             throws Exception {
         SimpleXlsxReportConfiguration configuration = new SimpleXlsxReportConfiguration();
         configuration.setDetectCellType(true);
@@ -152,18 +181,16 @@ public class ReportGenerator {
         exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(oStream));
         exporter.setConfiguration(configuration);
         exporter.exportReport();
-        return oStream.toByteArray();
     }
 
     /**
      * 產製DOCX
      *
      * @param jasperPrint JasperPrint
-     * @param oStream ByteArrayOutputStream
-     * @return byte[] 報表檔
+     * @param oStream OutputStream
      * @throws Exception Exception
      */
-    private byte[] generateDocx(JasperPrint jasperPrint, ByteArrayOutputStream oStream)
+    private void generateDocx(JasperPrint jasperPrint, OutputStream oStream)
             throws Exception {
         SimpleDocxReportConfiguration configuration = new SimpleDocxReportConfiguration();
         JRDocxExporter exporter = new JRDocxExporter();
@@ -171,29 +198,34 @@ public class ReportGenerator {
         exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(oStream));
         exporter.setConfiguration(configuration);
         exporter.exportReport();
-        return oStream.toByteArray();
     }
 
     /**
      * 取 JasperPrint
      *
-     * @param reportEnvironment 報表環境
+     * @param spec 報表規格
      * @param data 報表資料
-     * @param parameters 報表參數
+     * @param session 虛擬化 Session，可為 null
      * @return JasperPrint
      * @throws Exception Exception
      */
     private JasperPrint getJasperPrint(
-            ReportEnvironment reportEnvironment, Collection<?> data, Map<String, Object> parameters)
-            throws Exception {
+            ReportSpec spec, Collection<?> data, ReportVirtualizer.Session session) throws Exception {
 
-        JasperReport jasperReport =
-                JasperCompileManager.compileReport(reportEnvironment.getJrxmlFile());
-
-        JRElementsVisitor.visitReport(
-                jasperReport, new SubReportVisitor(reportEnvironment.getJrxmlDir()));
+        JasperReport jasperReport = templateRegistry.get(spec.getTemplate()).getReport();
 
+        // fill 過程會寫入內建參數，複製一份避免動到 spec
+        Map<String, Object> parameters = new HashMap<>(spec.getParameters());
+        if (session != null) {
+            parameters.put(JRParameter.REPORT_VIRTUALIZER, session.getVirtualizer());
+        }
         JRDataSource jrDataSource = new JRBeanCollectionDataSource(data);
-        return JasperFillManager.fillReport(jasperReport, parameters, jrDataSource);
+        JasperPrint jasperPrint = JasperFillManager.getInstance(templateRegistry.getJasperReportsContext())
+                .fill(jasperReport, parameters, jrDataSource);
+        if (session != null) {
+            // fill 完成後頁面不再異動，匯出讀回時不需重寫 swap 檔
+            session.getVirtualizer().setReadOnly(true);
+        }
+        return jasperPrint;
     }
 }
\ No newline at end of file
@@ -0,0 +1,314 @@
+package com.hn2.report.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hn2.util.PersonalDataErasedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 報表產出檔快取（內容定址，僅存於記憶體）
+ * <p>
+ * key = SHA-256(樣板 checksum + 輸出格式 + 邊界 + 報表參數 + 報表資料列)，相同內容的列印直接回傳既有內容，
+ * 不再重新 fill / export。產出檔含更生個案個資，因此不落地：
+ * <ul>
+ *   <li>每筆存活 ttl-seconds，過期即不再回傳並定期清除；重新啟動即全部消失。</li>
+ *   <li>總容量超過 max-bytes 時依最近使用順序（LRU）淘汰；單檔超過 max-entry-bytes 不快取。</li>
+ *   <li>串流輸出時同時保留副本的請求最多 max-concurrent-tees 個，其餘直接輸出不快取；
+ *   寫入中的副本最多佔 max-concurrent-tees × max-entry-bytes，不隨同時列印的人數增加。</li>
+ *   <li>個資塗銷交易提交後（{@link PersonalDataErasedEvent}）清空整個快取。</li>
+ * </ul>
+ *
+ * @author hsien
+ */
+@Slf4j
+@Component
+public class ReportOutputCache {
+
+    /** 是否啟用 */
+    @Value("${report.cache.enabled:true}")
+    private boolean enabled;
+
+    /** 快取總容量上限（bytes） */
+    @Value("${report.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    /** 單一產出檔容量上限（bytes） */
+    @Value("${report.cache.max-entry-bytes:4194304}")
+    private long maxEntryBytes;
+
+    /** 同時保留串流副本的請求數上限 */
+    @Value("${report.cache.max-concurrent-tees:2}")
+    private int maxConcurrentTees;
+
+    /** 存活秒數 */
+    @Value("${report.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Autowired
+    private ReportTemplateRegistry templateRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** key -> 產出檔，accessOrder=true 即為 LRU 順序 */
+    private final LinkedHashMap<String, Cached> index = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long totalBytes;
+
+    private Semaphore teePermits;
+
+    @PostConstruct
+    public void init() {
+        teePermits = new Semaphore(Math.max(maxConcurrentTees, 0));
+    }
+
+    /**
+     * 計算快取 key
+     *
+     * @param spec 報表規格
+     * @param rows 報表資料
+     * @return key；未啟用時回傳 null
+     */
+    public String key(ReportSpec spec, Collection<?> rows) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            update(md, templateRegistry.get(spec.getTemplate()).getChecksum());
+            update(md, spec.getFormat());
+            update(md, spec.isCustomMargin() + ":" + spec.getMarginTop() + ":" + spec.getMarginBottom() + ":"
+                    + spec.getMarginLeft() + ":" + spec.getMarginRight() + ":" + spec.isAddMargin());
+            md.update(objectMapper.writeValueAsBytes(new TreeMap<>(spec.getParameters())));
+            md.update((byte) '\n');
+            md.update(objectMapper.writeValueAsBytes(rows));
+            StringBuilder sb = new StringBuilder(64);
+            for (byte b : md.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            log.warn("[ReportCache] compute key failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 取得快取內容
+     *
+     * @param key 快取 key，可為 null
+     * @return 產出檔內容；未命中或已過期回傳 null
+     */
+    public byte[] get(String key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (index) {
+            Cached cached = index.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.isExpired(System.nanoTime())) {
+                remove(key);
+                return null;
+            }
+            return cached.data;
+        }
+    }
+
+    /**
+     * 建立寫入中的快取項目；export 完成後呼叫 {@link Entry#commit()} 才會加入快取
+     *
+     * @param key 快取 key，可為 null（此時不寫入）
+     * @return Entry
+     */
+    public Entry newEntry(String key) {
+        return new Entry(key);
+    }
+
+    /**
+     * 直接寫入整份內容
+     *
+     * @param key 快取 key，可為 null
+     * @param bytes 產出檔內容
+     */
+    public void put(String key, byte[] bytes) {
+        if (key == null || bytes.length > maxEntryBytes) {
+            return;
+        }
+        synchronized (index) {
+            Cached previous = index.put(key, new Cached(bytes, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            totalBytes += bytes.length - (previous == null ? 0 : previous.data.length);
+            evict();
+        }
+    }
+
+    /** 清空快取 */
+    public void clear() {
+        synchronized (index) {
+            index.clear();
+            totalBytes = 0;
+        }
+    }
+
+    /** 個資塗銷提交後清空（快取為內容定址，無法只挑出該個案的產出檔） */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onErased(PersonalDataErasedEvent event) {
+        clear();
+        log.info("[ReportCache] cleared after erase, aca={}", event.getAcaCardNo());
+    }
+
+    /** 定期清除過期項目 */
+    @Scheduled(fixedDelayString = "${report.cache.sweep-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        synchronized (index) {
+            Iterator<Map.Entry<String, Cached>> it = index.entrySet().iterator();
+            while (it.hasNext()) {
+                Cached cached = it.next().getValue();
+                if (cached.isExpired(now)) {
+                    totalBytes -= cached.data.length;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (index) {
+            Cached cached = index.remove(key);
+            if (cached != null) {
+                totalBytes -= cached.data.length;
+            }
+        }
+    }
+
+    /** 依 LRU 淘汰至容量上限以下；需持有 index 鎖 */
+    private void evict() {
+        Iterator<Map.Entry<String, Cached>> it = index.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            totalBytes -= it.next().getValue().data.length;
+            it.remove();
+        }
+    }
+
+    private static void update(MessageDigest md, String value) {
+        md.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        md.update((byte) '\n');
+    }
+
+    /** 快取內容與到期時間 */
+    private static final class Cached {
+        private final byte[] data;
+        private final long expiresAt;
+
+        Cached(byte[] data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+
+    /**
+     * 寫入中的快取項目：邊輸出邊保留一份於記憶體，commit 時納入 LRU；
+     * 取不到保留名額（同時保留數已達上限）時直接輸出不快取，超過單檔上限即放棄保留並歸還名額
+     */
+    public class Entry implements Closeable {
+        private final String key;
+        private ByteArrayOutputStream buffer;
+        private boolean permit;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        /**
+         * 同時寫入目的串流與快取緩衝
+         *
+         * @param target 目的串流（例如 HTTP response）
+         * @return OutputStream
+         */
+        public OutputStream tee(OutputStream target) {
+            if (key == null || !teePermits.tryAcquire()) {
+                return target;
+            }
+            permit = true;
+            buffer = new ByteArrayOutputStream(8192);
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    target.write(b);
+                    if (keep(1)) {
+                        buffer.write(b);
+                    }
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    target.write(b, off, len);
+                    if (keep(len)) {
+                        buffer.write(b, off, len);
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    target.flush();
+                }
+            };
+        }
+
+        private boolean keep(int len) {
+            if (buffer != null && buffer.size() + (long) len > maxEntryBytes) {
+                release();
+            }
+            return buffer != null;
+        }
+
+        /** 丟棄副本並歸還保留名額 */
+        private void release() {
+            buffer = null;
+            if (permit) {
+                permit = false;
+                teePermits.release();
+            }
+        }
+
+        /** 加入快取 */
+        public void commit() {
+            if (key != null && buffer != null) {
+                put(key, buffer.toByteArray());
+            }
+            release();
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+}
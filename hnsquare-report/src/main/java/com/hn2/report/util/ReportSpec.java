@@ -0,0 +1,70 @@
+package com.hn2.report.util;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * 報表產製規格（每次請求各自建立，不可變，可安全地多執行緒並行產製）
+ * <p>
+ * 樣板、輸出格式、邊界與報表參數皆於建立時決定，{@link ReportGenerator} 不保留任何請求狀態。
+ *
+ * <pre>
+ * ReportSpec spec = ReportSpec.builder()
+ *         .template("report01.jrxml")
+ *         .format(ReportFormat.FORMAT_PDF)
+ *         .parameter("reportNo", "Reprot01")
+ *         .build();
+ * </pre>
+ *
+ * @author hsien
+ */
+@Value
+@Builder
+public class ReportSpec {
+
+    /** 相對於 jasperreports/ 的 jrxml 路徑 */
+    String template;
+
+    /** 輸出格式，參考 {@link ReportFormat} */
+    @Builder.Default
+    String format = ReportFormat.FORMAT_PDF;
+
+    /** 報表參數 */
+    @Singular
+    Map<String, Object> parameters;
+
+    /** 是否自訂邊界 */
+    boolean customMargin;
+    int marginTop;
+    int marginBottom;
+    int marginLeft;
+    int marginRight;
+    /** 是否累加原報表的邊界 */
+    boolean addMargin;
+
+    public static class ReportSpecBuilder {
+
+        /**
+         * 設定邊界
+         *
+         * @param top 上
+         * @param bottom 下
+         * @param left 左
+         * @param right 右
+         * @param addMargin 是否累加原報表的邊界
+         * @return ReportSpecBuilder
+         */
+        public ReportSpecBuilder margin(int top, int bottom, int left, int right, boolean addMargin) {
+            this.marginTop = top;
+            this.marginBottom = bottom;
+            this.marginLeft = left;
+            this.marginRight = right;
+            this.addMargin = addMargin;
+            this.customMargin = true;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.hn2.report.util;
+
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.repo.ReportResource;
+import net.sf.jasperreports.repo.RepositoryService;
+import net.sf.jasperreports.repo.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 已編譯報表樣板 Registry
+ * <p>
+ * - 啟動時（或第一次使用時）將 jasperreports/ 下的 jrxml 編譯成 JasperReport 並常駐記憶體，不再每次列印都重新編譯
+ * - 以樣板路徑為 key，記錄 jrxml 內容的 SHA-256 checksum；開啟 hot-reload 時（dev）checksum 變動即重新編譯
+ * - 子報表（*.jasper）由 {@link #getJasperReportsContext()} 內的 RepositoryService 自記憶體提供，不再寫回 classpath
+ *
+ * @author hsien
+ */
+@Slf4j
+@Component
+public class ReportTemplateRegistry {
+
+    /** 報表樣板根目錄 */
+    public static final String REPORT_ROOT_PATH = "jasperreports/";
+
+    private static final String JRXML = ".jrxml";
+    private static final String JASPER = ".jasper";
+
+    /** 是否於啟動時預先編譯所有樣板 */
+    @Value("${report.template.precompile:true}")
+    private boolean precompile;
+
+    /** 是否於每次取用時比對 checksum，樣板變動即重新編譯（建議僅 dev 開啟） */
+    @Value("${report.template.hot-reload:false}")
+    private boolean hotReload;
+
+    private final Map<String, CompiledTemplate> cache = new ConcurrentHashMap<>();
+
+    private final SimpleJasperReportsContext jasperReportsContext;
+
+    public ReportTemplateRegistry() {
+        JasperReportsContext parent = DefaultJasperReportsContext.getInstance();
+        List<RepositoryService> services = new ArrayList<>();
+        services.add(new CompiledTemplateRepositoryService());
+        services.addAll(parent.getExtensions(RepositoryService.class));
+        jasperReportsContext = new SimpleJasperReportsContext(parent);
+        jasperReportsContext.setExtensions(RepositoryService.class, services);
+    }
+
+    /** 啟動時預先編譯 jasperreports/ 下所有樣板；個別失敗只記錄，首次使用時會再嘗試 */
+    @PostConstruct
+    public void precompileAll() {
+        if (!precompile) {
+            return;
+        }
+        try {
+            org.springframework.core.io.Resource[] resources =
+                    new PathMatchingResourcePatternResolver().getResources("classpath*:" + REPORT_ROOT_PATH + "**/*" + JRXML);
+            for (org.springframework.core.io.Resource resource : resources) {
+                String url = resource.getURL().toString();
+                String templatePath = url.substring(url.lastIndexOf(REPORT_ROOT_PATH) + REPORT_ROOT_PATH.length());
+                try {
+                    get(templatePath);
+                } catch (Exception e) {
+                    log.warn("[ReportTemplate] precompile failed: {} - {}", templatePath, e.getMessage());
+                }
+            }
+            log.info("[ReportTemplate] precompiled {} template(s)", cache.size());
+        } catch (IOException e) {
+            log.warn("[ReportTemplate] scan templates failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 取得已編譯樣板
+     *
+     * @param templatePath 相對於 jasperreports/ 的 jrxml 路徑，例如 report01.jrxml
+     * @return CompiledTemplate
+     */
+    public CompiledTemplate get(String templatePath) {
+        CompiledTemplate cached = cache.get(templatePath);
+        if (cached != null && !hotReload) {
+            return cached;
+        }
+        byte[] jrxml = readTemplate(templatePath);
+        String checksum = sha256Hex(jrxml);
+        if (cached != null && cached.getChecksum().equals(checksum)) {
+            return cached;
+        }
+        return cache.compute(templatePath, (key, current) -> {
+            if (current != null && current.getChecksum().equals(checksum)) {
+                return current;
+            }
+            CompiledTemplate compiled = compile(key, jrxml, checksum);
+            log.info("[ReportTemplate] {} {} (sha256={})", current == null ? "compiled" : "reloaded", key, checksum);
+            return compiled;
+        });
+    }
+
+    /**
+     * 填表用的 JasperReportsContext：子報表（*.jasper）優先自本 Registry 取得已編譯樣板
+     *
+     * @return JasperReportsContext
+     */
+    public JasperReportsContext getJasperReportsContext() {
+        return jasperReportsContext;
+    }
+
+    private CompiledTemplate compile(String templatePath, byte[] jrxml, String checksum) {
+        try {
+            JasperReport report = JasperCompileManager.getInstance(jasperReportsContext)
+                    .compile(new ByteArrayInputStream(jrxml));
+            return new CompiledTemplate(templatePath, checksum, report);
+        } catch (JRException e) {
+            throw new IllegalStateException("can't compile report template: " + templatePath, e);
+        }
+    }
+
+    private byte[] readTemplate(String templatePath) {
+        ClassPathResource resource = new ClassPathResource(REPORT_ROOT_PATH + templatePath);
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("report template not found: " + templatePath, e);
+        }
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** 將子報表位置（如 "sub/detail.jasper"、"jasperreports/sub/detail.jasper"）轉成樣板路徑 */
+    private static String toTemplatePath(String location) {
+        String path = location.replace('\\', '/');
+        int idx = path.lastIndexOf(REPORT_ROOT_PATH);
+        if (idx >= 0) {
+            path = path.substring(idx + REPORT_ROOT_PATH.length());
+        }
+        if (path.startsWith("classpath:")) {
+            path = path.substring("classpath:".length());
+        }
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return path.substring(0, path.length() - JASPER.length()) + JRXML;
+    }
+
+    /** 已編譯樣板 */
+    public static class CompiledTemplate {
+        private final String templatePath;
+        private final String checksum;
+        private final JasperReport report;
+
+        CompiledTemplate(String templatePath, String checksum, JasperReport report) {
+            this.templatePath = templatePath;
+            this.checksum = checksum;
+            this.report = report;
+        }
+
+        public String getTemplatePath() {
+            return templatePath;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+
+        public JasperReport getReport() {
+            return report;
+        }
+    }
+
+    /** 子報表來源：*.jasper 對應到同名 jrxml 的已編譯結果；找不到則交給後續預設 RepositoryService */
+    private class CompiledTemplateRepositoryService implements RepositoryService {
+
+        @Override
+        public Resource getResource(String uri) {
+            return getResource(uri, ReportResource.class);
+        }
+
+        /**
+         * 不支援寫入：本來源只提供由 jrxml 編譯出的樣板，內容以 jrxml 的 checksum 為準。
+         * JasperReports 的編譯、填表、匯出流程都只讀取 RepositoryService，不會呼叫 saveResource
+         * （內建的 DefaultRepositoryService 同樣不支援）；若有程式誤用，明確指出原因而不是靜默丟棄。
+         */
+        @Override
+        public void saveResource(String uri, Resource resource) {
+            throw new UnsupportedOperationException("ReportTemplateRegistry is read-only; "
+                    + "compiled templates come from " + REPORT_ROOT_PATH + "*.jrxml, can't save " + uri);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K extends Resource> K getResource(String uri, Class<K> resourceType) {
+            if (uri == null || !uri.endsWith(JASPER) || !resourceType.isAssignableFrom(ReportResource.class)) {
+                return null;
+            }
+            String templatePath = toTemplatePath(uri);
+            if (!new ClassPathResource(REPORT_ROOT_PATH + templatePath).exists()) {
+                return null;
+            }
+            ReportResource resource = new ReportResource();
+            resource.setReport(get(templatePath).getReport());
+            return (K) resource;
+        }
+    }
+}
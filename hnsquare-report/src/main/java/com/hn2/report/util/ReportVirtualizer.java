@@ -0,0 +1,138 @@
+package com.hn2.report.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 報表分頁虛擬化（JRSwapFileVirtualizer）
+ * <p>
+ * 資料筆數達門檻時，fill 期間僅保留 max-size 頁於記憶體，其餘頁面序列化到暫存目錄的 swap 檔；
+ * 匯出結束後由 {@link FilledReport#close()} 刪除 swap 檔，並記錄本次換出頁數與寫入位元組數。
+ *
+ * @author hsien
+ */
+@Slf4j
+@Component
+public class ReportVirtualizer {
+
+    /** 是否啟用 */
+    @Value("${report.virtualizer.enabled:true}")
+    private boolean enabled;
+
+    /** 資料筆數達此門檻才使用虛擬化 */
+    @Value("${report.virtualizer.min-rows:200}")
+    private int minRows;
+
+    /** 記憶體中保留的頁數 */
+    @Value("${report.virtualizer.max-size:50}")
+    private int maxSize;
+
+    /** swap 檔目錄 */
+    @Value("${report.virtualizer.dir:${java.io.tmpdir}/report-swap}")
+    private String dir;
+
+    /** swap 檔區塊大小（bytes） */
+    @Value("${report.virtualizer.block-size:4096}")
+    private int blockSize;
+
+    /** swap 檔每次擴充的區塊數 */
+    @Value("${report.virtualizer.min-grow-count:100}")
+    private int minGrowCount;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter pagesSwappedCounter;
+    private Counter bytesWrittenCounter;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (enabled) {
+            File swapDir = new File(dir);
+            if (!swapDir.isDirectory() && !swapDir.mkdirs()) {
+                throw new IOException("can't create report swap dir: " + dir);
+            }
+        }
+        pagesSwappedCounter = Counter.builder("report.virtualizer.pages.swapped")
+                .description("Report pages swapped to disk by the fill virtualizer")
+                .register(meterRegistry);
+        bytesWrittenCounter = Counter.builder("report.virtualizer.bytes.written")
+                .description("Bytes written to report swap files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 依資料筆數決定是否建立虛擬化 Session
+     *
+     * @param rows 報表資料筆數
+     * @return Session；未達門檻或未啟用時回傳 null
+     */
+    public Session open(int rows) {
+        if (!enabled || rows < minRows) {
+            return null;
+        }
+        CountingSwapFile swapFile = new CountingSwapFile(dir, blockSize, minGrowCount);
+        return new Session(new JRSwapFileVirtualizer(maxSize, swapFile, true), swapFile);
+    }
+
+    /** 單次 fill / export 使用的虛擬化資源 */
+    public class Session implements AutoCloseable {
+        private final JRSwapFileVirtualizer virtualizer;
+        private final CountingSwapFile swapFile;
+
+        Session(JRSwapFileVirtualizer virtualizer, CountingSwapFile swapFile) {
+            this.virtualizer = virtualizer;
+            this.swapFile = swapFile;
+        }
+
+        public JRSwapFileVirtualizer getVirtualizer() {
+            return virtualizer;
+        }
+
+        public long getPagesSwapped() {
+            return swapFile.pages.get();
+        }
+
+        public long getBytesWritten() {
+            return swapFile.bytes.get();
+        }
+
+        /** 刪除 swap 檔並記錄統計 */
+        @Override
+        public void close() {
+            virtualizer.cleanup();
+            pagesSwappedCounter.increment(getPagesSwapped());
+            bytesWrittenCounter.increment(getBytesWritten());
+            log.info("[ReportVirtualizer] pages swapped={}, bytes written={}", getPagesSwapped(), getBytesWritten());
+        }
+    }
+
+    /** 計算寫入次數（頁）與位元組數的 swap 檔 */
+    private static class CountingSwapFile extends JRSwapFile {
+        private final AtomicLong pages = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        CountingSwapFile(String directory, int blockSize, int minGrowCount) {
+            super(directory, blockSize, minGrowCount);
+        }
+
+        @Override
+        public SwapHandle write(byte[] data) throws IOException {
+            pages.incrementAndGet();
+            bytes.addAndGet(data.length);
+            return super.write(data);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.hn2.report.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.hn2.report.dto.ReportJobDto;
+import com.hn2.report.payload.Reprot01Payload;
+import com.hn2.report.service.Report01Service;
+import com.hn2.report.service.ReportJobService;
+import com.hn2.util.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+public class Report01ControllerTest {
+    private static final String SUBMIT_BODY = "{\"itemIdList\":[\"A001\",\"A002\"],\"printUser\":\"王小明\",\"operatorUserId\":\"88\"}";
+
+    private ReportJobService reportJobService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        reportJobService = mock(ReportJobService.class);
+        Report01Controller controller = new Report01Controller();
+        controller.service = mock(Report01Service.class);
+        controller.reportJobService = reportJobService;
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    public void testSubmitJobUsesOperatorAsOwner() throws Exception {
+        // Arrange
+        when(reportJobService.submitReport01(any(Reprot01Payload.class), eq("88")))
+                .thenReturn(ReportJobDto.builder().jobId("job-1").status("QUEUED").user("王小明").build());
+
+        // action & assert
+        mockMvc.perform(post("/aca/aca1000/report01/jobs").contentType(MediaType.APPLICATION_JSON).content(SUBMIT_BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.user").value("王小明"));
+        verify(reportJobService).submitReport01(any(Reprot01Payload.class), eq("88"));
+    }
+
+    @Test
+    public void testGetJobUsesOperatorAsOwner() throws Exception {
+        // Arrange
+        when(reportJobService.getStatus("job-1", "88"))
+                .thenReturn(ReportJobDto.builder().jobId("job-1").status("DONE").fileSize(1024L).build());
+
+        // action & assert
+        mockMvc.perform(get("/aca/aca1000/report01/jobs/job-1").param("operatorUserId", "88"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DONE"))
+                .andExpect(jsonPath("$.fileSize").value(1024));
+    }
+
+    @Test
+    public void testSubmitJobRejectsInvalidPayload() throws Exception {
+        // action & assert
+        mockMvc.perform(post("/aca/aca1000/report01/jobs").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemIdList\":[],\"printUser\":\"王小明\",\"operatorUserId\":\"88\"}"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(reportJobService);
+    }
+
+    @Test
+    public void testGetJobWithoutOperatorRejected() {
+        // action
+        Exception e = assertThrows(Exception.class, () -> mockMvc.perform(get("/aca/aca1000/report01/jobs/job-1")));
+
+        // assert
+        assertTrue(e.getCause() instanceof BusinessException);
+        assertEquals("缺少操作人員代號", e.getCause().getMessage());
+        verifyNoInteractions(reportJobService);
+    }
+}
@@ -0,0 +1,111 @@
+package com.hn2.report.service.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.hn2.report.payload.Reprot01Payload;
+import com.hn2.report.service.Report01Service;
+import com.hn2.util.BusinessException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ReportJobServiceImplTest {
+    @TempDir
+    Path spool;
+
+    private CountDownLatch release;
+    private ReportJobServiceImpl reportJobService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        release = new CountDownLatch(1);
+        Report01Service report01Service = mock(Report01Service.class);
+        when(report01Service.streamReport(any())).thenReturn(out -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.write("%PDF".getBytes());
+        });
+        reportJobService = new ReportJobServiceImpl();
+        ReflectionTestUtils.setField(reportJobService, "report01Service", report01Service);
+        ReflectionTestUtils.setField(reportJobService, "workers", 2);
+        ReflectionTestUtils.setField(reportJobService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(reportJobService, "perUserLimit", 2);
+        ReflectionTestUtils.setField(reportJobService, "spoolDir", spool.toString());
+        ReflectionTestUtils.setField(reportJobService, "ttlMinutes", 60L);
+        reportJobService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        reportJobService.shutdown();
+    }
+
+    @Test
+    public void testPerUserLimitAndCounterRemoved() throws Exception {
+        // action
+        String first = reportJobService.submitReport01(payload(), "88").getJobId();
+        String second = reportJobService.submitReport01(payload(), "88").getJobId();
+
+        // assert：同一人第三份被拒，其他人不受影響
+        assertThrows(BusinessException.class, () -> reportJobService.submitReport01(payload(), "88"));
+        assertEquals(2, activeByUser().get("88"));
+
+        release.countDown();
+        awaitDone(first, "88");
+        awaitDone(second, "88");
+        // 名額於工作結束後釋放，歸零即移除
+        for (int i = 0; i < 500 && !activeByUser().isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(activeByUser().isEmpty());
+        assertTrue(reportJobService.getFile(first, "88").toFile().isFile());
+    }
+
+    @Test
+    public void testOtherOwnerCannotSeeJob() throws Exception {
+        // action
+        String jobId = reportJobService.submitReport01(payload(), "88").getJobId();
+
+        // assert
+        assertThrows(BusinessException.class, () -> reportJobService.getStatus(jobId, "12"));
+        assertThrows(BusinessException.class, () -> reportJobService.getFile(jobId, "12"));
+        release.countDown();
+        awaitDone(jobId, "88");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Integer> activeByUser() {
+        return (Map<String, Integer>) ReflectionTestUtils.getField(reportJobService, "activeByUser");
+    }
+
+    private void awaitDone(String jobId, String owner) throws InterruptedException {
+        for (int i = 0; i < 500 && !"DONE".equals(reportJobService.getStatus(jobId, owner).getStatus()); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals("DONE", reportJobService.getStatus(jobId, owner).getStatus());
+    }
+
+    private static Reprot01Payload payload() {
+        Reprot01Payload payload = new Reprot01Payload();
+        payload.setItemIdList(List.of("A001"));
+        payload.setPrintUser("王小明");
+        payload.setOperatorUserId("88");
+        return payload;
+    }
+}
@@ -0,0 +1,99 @@
+package com.hn2.report.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ReportOutputCacheTest {
+    private ReportOutputCache reportOutputCache;
+
+    @BeforeEach
+    public void setup() {
+        reportOutputCache = new ReportOutputCache();
+        ReflectionTestUtils.setField(reportOutputCache, "enabled", true);
+        ReflectionTestUtils.setField(reportOutputCache, "maxBytes", 1024L);
+        ReflectionTestUtils.setField(reportOutputCache, "maxEntryBytes", 8L);
+        ReflectionTestUtils.setField(reportOutputCache, "maxConcurrentTees", 1);
+        ReflectionTestUtils.setField(reportOutputCache, "ttlSeconds", 600L);
+        reportOutputCache.init();
+    }
+
+    @Test
+    public void testTeeCommit() throws Exception {
+        // Arrange
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        // action
+        try (ReportOutputCache.Entry entry = reportOutputCache.newEntry("k1")) {
+            entry.tee(target).write("%PDF".getBytes());
+            entry.commit();
+        }
+
+        // assert
+        assertArrayEquals("%PDF".getBytes(), target.toByteArray());
+        assertArrayEquals("%PDF".getBytes(), reportOutputCache.get("k1"));
+    }
+
+    @Test
+    public void testConcurrentTeesBounded() throws Exception {
+        // Arrange
+        ByteArrayOutputStream target1 = new ByteArrayOutputStream();
+        ByteArrayOutputStream target2 = new ByteArrayOutputStream();
+        ReportOutputCache.Entry first = reportOutputCache.newEntry("k1");
+        ReportOutputCache.Entry second = reportOutputCache.newEntry("k2");
+
+        // action：名額只有一個，第二個請求直接輸出不保留副本
+        OutputStream out1 = first.tee(target1);
+        OutputStream out2 = second.tee(target2);
+        out1.write(1);
+        out2.write(2);
+        second.commit();
+        first.commit();
+
+        // assert
+        assertSame(target2, out2);
+        assertArrayEquals(new byte[]{2}, target2.toByteArray());
+        assertNull(reportOutputCache.get("k2"));
+        assertArrayEquals(new byte[]{1}, reportOutputCache.get("k1"));
+    }
+
+    @Test
+    public void testPermitReleasedWhenEntryTooLarge() throws Exception {
+        // action：超過單檔上限即放棄保留並歸還名額
+        try (ReportOutputCache.Entry big = reportOutputCache.newEntry("big")) {
+            big.tee(new ByteArrayOutputStream()).write(new byte[16]);
+            big.commit();
+        }
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (ReportOutputCache.Entry next = reportOutputCache.newEntry("next")) {
+            next.tee(target).write(7);
+            next.commit();
+        }
+
+        // assert
+        assertNull(reportOutputCache.get("big"));
+        assertArrayEquals(new byte[]{7}, reportOutputCache.get("next"));
+    }
+
+    @Test
+    public void testPermitReleasedOnClose() throws Exception {
+        // action：export 失敗未 commit，close 仍歸還名額
+        try (ReportOutputCache.Entry failed = reportOutputCache.newEntry("failed")) {
+            failed.tee(new ByteArrayOutputStream()).write(1);
+        }
+        try (ReportOutputCache.Entry next = reportOutputCache.newEntry("next")) {
+            next.tee(new ByteArrayOutputStream()).write(7);
+            next.commit();
+        }
+
+        // assert
+        assertNull(reportOutputCache.get("failed"));
+        assertArrayEquals(new byte[]{7}, reportOutputCache.get("next"));
+    }
+}
@@ -16,7 +16,11 @@ public enum ErrorType {
 
     RESOURCE_CONSTANT(406, "資源不可變更"),
 
-    REQUEST_NOT_ALLOW(400, "輸入資料不合法");
+    REQUEST_NOT_ALLOW(400, "輸入資料不合法"),
+
+    TOO_MANY_REQUESTS(429, "請求過多，請稍後再試"),
+
+    SERVICE_TIMEOUT(504, "處理逾時，請稍後再試");
 
     private final int status;
     private final String message;
@@ -0,0 +1,96 @@
+package com.hn2.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * JdbcTemplate 批次寫入 Helper（與 {@link Sql2oHelper#executeBatch} 相同用法，給使用 JdbcTemplate 的 Repository）
+ *
+ * <p>未在交易中時每批各自 auto-commit；需要整體一致時請由呼叫端加上 @Transactional。
+ */
+@Component
+public class JdbcBatchHelper {
+
+  /** NamedParameterJdbcTemplate */
+  @Autowired NamedParameterJdbcTemplate npJdbc;
+
+  /** 批次寫入每批筆數 */
+  @Value("${app.jdbc.batch-size:500}")
+  int batchSize;
+
+  /**
+   * 批次執行（參數來源為 Map）
+   *
+   * @param sql sql語法（:參數名稱）
+   * @param rows 每筆的參數
+   * @return 每筆的異動筆數
+   */
+  public int[] batchUpdate(String sql, List<? extends Map<String, ?>> rows) {
+    return batchUpdate(sql, rows, batchSize);
+  }
+
+  /**
+   * 批次執行（參數來源為 Map）
+   *
+   * @param sql sql語法（:參數名稱）
+   * @param rows 每筆的參數
+   * @param batchSize 每批筆數
+   * @return 每筆的異動筆數
+   */
+  public int[] batchUpdate(String sql, List<? extends Map<String, ?>> rows, int batchSize) {
+    return doBatch(sql, rows, batchSize, MapSqlParameterSource::new);
+  }
+
+  /**
+   * 批次執行（參數來源為物件屬性）
+   *
+   * @param sql sql語法（:參數名稱）
+   * @param beans 每筆的物件
+   * @param <T> 泛型
+   * @return 每筆的異動筆數
+   */
+  public <T> int[] batchUpdateBeans(String sql, List<T> beans) {
+    return batchUpdateBeans(sql, beans, batchSize);
+  }
+
+  /**
+   * 批次執行（參數來源為物件屬性）
+   *
+   * @param sql sql語法（:參數名稱）
+   * @param beans 每筆的物件
+   * @param batchSize 每批筆數
+   * @param <T> 泛型
+   * @return 每筆的異動筆數
+   */
+  public <T> int[] batchUpdateBeans(String sql, List<T> beans, int batchSize) {
+    return doBatch(sql, beans, batchSize, BeanPropertySqlParameterSource::new);
+  }
+
+  private <T> int[] doBatch(
+      String sql, List<T> rows, int batchSize, Function<T, SqlParameterSource> toSource) {
+    if (null == rows || rows.isEmpty()) {
+      return new int[0];
+    }
+    int size = Math.max(1, batchSize);
+    int[] counts = new int[rows.size()];
+    for (int from = 0; from < rows.size(); from += size) {
+      List<T> chunk = rows.subList(from, Math.min(from + size, rows.size()));
+      SqlParameterSource[] sources = new SqlParameterSource[chunk.size()];
+      for (int i = 0; i < chunk.size(); i++) {
+        sources[i] = toSource.apply(chunk.get(i));
+      }
+      int[] result = npJdbc.batchUpdate(sql, sources);
+      System.arraycopy(result, 0, counts, from, result.length);
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,19 @@
+package com.hn2.util;
+
+/**
+ * 個資塗銷完成事件
+ *
+ * <p>塗銷交易內發布，監聽端以 {@code @TransactionalEventListener} 於提交後清除含個資的快取（例如報表產出檔快取）。
+ */
+public class PersonalDataErasedEvent {
+  /** 個案卡號 */
+  private final String acaCardNo;
+
+  public PersonalDataErasedEvent(String acaCardNo) {
+    this.acaCardNo = acaCardNo;
+  }
+
+  public String getAcaCardNo() {
+    return acaCardNo;
+  }
+}
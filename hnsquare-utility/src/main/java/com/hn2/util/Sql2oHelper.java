@@ -2,13 +2,23 @@ package com.hn2.util;
 
 import org.simpleflatmapper.sql2o.SfmResultSetHandlerFactoryBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.sql2o.Connection;
 import org.sql2o.Query;
+import org.sql2o.ResultSetHandler;
+import org.sql2o.ResultSetHandlerFactory;
+import org.sql2o.ResultSetIterable;
 import org.sql2o.Sql2o;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Sql2o Helper 提供 Sql2o 擴充功能
@@ -21,6 +31,24 @@ public class Sql2oHelper {
   /** Sql2o */
   @Autowired Sql2o sql2o;
 
+  /** 批次寫入每批筆數 */
+  @Value("${app.jdbc.batch-size:500}")
+  int batchSize;
+
+  /** 串流查詢每次向 DB 取回的筆數 */
+  @Value("${app.jdbc.fetch-size:1000}")
+  int fetchSize;
+
+  /** 已建立的 SimpleFlatMapper mapper（類別 + SQL），超過上限依 LRU 淘汰 */
+  private final Map<String, ResultSetHandlerFactory<?>> mapperCache =
+      Collections.synchronizedMap(
+          new LinkedHashMap<String, ResultSetHandlerFactory<?>>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResultSetHandlerFactory<?>> eldest) {
+              return size() > 256;
+            }
+          });
+
   private Connection connection;
 
     /**
@@ -43,13 +71,94 @@ public class Sql2oHelper {
         }
 
         // SimpleFlatMapper
-        query.setAutoDeriveColumnNames(true);
-        query.setResultSetHandlerFactoryBuilder(new SfmResultSetHandlerFactoryBuilder());
-        return (List<T>) query.executeAndFetch(clasz);
+        return query.executeAndFetch(mapperFor(sql, clasz));
       }
     }
   }
 
+  /**
+   * 串流取資料（forward-only ResultSet，逐筆 mapping，不先載入整個 List）
+   *
+   * <p>回傳的 Stream 佔用連線，必須以 try-with-resources 關閉。
+   *
+   * @param sql sql語法
+   * @param params 參數
+   * @param clasz 類別
+   * @param <T> 泛型
+   * @return 泛型Stream
+   */
+  public <T> Stream<T> queryStream(String sql, Map<String, Object> params, Class<T> clasz) {
+    Connection con = sql2o.open();
+    try {
+      Query query = con.createQuery(sql);
+      if (null != params) {
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+          query.addParameter(entry.getKey(), entry.getValue());
+        }
+      }
+      ResultSetIterable<T> rows = query.executeAndFetchLazy(withFetchSize(mapperFor(sql, clasz)));
+      return StreamSupport.stream(rows.spliterator(), false)
+          .onClose(
+              () -> {
+                try {
+                  rows.close();
+                  query.close();
+                } finally {
+                  con.close();
+                }
+              });
+    } catch (RuntimeException e) {
+      con.close();
+      throw e;
+    }
+  }
+
+  /**
+   * 串流取資料，逐筆交給 consumer 處理
+   *
+   * @param sql sql語法
+   * @param params 參數
+   * @param clasz 類別
+   * @param consumer 逐筆處理
+   * @param <T> 泛型
+   */
+  public <T> void queryForEach(
+      String sql, Map<String, Object> params, Class<T> clasz, Consumer<? super T> consumer) {
+    try (Stream<T> stream = queryStream(sql, params, clasz)) {
+      stream.forEach(consumer);
+    }
+  }
+
+  /** 取得（或建立）類別 + SQL 對應的 mapper */
+  @SuppressWarnings("unchecked")
+  private <T> ResultSetHandlerFactory<T> mapperFor(String sql, Class<T> clasz) {
+    return (ResultSetHandlerFactory<T>)
+        mapperCache.computeIfAbsent(
+            clasz.getName() + '\n' + sql,
+            key -> {
+              SfmResultSetHandlerFactoryBuilder builder = new SfmResultSetHandlerFactoryBuilder();
+              builder.setAutoDeriveColumnNames(true);
+              builder.setQuirks(sql2o.getQuirks());
+              builder.setColumnMappings(sql2o.getDefaultColumnMappings());
+              return builder.newFactory(clasz);
+            });
+  }
+
+  /** 第一筆 mapping 時設定 ResultSet fetch size，之後向 DB 取資料即依此筆數分批 */
+  private <T> ResultSetHandlerFactory<T> withFetchSize(ResultSetHandlerFactory<T> factory) {
+    return metaData -> {
+      ResultSetHandler<T> handler = factory.newResultSetHandler(metaData);
+      boolean[] configured = {false};
+      return rs -> {
+        if (!configured[0]) {
+          configured[0] = true;
+          rs.setFetchSize(fetchSize);
+        }
+        return handler.handle(rs);
+      };
+    };
+  }
+
   /**
    * 取資料
    *
@@ -132,4 +241,90 @@ public class Sql2oHelper {
           throw new BusinessException(ErrorType.UNKNOWN, e.getMessage());
       }
   }
+
+  /**
+   * 批次執行（參數來源為 Map）
+   *
+   * <p>每 batchSize 筆送出一次 executeBatch，全部筆數於同一交易內完成；若呼叫端已在 Spring 交易中則加入該交易。
+   *
+   * @param sql sql語法
+   * @param rows 每筆的參數
+   * @return 每筆的異動筆數
+   */
+  public int[] executeBatch(String sql, List<? extends Map<String, ?>> rows) {
+    return executeBatch(sql, rows, batchSize);
+  }
+
+  /**
+   * 批次執行（參數來源為 Map）
+   *
+   * @param sql sql語法
+   * @param rows 每筆的參數
+   * @param batchSize 每批筆數
+   * @return 每筆的異動筆數
+   */
+  public int[] executeBatch(String sql, List<? extends Map<String, ?>> rows, int batchSize) {
+    return doBatch(sql, rows, batchSize, (query, row) -> {
+      for (Map.Entry<String, ?> entry : row.entrySet()) {
+        query.addParameter(entry.getKey(), entry.getValue());
+      }
+    });
+  }
+
+  /**
+   * 批次執行（參數來源為物件屬性，依 :參數名稱 對應屬性名稱）
+   *
+   * @param sql sql語法
+   * @param beans 每筆的物件
+   * @param <T> 泛型
+   * @return 每筆的異動筆數
+   */
+  public <T> int[] executeBatchBeans(String sql, List<T> beans) {
+    return executeBatchBeans(sql, beans, batchSize);
+  }
+
+  /**
+   * 批次執行（參數來源為物件屬性，依 :參數名稱 對應屬性名稱）
+   *
+   * @param sql sql語法
+   * @param beans 每筆的物件
+   * @param batchSize 每批筆數
+   * @param <T> 泛型
+   * @return 每筆的異動筆數
+   */
+  public <T> int[] executeBatchBeans(String sql, List<T> beans, int batchSize) {
+    return doBatch(sql, beans, batchSize, Query::bind);
+  }
+
+  private <T> int[] doBatch(String sql, List<T> rows, int batchSize, BatchBinder<T> binder) {
+    if (null == rows || rows.isEmpty()) {
+      return new int[0];
+    }
+    int size = Math.max(1, batchSize);
+    int[] counts = new int[rows.size()];
+    int done = 0;
+    Connection con = sql2o.beginTransaction();
+    try (Query query = con.createQuery(sql)) {
+      for (int i = 0; i < rows.size(); i++) {
+        binder.bind(query, rows.get(i));
+        query.addToBatch();
+        if ((i + 1) % size == 0 || i == rows.size() - 1) {
+          int[] result = query.executeBatch().getBatchResult();
+          System.arraycopy(result, 0, counts, done, result.length);
+          done += result.length;
+        }
+      }
+      con.commit();
+      return done == counts.length ? counts : Arrays.copyOf(counts, done);
+    } catch (Exception e) {
+      con.rollback();
+      throw new BusinessException(ErrorType.UNKNOWN, e.getMessage());
+    }
+  }
+
+  /** 綁定單筆參數 */
+  @FunctionalInterface
+  private interface BatchBinder<T> {
+    void bind(Query query, T row);
+  }
 }
@@ -24,4 +24,15 @@ public class SqlStringHelper {
 
     return sql;
   }
+
+  /**
+   * 建立 seek（keyset）分頁用raw sql<br>
+   * 搭配「排序鍵 &gt; 上一頁最後一筆」條件使用，只取下一頁筆數，不需略過前面的資料
+   *
+   * @param pageSize 分頁筆數
+   * @return 分頁用raw sql字串
+   */
+  public String getSeekPageSql(int pageSize) {
+    return "OFFSET 0 ROWS\nFETCH NEXT " + pageSize + " ROWS ONLY\n";
+  }
 }
@@ -0,0 +1,36 @@
+package com.hn2.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SqlStringHelperSeekPageTest {
+  private SqlStringHelper sqlStringHelper;
+
+  @BeforeEach
+  public void setup() {
+    sqlStringHelper = new SqlStringHelper();
+  }
+
+  @Test
+  public void testGetSeekPageSql() {
+    // Arrange：seek 分頁不略過任何資料，只取下一頁筆數
+    String expected = "OFFSET 0 ROWS\n" + "FETCH NEXT 20 ROWS ONLY\n";
+    String actual;
+
+    // action
+    actual = sqlStringHelper.getSeekPageSql(20);
+
+    // assert
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testGetSeekPageSqlEqualsFirstPage() {
+    // seek 分頁每頁皆等同頁碼分頁的第一頁
+    for (int pageSize : new int[] {1, 10, 50}) {
+      assertEquals(sqlStringHelper.getPageSql(1, pageSize), sqlStringHelper.getSeekPageSql(pageSize));
+    }
+  }
+}